@@ -0,0 +1,18 @@
+#!/usr/bin/env sh
+# Porovná dva výsledky JMH (java -jar target/benchmarks.jar -rf json -rff ...) a označí regrese.
+# Použití: ./compare-results.sh base.json current.json [práh v %, výchozí 10]
+# Při regresi skončí s kódem 1.
+set -e
+
+if [ "$#" -lt 2 ]; then
+    echo "Použití: $0 <base.json> <current.json> [práh v %]" >&2
+    exit 2
+fi
+
+jar="$(dirname "$0")/target/benchmarks.jar"
+if [ ! -f "$jar" ]; then
+    echo "Chybí $jar, nejdřív spusťte mvn package" >&2
+    exit 2
+fi
+
+exec java -cp "$jar" com.kodprodobro.kodprodobro.benchmark.JmhResultComparator "$@"
@@ -0,0 +1,128 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.*;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark hromadného INSERTu přes Hibernate: IDENTITY vs. sekvence s optimizerem pooled-lo
+ * a JDBC dávkami. Entita odpovídá {@code BlacklistedToken}, stejný tvar mají seeding uživatelů
+ * i import projektů. Při setupu vypíše počet připravených příkazů - u IDENTITY jeden round-trip na řádek,
+ * u sekvence jeden {@code nextval} na blok ID a jeden {@code executeBatch} na dávku.
+ * <p>
+ * Potřebuje běžící databázi: {@code -Dbenchmark.jdbc.url=... -Dbenchmark.jdbc.username=... -Dbenchmark.jdbc.password=...}
+ * (výchozí je lokální PostgreSQL z {@code application-local.properties}). Tabulky si vytvoří a po sobě smaže.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    @Param({"identity", "sequence"})
+    private String strategy;
+
+    @Param({"1000"})
+    private int rows;
+
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+
+    @Entity(name = "BenchIdentityToken")
+    @Table(name = "bench_identity_token")
+    public static class IdentityToken {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        String token;
+        Instant expirationDate;
+    }
+
+    @Entity(name = "BenchSequenceToken")
+    @Table(name = "bench_sequence_token")
+    public static class SequenceToken {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_sequence_token_seq")
+        @SequenceGenerator(name = "bench_sequence_token_seq", sequenceName = "bench_sequence_token_seq", allocationSize = 50)
+        Long id;
+        String token;
+        Instant expirationDate;
+    }
+
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5433/kodprodobro"));
+        dataSource.setUsername(System.getProperty("benchmark.jdbc.username", "postgres"));
+        dataSource.setPassword(System.getProperty("benchmark.jdbc.password", ""));
+
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(IdentityToken.class)
+                .addAnnotatedClass(SequenceToken.class);
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+        configuration.setProperty(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+        configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+        configuration.setProperty(AvailableSettings.ORDER_INSERTS, "true");
+        configuration.setProperty(AvailableSettings.GENERATE_STATISTICS, "true");
+        sessionFactory = configuration.buildSessionFactory();
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        insert();
+        System.out.printf("%n%s, %d řádků: %d připravených příkazů%n", strategy, rows, statistics.getPrepareStatementCount());
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Instant expiration = Instant.now();
+            for (int i = 0; i < rows; i++) {
+                session.persist(newToken(UUID.randomUUID().toString(), expiration));
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    private Object newToken(String token, Instant expirationDate) {
+        if (strategy.equals("identity")) {
+            IdentityToken entity = new IdentityToken();
+            entity.token = token;
+            entity.expirationDate = expirationDate;
+            return entity;
+        }
+        SequenceToken entity = new SequenceToken();
+        entity.token = token;
+        entity.expirationDate = expirationDate;
+        return entity;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,118 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Porovná dva výsledky JMH ve formátu JSON ({@code -rf json}) a označí regrese.
+ * <p>
+ * Regrese je zhoršení o víc než práh v procentech, které je zároveň větší než součet chyb
+ * obou měření - šum mezi běhy se tak za regresi nepovažuje. U režimu {@code thrpt} je lepší
+ * vyšší skóre, u ostatních režimů (čas na operaci) nižší.
+ * <p>
+ * Použití: {@code compare-results.sh base.json current.json [práh %]}, při regresi skončí s kódem 1.
+ */
+public final class JmhResultComparator {
+
+    static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    record Result(String benchmark, String mode, double score, double error, String unit) {
+    }
+
+    /**
+     * @param change zhoršení v procentech, záporné číslo je zlepšení
+     */
+    record Comparison(String benchmark, Result base, Result current, double change, boolean regression) {
+    }
+
+    private JmhResultComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Použití: JmhResultComparator <base.json> <current.json> [práh v %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Result> base = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        List<Comparison> comparisons = compare(base, current, threshold);
+
+        long regressions = 0;
+        for (Comparison comparison : comparisons) {
+            System.out.printf(Locale.ROOT, "%-10s %-90s %14.3f -> %14.3f %-8s %+7.1f %%%n",
+                    comparison.regression() ? "REGRESE" : "ok", comparison.benchmark(),
+                    comparison.base().score(), comparison.current().score(), comparison.current().unit(),
+                    comparison.change());
+            if (comparison.regression()) {
+                regressions++;
+            }
+        }
+        base.keySet().stream().filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.println("chybí     " + key));
+        current.keySet().stream().filter(key -> !base.containsKey(key))
+                .forEach(key -> System.out.println("nový      " + key));
+
+        System.out.printf(Locale.ROOT, "%d porovnání, %d regresí nad %.1f %%%n", comparisons.size(), regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Výsledky podle názvu benchmarku, režimu a parametrů, např. {@code ...MapperBenchmark.mapProjects:avgt{pageSize=20}}.
+     * Benchmark spuštěný ve více režimech ({@code @BenchmarkMode}) má výsledek pro každý režim zvlášť.
+     */
+    static Map<String, Result> read(Path file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(Files.readAllBytes(file));
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : root) {
+            String key = run.path("benchmark").asText() + ":" + run.path("mode").asText() + params(run.path("params"));
+            JsonNode metric = run.path("primaryMetric");
+            results.put(key, new Result(key, run.path("mode").asText(),
+                    metric.path("score").asDouble(), finite(metric.path("scoreError").asDouble()),
+                    metric.path("scoreUnit").asText()));
+        }
+        return results;
+    }
+
+    static List<Comparison> compare(Map<String, Result> base, Map<String, Result> current, double thresholdPercent) {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Result baseResult : base.values()) {
+            Result currentResult = current.get(baseResult.benchmark());
+            if (currentResult == null || baseResult.score() == 0) {
+                continue;
+            }
+            double difference = currentResult.score() - baseResult.score();
+            double worse = "thrpt".equals(baseResult.mode()) ? -difference : difference;
+            double change = worse / baseResult.score() * 100;
+            boolean regression = change > thresholdPercent
+                    && Math.abs(difference) > baseResult.error() + currentResult.error();
+            comparisons.add(new Comparison(baseResult.benchmark(), baseResult, currentResult, change, regression));
+        }
+        return comparisons;
+    }
+
+    private static String params(JsonNode params) {
+        if (params.isMissingNode() || params.isEmpty()) {
+            return "";
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        params.properties().forEach(entry -> sorted.put(entry.getKey(), entry.getValue().asText()));
+        return sorted.toString();
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.kodprodobro.kodprodobro.services.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark {@link JwtService}: vydání access tokenu při přihlášení a jeho ověření,
+ * které JWT filtr dělá u každého autentizovaného požadavku. Blacklist se při ověření nepoužívá,
+ * repozitář proto není potřeba.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String USERNAME = "dobrovolnik42";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService("benchmark-tajny-klic-pro-podpis-jwt-tokenu", 900_000, 604_800_000, null,
+                new SimpleMeterRegistry());
+        token = jwtService.generateAccessToken(USERNAME);
+    }
+
+    @Benchmark
+    public String issueAccessToken() {
+        return jwtService.generateAccessToken(USERNAME);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token, USERNAME);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,92 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
+import com.kodprodobro.kodprodobro.dto.user.UserResponse;
+import com.kodprodobro.kodprodobro.mapper.ProjectMapper;
+import com.kodprodobro.kodprodobro.mapper.ProjectMapperImpl;
+import com.kodprodobro.kodprodobro.mapper.UserMapper;
+import com.kodprodobro.kodprodobro.mapper.UserMapperImpl;
+import com.kodprodobro.kodprodobro.models.enums.Role;
+import com.kodprodobro.kodprodobro.models.project.Project;
+import com.kodprodobro.kodprodobro.models.user.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark MapStruct mapperů pro stránku projektů a uživatelů (entita → DTO).
+ * Mapuje se vygenerovaná implementace bez Spring kontextu, stejně jako ji volají služby.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private final ProjectMapper projectMapper = new ProjectMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+    private List<Project> projects;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        projects = new ArrayList<>(pageSize);
+        users = new ArrayList<>(pageSize);
+        for (long i = 1; i <= pageSize; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setUsername("organizace" + i);
+            user.setEmail("organizace" + i + "@example.com");
+            user.setPassword("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchm");
+            user.addRole(Role.USER);
+            user.addRole(Role.NONPROFIT);
+            users.add(user);
+
+            Project project = new Project();
+            project.setId(i);
+            project.setTitle("Webová aplikace pro neziskovku " + i);
+            project.setDescription("Potřebujeme pomoc s React frontendem a Spring Boot backendem pro evidenci dobrovolníků. ".repeat(3));
+            project.setCategoryId(i % 12);
+            project.setPublished(true);
+            project.setRepositoryUrl("https://github.com/kodprodobro/projekt-" + i);
+            project.setOwner(user);
+            projects.add(project);
+        }
+    }
+
+    @Benchmark
+    public List<ProjectResponse> mapProjects() {
+        List<ProjectResponse> page = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            page.add(projectMapper.toResponse(project));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<UserResponse> mapUsers() {
+        List<UserResponse> page = new ArrayList<>(users.size());
+        for (User user : users) {
+            page.add(userMapper.toDto(user));
+        }
+        return page;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JMH benchmark serializace seznamu projektů: čistý Jackson vs. Jackson s Blackbird modulem.
+ * Při setupu vypíše velikost odpovědi bez komprese a s gzip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectJsonBenchmark {
+
+    @Param({"10", "1000"})
+    private int projects;
+
+    private List<ProjectResponse> payload;
+    private ObjectWriter plainWriter;
+    private ObjectWriter blackbirdWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = new ArrayList<>(projects);
+        for (long i = 1; i <= projects; i++) {
+            payload.add(new ProjectResponse(i, "Webová aplikace pro neziskovku " + i,
+                    "Potřebujeme pomoc s React frontendem a Spring Boot backendem pro evidenci dobrovolníků. ".repeat(3),
+                    i % 12, true, "organizace" + (i % 50), "https://github.com/kodprodobro/projekt-" + i, null));
+        }
+        ObjectMapper plain = JsonMapper.builder().build();
+        ObjectMapper blackbird = JsonMapper.builder().addModule(new BlackbirdModule()).build();
+        plainWriter = plain.writerFor(plain.getTypeFactory().constructCollectionType(List.class, ProjectResponse.class));
+        blackbirdWriter = blackbird.writerFor(blackbird.getTypeFactory().constructCollectionType(List.class, ProjectResponse.class));
+
+        byte[] identity = plainWriter.writeValueAsBytes(payload);
+        System.out.printf("%n%d projektů: %d B JSON, %d B gzip%n", projects, identity.length, gzip(identity).length);
+    }
+
+    @Benchmark
+    public byte[] serializePlain() throws IOException {
+        return plainWriter.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serializeBlackbird() throws IOException {
+        return blackbirdWriter.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serializeBlackbirdGzip() throws IOException {
+        return gzip(blackbirdWriter.writeValueAsBytes(payload));
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProjectJsonBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
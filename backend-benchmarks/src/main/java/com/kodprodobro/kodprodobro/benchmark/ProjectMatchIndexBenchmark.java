@@ -0,0 +1,83 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.kodprodobro.kodprodobro.services.matching.ProjectDocument;
+import com.kodprodobro.kodprodobro.services.matching.ProjectMatch;
+import com.kodprodobro.kodprodobro.services.matching.ProjectMatchIndex;
+import com.kodprodobro.kodprodobro.services.matching.TextTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark párování nad syntetickým katalogem projektů.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectMatchIndexBenchmark {
+
+    private static final String[] VOCABULARY = {
+            "java", "spring", "react", "typescript", "python", "django", "kotlin", "android", "ios", "swift",
+            "postgresql", "docker", "kubernetes", "web", "eshop", "utulek", "zvirata", "skola", "knihovna",
+            "neziskovka", "dobrovolnici", "mapa", "rezervace", "kalendar", "databaze", "api", "mobilni",
+            "aplikace", "statistiky", "grafy", "design", "ux", "prekladac", "chatbot", "ai", "data",
+            "analyza", "vizualizace", "pristupnost", "seniori", "deti", "sport", "kultura", "festival",
+            "charita", "sbirka", "platby", "crm", "newsletter", "formular", "evidence", "sklad", "doprava"
+    };
+
+    @Param({"100000"})
+    private int projects;
+
+    private ProjectMatchIndex index;
+    private List<String> shortQuery;
+    private List<String> longQuery;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ProjectDocument> documents = new ArrayList<>(projects);
+        for (int i = 0; i < projects; i++) {
+            documents.add(ProjectDocument.of(i + 1, randomText(random, 4), randomText(random, 60)));
+        }
+        index = ProjectMatchIndex.build(documents);
+        shortQuery = TextTokenizer.tokenize("Java Spring PostgreSQL");
+        longQuery = TextTokenizer.tokenize("React TypeScript web design UX pristupnost neziskovka utulek zvirata mapa");
+    }
+
+    @Benchmark
+    public List<ProjectMatch> shortQueryTop10() {
+        return index.topMatches(shortQuery, 10);
+    }
+
+    @Benchmark
+    public List<ProjectMatch> longQueryTop10() {
+        return index.topMatches(longQuery, 10);
+    }
+
+    private static String randomText(SplittableRandom random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            // Zipfovo rozložení zhruba odpovídá reálnému textu - pár slov je častých, většina vzácná
+            int rank = (int) Math.min(VOCABULARY.length - 1, Math.floor(Math.pow(VOCABULARY.length, random.nextDouble())) - 1);
+            text.append(VOCABULARY[rank]).append(' ');
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProjectMatchIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,53 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.kodprodobro.kodprodobro.models.enums.Role;
+import com.kodprodobro.kodprodobro.models.user.User;
+import com.kodprodobro.kodprodobro.services.user.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark {@link UserDetailsImpl#getAuthorities()}, který Spring Security volá
+ * při každé autorizaci požadavku. Role se převádějí na authority při každém volání.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    @Param({"1", "3"})
+    private int roles;
+
+    private UserDetailsImpl userDetails;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setUsername("dobrovolnik42");
+        Arrays.stream(Role.values()).limit(roles).forEach(user::addRole);
+        userDetails = new UserDetailsImpl(user);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UserDetailsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
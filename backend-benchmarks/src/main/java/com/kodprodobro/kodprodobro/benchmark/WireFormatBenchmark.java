@@ -0,0 +1,120 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.kodprodobro.kodprodobro.dto.message.MessageResponse;
+import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JMH benchmark formátů API: JSON vs. CBOR vs. Smile pro typické velikosti stránky projektů
+ * a pro krátké zprávy. Při setupu vypíše velikost payloadu bez komprese a s gzip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private List<ProjectResponse> projects;
+    private List<MessageResponse> messages;
+    private ObjectWriter projectWriter;
+    private ObjectReader projectReader;
+    private ObjectWriter messageWriter;
+    private ObjectReader messageReader;
+    private byte[] encodedProjects;
+    private byte[] encodedMessages;
+
+    @Setup
+    public void setUp() throws IOException {
+        projects = new ArrayList<>(pageSize);
+        messages = new ArrayList<>(pageSize);
+        for (long i = 1; i <= pageSize; i++) {
+            projects.add(new ProjectResponse(i, "Webová aplikace pro neziskovku " + i,
+                    "Potřebujeme pomoc s React frontendem a Spring Boot backendem pro evidenci dobrovolníků. ".repeat(3),
+                    i % 12, true, "organizace" + (i % 50), "https://github.com/kodprodobro/projekt-" + i, null));
+            messages.add(new MessageResponse("Ahoj, mám zájem o projekt " + i + ", kdy se můžeme spojit?"));
+        }
+
+        ObjectMapper mapper = new ObjectMapper(factory(format));
+        JavaType projectList = mapper.getTypeFactory().constructCollectionType(List.class, ProjectResponse.class);
+        JavaType messageList = mapper.getTypeFactory().constructCollectionType(List.class, MessageResponse.class);
+        projectWriter = mapper.writerFor(projectList);
+        projectReader = mapper.readerFor(projectList);
+        messageWriter = mapper.writerFor(messageList);
+        messageReader = mapper.readerFor(messageList);
+        encodedProjects = projectWriter.writeValueAsBytes(projects);
+        encodedMessages = messageWriter.writeValueAsBytes(messages);
+
+        System.out.printf("%n%s, %d položek: projekty %d B (%d B gzip), zprávy %d B (%d B gzip)%n",
+                format, pageSize, encodedProjects.length, gzip(encodedProjects).length,
+                encodedMessages.length, gzip(encodedMessages).length);
+    }
+
+    @Benchmark
+    public byte[] encodeProjects() throws IOException {
+        return projectWriter.writeValueAsBytes(projects);
+    }
+
+    @Benchmark
+    public List<ProjectResponse> decodeProjects() throws IOException {
+        return projectReader.readValue(encodedProjects);
+    }
+
+    @Benchmark
+    public byte[] encodeMessages() throws IOException {
+        return messageWriter.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public List<MessageResponse> decodeMessages() throws IOException {
+        return messageReader.readValue(encodedMessages);
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.kodprodobro.kodprodobro.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JmhResultComparator Tests")
+class JmhResultComparatorTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Výsledky se klíčují podle benchmarku, režimu a parametrů")
+    void read_KeysByBenchmarkAndParams() throws IOException {
+        Map<String, JmhResultComparator.Result> results = JmhResultComparator.read(write("base.json",
+                run("MapperBenchmark.mapProjects", "avgt", 10, 0.5, "{\"pageSize\": \"20\"}"),
+                run("MapperBenchmark.mapProjects", "avgt", 90, "NaN", "{\"pageSize\": \"200\"}")));
+
+        assertThat(results).containsOnlyKeys("MapperBenchmark.mapProjects:avgt{pageSize=20}",
+                "MapperBenchmark.mapProjects:avgt{pageSize=200}");
+        assertThat(results.get("MapperBenchmark.mapProjects:avgt{pageSize=200}").error()).isZero();
+    }
+
+    @Test
+    @DisplayName("Benchmark ve více režimech má výsledek pro každý režim, porovnávají se stejné režimy")
+    void read_MultipleModes_KeepsEachMode() throws IOException {
+        Object[] base = {run("JwtBenchmark.validateToken", "thrpt", 1000, 10, null),
+                run("JwtBenchmark.validateToken", "avgt", 10, 0.1, null)};
+        Object[] current = {run("JwtBenchmark.validateToken", "thrpt", 1000, 10, null),
+                run("JwtBenchmark.validateToken", "avgt", 15, 0.1, null)};
+
+        assertThat(JmhResultComparator.read(write("modes.json", base)))
+                .containsOnlyKeys("JwtBenchmark.validateToken:thrpt", "JwtBenchmark.validateToken:avgt");
+        assertThat(compare(base, current)).filteredOn(JmhResultComparator.Comparison::regression)
+                .extracting(JmhResultComparator.Comparison::benchmark)
+                .containsExactly("JwtBenchmark.validateToken:avgt");
+    }
+
+    @Test
+    @DisplayName("Delší čas na operaci nad prahem je regrese, kratší ne")
+    void compare_AverageTime_SlowerIsRegression() throws IOException {
+        List<JmhResultComparator.Comparison> comparisons = compare(
+                new Object[]{run("JwtBenchmark.validateToken", "avgt", 10, 0.2, null),
+                        run("JwtBenchmark.issueAccessToken", "avgt", 10, 0.2, null)},
+                new Object[]{run("JwtBenchmark.validateToken", "avgt", 12, 0.2, null),
+                        run("JwtBenchmark.issueAccessToken", "avgt", 8, 0.2, null)});
+
+        assertThat(comparisons).filteredOn(JmhResultComparator.Comparison::regression)
+                .extracting(JmhResultComparator.Comparison::benchmark)
+                .containsExactly("JwtBenchmark.validateToken:avgt");
+    }
+
+    @Test
+    @DisplayName("U propustnosti je regrese pokles skóre")
+    void compare_Throughput_LowerIsRegression() throws IOException {
+        List<JmhResultComparator.Comparison> comparisons = compare(
+                new Object[]{run("UserDetailsBenchmark.getAuthorities", "thrpt", 1000, 10, null)},
+                new Object[]{run("UserDetailsBenchmark.getAuthorities", "thrpt", 800, 10, null)});
+
+        assertThat(comparisons).singleElement().satisfies(comparison -> {
+            assertThat(comparison.regression()).isTrue();
+            assertThat(comparison.change()).isEqualTo(20.0);
+        });
+    }
+
+    @Test
+    @DisplayName("Zhoršení v rozsahu chyby měření není regrese")
+    void compare_WithinError_NotRegression() throws IOException {
+        List<JmhResultComparator.Comparison> comparisons = compare(
+                new Object[]{run("PasswordEncoderBenchmark.matches", "avgt", 50, 4, null)},
+                new Object[]{run("PasswordEncoderBenchmark.matches", "avgt", 57, 4, null)});
+
+        assertThat(comparisons).singleElement().satisfies(comparison -> assertThat(comparison.regression()).isFalse());
+    }
+
+    private List<JmhResultComparator.Comparison> compare(Object[] base, Object[] current) throws IOException {
+        return JmhResultComparator.compare(JmhResultComparator.read(write("base.json", base)),
+                JmhResultComparator.read(write("current.json", current)), JmhResultComparator.DEFAULT_THRESHOLD_PERCENT);
+    }
+
+    private Path write(String name, Object... runs) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < runs.length; i++) {
+            json.append(i > 0 ? "," : "").append(runs[i]);
+        }
+        return Files.writeString(directory.resolve(name), json.append(']'));
+    }
+
+    private static String run(String benchmark, String mode, double score, Object error, String params) {
+        String scoreError = error instanceof String ? "\"" + error + "\"" : error.toString();
+        return """
+                {"benchmark": "%s", "mode": "%s", %s"primaryMetric": {"score": %s, "scoreError": %s, "scoreUnit": "us/op"}}
+                """.formatted(benchmark, mode, params != null ? "\"params\": " + params + ", " : "", score, scoreError);
+    }
+}
@@ -0,0 +1,44 @@
+package com.kodprodobro.kodprodobro.component;
+
+import com.kodprodobro.kodprodobro.event.ProjectChangedEvent;
+import com.kodprodobro.kodprodobro.event.ProjectPublishedEvent;
+import com.kodprodobro.kodprodobro.services.matching.ProjectMatchService;
+import com.kodprodobro.kodprodobro.services.notification.ProjectAnnouncementService;
+import com.kodprodobro.kodprodobro.services.project.LatestProjectsCache;
+import com.kodprodobro.kodprodobro.services.project.ProjectVersionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectEventListener {
+
+    private final ProjectAnnouncementService projectAnnouncementService;
+    private final ProjectMatchService projectMatchService;
+    private final ProjectVersionService projectVersionService;
+    private final LatestProjectsCache latestProjectsCache;
+
+    @Async // Rozesílání může trvat dlouho, nesmí blokovat request
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT) // Až když je projekt publikovaný v DB
+    public void handleProjectPublished(ProjectPublishedEvent event) {
+        log.info("Projekt {} publikován, spouštím rozesílání oznámení", event.projectId());
+        projectAnnouncementService.announce(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT) // Ve stejné transakci jako změna projektu
+    public void bumpCatalogVersion(ProjectChangedEvent event) {
+        projectVersionService.bumpCatalogVersion();
+    }
+
+    // Jen zařazení do fronty, index i cache se přestavují na pozadí
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleProjectChanged(ProjectChangedEvent event) {
+        projectMatchService.enqueue(event);
+        latestProjectsCache.invalidate();
+    }
+}
@@ -0,0 +1,30 @@
+package com.kodprodobro.kodprodobro.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Výchozí hodnoty vlastností Springu, které aplikace potřebuje jinak než Spring Boot.
+ * <p>
+ * Mají nejnižší prioritu, konfigurace je může přepsat. Registrují se přes {@code META-INF/spring.factories},
+ * platí tak pro každý start kontextu včetně {@code @SpringBootTest} (zátěžové testy měří stejné nastavení
+ * jako produkce) a AOT zpracování.
+ */
+public class ApplicationDefaults implements EnvironmentPostProcessor {
+
+    static final String PROPERTY_SOURCE_NAME = "kodprodobroDefaults";
+
+    private static final Map<String, Object> DEFAULTS = Map.of(
+            // Spojení se vrací do poolu s koncem transakce, ne až s koncem požadavku. Odeslání zprávy chatu čeká
+            // na zápis dávky write-behind vláknem, s open-session-in-view by přitom drželo spojení a malý pool vyčerpalo.
+            "spring.jpa.open-in-view", "false");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME, DEFAULTS));
+    }
+}
@@ -2,6 +2,7 @@ package com.kodprodobro.kodprodobro.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -12,6 +13,8 @@ import java.util.concurrent.Executor;
 public class AsyncConfig {
     /**
      * Nastavení vlastního Executoru pro asynchronní úlohy.
+     * Dekorátor přenáší do úlohy kontext volajícího vlákna (aktuální observation/span, MDC),
+     * takže {@code @Async} práce se v trace zobrazí pod požadavkem, který ji spustil.
      * @return
      */
     @Bean
@@ -21,6 +24,7 @@ public class AsyncConfig {
         executor.setMaxPoolSize(8);
         executor.setQueueCapacity(25);
         executor.setThreadNamePrefix("AsyncExecutor-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
         executor.initialize();
         return executor;
     }
@@ -0,0 +1,43 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration
+public class DataSourcePoolConfig {
+
+    /**
+     * Statická metoda - post-processor musí vzniknout dřív než datasource, který upravuje.
+     */
+    @Bean
+    public static HikariPoolTuner hikariPoolTuner(Environment environment) {
+        return new HikariPoolTuner(environment);
+    }
+
+    /**
+     * Histogramy čekání na spojení a doby jeho držení. Metriky {@code hikaricp.*} registruje
+     * Spring Boot, tady se k nim přidají buckety pro percentily v Prometheu a SLO hranice,
+     * podle kterých dashboard ukazuje, kolik požadavků na spojení čekalo déle než je únosné.
+     */
+    @Bean
+    public MeterFilter hikariHistogramFilter() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if ("hikaricp.connections.acquire".equals(id.getName())) {
+                    return MetricsConfig.latencyHistogram(config, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofMillis(100));
+                }
+                if ("hikaricp.connections.usage".equals(id.getName())) {
+                    return MetricsConfig.latencyHistogram(config, Duration.ofMillis(5), Duration.ofMillis(25), Duration.ofMillis(100), Duration.ofMillis(500));
+                }
+                return config;
+            }
+        };
+    }
+}
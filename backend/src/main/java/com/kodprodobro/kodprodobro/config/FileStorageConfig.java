@@ -0,0 +1,35 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.kodprodobro.kodprodobro.services.storage.FileStorageService;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Multipart upload pro úložiště obrázků.
+ * <p>
+ * Tomcat zapisuje každou část rovnou na disk (práh 0 B) do {@code tmp/} úložiště, takže se upload
+ * v paměti nikdy nedrží celý a dočasné soubory leží na stejném disku jako obrázky. Limit velikosti
+ * je stejný jako v {@link FileStorageService} - příliš velký upload Tomcat utne už při čtení požadavku.
+ * Nahrazuje výchozí konfiguraci Spring Boot, vlastnosti {@code spring.servlet.multipart.*} se proto neuplatní.
+ */
+@Configuration
+public class FileStorageConfig {
+
+    // Rezerva na hlavičky a další pole formuláře
+    private static final DataSize REQUEST_OVERHEAD = DataSize.ofKilobytes(64);
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(FileStorageService fileStorageService,
+                                                         @Value("${app.storage.max-file-size:10MB}") DataSize maxFileSize) {
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setLocation(fileStorageService.getTempDirectory().toString());
+        factory.setFileSizeThreshold(DataSize.ofBytes(0));
+        factory.setMaxFileSize(maxFileSize);
+        factory.setMaxRequestSize(DataSize.ofBytes(maxFileSize.toBytes() + REQUEST_OVERHEAD.toBytes()));
+        return factory.createMultipartConfig();
+    }
+}
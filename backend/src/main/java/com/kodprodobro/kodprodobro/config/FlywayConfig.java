@@ -0,0 +1,46 @@
+package com.kodprodobro.kodprodobro.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Databáze vytvořené dřív přes {@code ddl-auto=update} už mají schéma z V1. Flyway je při prvním
+     * běhu označí jako baseline verze 1 a spustí jen novější migrace, prázdná databáze projde všemi.
+     * <p>
+     * Indexy se stavějí přes {@code CREATE INDEX CONCURRENTLY}, které čeká na všechny otevřené transakce.
+     * Výchozí transakční advisory lock Flyway by tak čekal sám na sebe, proto se používá zámek na úrovni session.
+     */
+    @Bean
+    public FlywayConfigurationCustomizer migrationCustomizer() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+    }
+
+    /**
+     * Migrace při startu jde vypnout za běhu - na rozdíl od {@code spring.flyway.enabled}, které se s AOT
+     * vyhodnotí už při buildu. Používá to trénovací běh CDS archivu (Maven profil {@code startup}), který
+     * nemá databázi.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${app.flyway.migrate-on-start:true}") boolean migrateOnStart) {
+        return flyway -> {
+            if (migrateOnStart) {
+                flyway.migrate();
+            } else {
+                log.info("Migrace Flyway při startu přeskočeny (app.flyway.migrate-on-start=false)");
+            }
+        };
+    }
+}
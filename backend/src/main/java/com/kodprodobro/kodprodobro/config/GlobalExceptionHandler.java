@@ -2,6 +2,7 @@ package com.kodprodobro.kodprodobro.config;
 
 import com.kodprodobro.kodprodobro.dto.ApiError;
 import com.kodprodobro.kodprodobro.exception.ErrorCode;
+import com.kodprodobro.kodprodobro.exception.chat.ChatNotFoundException;
 import com.kodprodobro.kodprodobro.exception.email.EmailAlreadyExistsException;
 import com.kodprodobro.kodprodobro.exception.file.FileStorageException;
 import com.kodprodobro.kodprodobro.exception.file.ImageFileIsTooBig;
@@ -23,6 +24,7 @@ import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
@@ -283,6 +285,28 @@ public class GlobalExceptionHandler {
                 .body(apiError);
     }
 
+    // 404 - Chat neexistuje
+    @ExceptionHandler(ChatNotFoundException.class)
+    public ResponseEntity<ApiError> handleChatNotFound(
+            ChatNotFoundException ex,
+            HttpServletRequest request) {
+
+        log.warn("Chat not found on {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorCode errorCode = ErrorCode.CHAT_NOT_FOUND;
+
+        ApiError apiError = new ApiError(
+                errorCode.getStatus().value(),
+                errorCode.name(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                Instant.now());
+
+        return ResponseEntity
+                .status(errorCode.getStatus())
+                .body(apiError);
+    }
+
     // Řeší expiraci tokenu -> 400
     @ExceptionHandler(TokenExpiredException.class)
     public ResponseEntity<ApiError> handleTokenExpired(
@@ -466,6 +490,28 @@ public class GlobalExceptionHandler {
                 .body(apiError);
     }
 
+    // 5. Upload přesáhl limit multipart konfigurace (Tomcat ho utne ještě před kontrolerem) -> 413 Payload Too Large
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ApiError> handleMaxUploadSizeExceeded(
+            MaxUploadSizeExceededException ex,
+            HttpServletRequest request) {
+
+        log.warn("Upload too large on {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorCode errorCode = ErrorCode.FILE_TOO_LARGE;
+
+        ApiError apiError = new ApiError(
+                errorCode.getStatus().value(),
+                errorCode.name(),
+                errorCode.getDefaultMessage(),
+                request.getRequestURI(),
+                Instant.now());
+
+        return ResponseEntity
+                .status(errorCode.getStatus())
+                .body(apiError);
+    }
+
     // Obecná výjimka pro neočekávané chyby - 500 Internal Server Error
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGlobalException(
@@ -0,0 +1,144 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Doladí pool spojení HikariCP před jeho prvním použitím.
+ * <p>
+ * Velikost poolu se odvodí z počtu jader ({@code jádra * 2 + efektivní disky}, doporučení PostgreSQL wiki)
+ * a shora omezí podílem instance na {@code max_connections} databáze. Pool má pevnou velikost
+ * ({@code minimumIdle = maximumPoolSize}), pod zátěží se tak nevytvářejí nová spojení.
+ * <p>
+ * S replikou ({@link ReadReplicaConfig}) si primární pool a pool repliky dělí rozpočet podle jader
+ * v poměru {@code app.datasource.pool.replica-share}, každý pak omezuje {@code max_connections} jeho vlastního serveru
+ * ({@code db-max-connections}, resp. {@code replica-db-max-connections}).
+ * Hodnoty zadané explicitně přes {@code spring.datasource.hikari.*} (primární)
+ * a {@code app.datasource.replica.hikari.*} (replika) mají přednost.
+ */
+@Slf4j
+public class HikariPoolTuner implements BeanPostProcessor, Ordered {
+
+    static final String REPLICA_POOL_NAME = "replica";
+
+    private static final String PRIMARY_HIKARI_PREFIX = "spring.datasource.hikari.";
+    private static final String REPLICA_HIKARI_PREFIX = "app.datasource.replica.hikari.";
+    private static final String REPLICA_URL = "app.datasource.replica.url";
+    private static final String APP_PREFIX = "app.datasource.pool.";
+
+    private final Environment environment;
+
+    public HikariPoolTuner(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            tune(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Před ostatními post-processory, které pool obalují (měření SQL).
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    void tune(HikariDataSource dataSource) {
+        boolean replica = REPLICA_POOL_NAME.equals(dataSource.getPoolName());
+        String hikariPrefix = replica ? REPLICA_HIKARI_PREFIX : PRIMARY_HIKARI_PREFIX;
+        if (!isSet(hikariPrefix, "maximum-pool-size")) {
+            dataSource.setMaximumPoolSize(poolSize(replica));
+        }
+        if (!isSet(hikariPrefix, "minimum-idle")) {
+            dataSource.setMinimumIdle(dataSource.getMaximumPoolSize());
+        }
+        // Čekání na spojení je chyba kapacity, ne důvod držet HTTP vlákno 30 s (výchozí hodnota)
+        if (!isSet(hikariPrefix, "connection-timeout")) {
+            dataSource.setConnectionTimeout(appProperty("connection-timeout", Duration.class, Duration.ofSeconds(5)).toMillis());
+        }
+        if (!isSet(hikariPrefix, "validation-timeout")) {
+            dataSource.setValidationTimeout(appProperty("validation-timeout", Duration.class, Duration.ofSeconds(1)).toMillis());
+        }
+        // Keepalive ověří nečinná spojení dřív, než je zahodí firewall nebo PgBouncer
+        if (!isSet(hikariPrefix, "keepalive-time")) {
+            dataSource.setKeepaliveTime(appProperty("keepalive-time", Duration.class, Duration.ofMinutes(2)).toMillis());
+        }
+        if (!isSet(hikariPrefix, "max-lifetime")) {
+            dataSource.setMaxLifetime(appProperty("max-lifetime", Duration.class, Duration.ofMinutes(30)).toMillis());
+        }
+        // Export uživatelů a streamování katalogu drží kurzor déle, práh je proto nad jejich běžnou délkou
+        if (!isSet(hikariPrefix, "leak-detection-threshold")) {
+            dataSource.setLeakDetectionThreshold(
+                    appProperty("leak-detection-threshold", Duration.class, Duration.ofSeconds(60)).toMillis());
+        }
+        if (dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+            configureStatementCache(dataSource);
+        }
+        log.info("Pool spojení {}: {} spojení, timeout {} ms, leak detection {} ms",
+                dataSource.getPoolName() != null ? dataSource.getPoolName() : "HikariPool",
+                dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout(), dataSource.getLeakDetectionThreshold());
+    }
+
+    /**
+     * Server-side prepared statementy: po {@code prepareThreshold} spuštěních stejného SQL
+     * je ovladač připraví na serveru a dál posílá jen parametry. Cache drží připravené příkazy
+     * pro každé spojení, musí se do ní vejít všechny tvary dotazů z repozitářů.
+     */
+    private void configureStatementCache(HikariDataSource dataSource) {
+        dataSource.getDataSourceProperties().putIfAbsent("prepareThreshold",
+                appProperty("prepare-threshold", String.class, "5"));
+        dataSource.getDataSourceProperties().putIfAbsent("preparedStatementCacheQueries",
+                appProperty("prepared-statement-cache-queries", String.class, "512"));
+        dataSource.getDataSourceProperties().putIfAbsent("preparedStatementCacheSizeMiB",
+                appProperty("prepared-statement-cache-size-mib", String.class, "8"));
+    }
+
+    private int poolSize(boolean replica) {
+        int dbMaxConnections = appProperty("db-max-connections", Integer.class, 100);
+        double share = 1.0;
+        if (environment.containsProperty(REPLICA_URL)) {
+            double replicaShare = appProperty("replica-share", Double.class, 0.5);
+            share = replica ? replicaShare : 1.0 - replicaShare;
+            if (replica) {
+                dbMaxConnections = appProperty("replica-db-max-connections", Integer.class, dbMaxConnections);
+            }
+        }
+        return poolSize(
+                Runtime.getRuntime().availableProcessors(),
+                appProperty("effective-spindles", Integer.class, 1),
+                dbMaxConnections,
+                appProperty("reserved-connections", Integer.class, 10),
+                appProperty("instances", Integer.class, 1),
+                share);
+    }
+
+    /**
+     * Počet spojení z počtu jader a kapacity databáze. {@code share} je podíl poolu na rozpočtu podle jader,
+     * když jich instance má víc (primární a replika). Vždy aspoň 2, aby jedno dlouhé čtení
+     * nezablokovalo zbytek aplikace.
+     */
+    static int poolSize(int cores, int effectiveSpindles, int dbMaxConnections, int reservedConnections, int instances,
+                        double share) {
+        int byCores = (int) Math.round((cores * 2 + effectiveSpindles) * share);
+        int byDatabase = (dbMaxConnections - reservedConnections) / Math.max(1, instances);
+        return Math.max(2, Math.min(byCores, byDatabase));
+    }
+
+    private boolean isSet(String hikariPrefix, String hikariProperty) {
+        return environment.containsProperty(hikariPrefix + hikariProperty);
+    }
+
+    private <T> T appProperty(String name, Class<T> type, T defaultValue) {
+        return environment.getProperty(APP_PREFIX + name, type, defaultValue);
+    }
+}
@@ -0,0 +1,69 @@
+package com.kodprodobro.kodprodobro.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Při startu posune ID sekvence entit za nejvyšší existující ID v tabulce.
+ * <p>
+ * Tabulky vznikly s IDENTITY, nové sekvence tedy začínají na 1 a první INSERT by narazil
+ * na existující řádek. Sekvence se mění jen tehdy, když by další rezervovaný blok
+ * (optimizer pooled-lo) začínal na už použitém ID - běžící instance tím neovlivní.
+ * Běží před spuštěním webového serveru, tedy před prvním INSERTem.
+ */
+@Slf4j
+@Component
+public class IdSequenceAligner implements SmartInitializingSingleton {
+
+    private static final String ALIGN_SQL = """
+            select setval('%1$s', m.max_id + 1, false)
+            from (select coalesce(max(%3$s), 0) as max_id from %2$s) m, %1$s s
+            where (case when s.is_called then s.last_value + %4$d else s.last_value end) <= m.max_id
+            """;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Set<String> aligned = new HashSet<>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .forEachEntityDescriptor(descriptor -> {
+                    if (descriptor.getGenerator() instanceof SequenceStyleGenerator generator
+                            && descriptor instanceof AbstractEntityPersister persister) {
+                        String sequence = generator.getDatabaseStructure().getPhysicalName().render();
+                        // Více entit nad jednou tabulkou sdílí sekvenci
+                        if (aligned.add(sequence)) {
+                            align(sequence, persister.getTableName(), persister.getIdentifierColumnNames()[0],
+                                    generator.getDatabaseStructure().getIncrementSize());
+                        }
+                    }
+                });
+    }
+
+    private void align(String sequence, String table, String idColumn, int incrementSize) {
+        try {
+            if (!jdbcTemplate.queryForList(ALIGN_SQL.formatted(sequence, table, idColumn, incrementSize)).isEmpty()) {
+                log.info("Sekvence {} posunuta za nejvyšší ID tabulky {}", sequence, table);
+            }
+        } catch (RuntimeException e) {
+            // Chybějící sekvence nebo jiná DB než PostgreSQL - aplikace poběží, INSERT případně selže sám
+            log.warn("Sekvenci {} se nepodařilo srovnat s tabulkou {}: {}", sequence, table, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.kodprodobro.kodprodobro.services.project.ProjectService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Histogramy a SLO hranice pro latence HTTP požadavků a měření služeb na horké cestě.
+ * <p>
+ * {@code http.server.requests} dostane buckety pro percentily v Prometheu a SLO hranice podle route
+ * (tag {@code uri}). Výchozí hranice jsou {@code app.metrics.http.slo}, pro jednotlivé route je lze přepsat
+ * přes {@code app.metrics.http.route-slo[/api/auth/login]=250ms,500ms,1s}. Dashboard je
+ * v {@code monitoring/grafana/request-latency.json}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final Duration[] DEFAULT_HTTP_SLO = {
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2)
+    };
+
+    /**
+     * Přihlášení a registrace počítají BCrypt, předrenderované a ETagem chráněné čtení je naopak v jednotkách ms.
+     */
+    private static final Map<String, Duration[]> DEFAULT_ROUTE_SLO = Map.of(
+            "/api/auth/login", new Duration[]{Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2)},
+            "/api/auth/register", new Duration[]{Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2)},
+            "/api/projects/latest", new Duration[]{Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100)},
+            "/api/projects/{id}", new Duration[]{Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250)}
+    );
+
+    @Bean
+    public MeterFilter httpServerRequestsHistogramFilter(Environment environment) {
+        Binder binder = Binder.get(environment);
+        Duration[] defaults = binder.bind("app.metrics.http.slo", Duration[].class).orElse(DEFAULT_HTTP_SLO);
+        Map<String, Duration[]> routes = new HashMap<>(DEFAULT_ROUTE_SLO);
+        routes.putAll(binder.bind("app.metrics.http.route-slo", Bindable.mapOf(String.class, Duration[].class)).orElse(Map.of()));
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if ("http.server.requests".equals(id.getName())) {
+                    return latencyHistogram(config, routes.getOrDefault(id.getTag("uri"), defaults));
+                }
+                return config;
+            }
+        };
+    }
+
+    /**
+     * {@code email.send} vzniká z observation v {@code EmailService}, histogram se proto zapíná filtrem.
+     */
+    @Bean
+    public MeterFilter emailSendHistogramFilter() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if ("email.send".equals(id.getName())) {
+                    return latencyHistogram(config, Duration.ofMillis(250), Duration.ofSeconds(1), Duration.ofSeconds(5));
+                }
+                return config;
+            }
+        };
+    }
+
+    /**
+     * Statická metoda - post-processor musí vzniknout dřív než služba, kterou obaluje.
+     */
+    @Bean
+    public static ServiceTimingPostProcessor projectServiceTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceTimingPostProcessor(meterRegistry, ProjectService.class, "project.service");
+    }
+
+    /**
+     * Buckety pro percentily v Prometheu a SLO hranice, rozsah 0,1 ms až 10 s.
+     */
+    static DistributionStatisticConfig latencyHistogram(DistributionStatisticConfig config, Duration... slos) {
+        double[] boundaries = new double[slos.length];
+        for (int i = 0; i < slos.length; i++) {
+            boundaries[i] = slos[i].toNanos();
+        }
+        return DistributionStatisticConfig.builder()
+                .percentilesHistogram(true)
+                .serviceLevelObjectives(boundaries)
+                .minimumExpectedValue((double) Duration.ofMillis(1).dividedBy(10).toNanos())
+                .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                .build()
+                .merge(config);
+    }
+}
@@ -0,0 +1,98 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.kodprodobro.kodprodobro.KodProDobroApplication;
+import com.kodprodobro.kodprodobro.mapper.ProjectMapper;
+import com.kodprodobro.kodprodobro.mapper.UserMapper;
+import jakarta.persistence.Entity;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Hinty pro native image (Maven profil {@code native}) - to, co AOT zpracování Springu samo nenajde.
+ * <p>
+ * Registrace běží jen při AOT buildu, na JVM nic nestojí.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.ApplicationRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final List<Class<?>> MAPPERS = List.of(ProjectMapper.class, UserMapper.class);
+
+        /**
+         * API jjwt hledá implementaci podle názvu třídy ({@code Classes.newInstance}).
+         */
+        private static final List<String> JJWT_IMPLEMENTATIONS = List.of(
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+                "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+                "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyOperations",
+                "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardCurves",
+                "io.jsonwebtoken.impl.security.KeysBridge",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            registerMappers(hints);
+            registerEntities(hints, classLoader);
+            for (String type : JJWT_IMPLEMENTATIONS) {
+                hints.reflection().registerTypeIfPresent(classLoader, type,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            // Serializer a deserializer JSON hledá jjwt přes ServiceLoader
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+            // Šablony e-mailů pro Thymeleaf
+            hints.resources().registerPattern("templates/*.html");
+            // Swagger UI - springdoc čte verzi webjaru z pom.properties
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/*");
+            hints.resources().registerPattern("META-INF/maven/org.webjars/swagger-ui/pom.properties");
+        }
+
+        /**
+         * Implementace MapStruct jsou běžné beany, reflexi potřebuje Jackson u typů, které mappery vracejí a přijímají.
+         */
+        private static void registerMappers(RuntimeHints hints) {
+            BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+            for (Class<?> mapper : MAPPERS) {
+                for (Method method : mapper.getDeclaredMethods()) {
+                    bindingHints.registerReflectionHints(hints.reflection(), method.getGenericReturnType());
+                    bindingHints.registerReflectionHints(hints.reflection(), method.getGenericParameterTypes());
+                }
+            }
+        }
+
+        /**
+         * Hibernate přistupuje k polím entit a volá jejich konstruktory reflexí.
+         */
+        private static void registerEntities(RuntimeHints hints, ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+            scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+            for (BeanDefinition entity : scanner.findCandidateComponents(KodProDobroApplication.class.getPackageName())) {
+                hints.reflection().registerType(ClassUtils.resolveClassName(entity.getBeanClassName(), classLoader),
+                        MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+        }
+    }
+}
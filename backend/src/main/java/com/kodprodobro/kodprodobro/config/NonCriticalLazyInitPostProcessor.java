@@ -0,0 +1,60 @@
+package com.kodprodobro.kodprodobro.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+import java.util.List;
+
+/**
+ * Označí beany, které nejsou potřeba k obsloužení běžného požadavku, jako lazy - vzniknou až při prvním
+ * použití místo při startu: OpenAPI/Swagger UI, Thymeleaf a odesílání e-mailů.
+ * <p>
+ * Bean zůstane eager, pokud ho při startu potřebuje jiný eager bean - proto {@code EmailService}
+ * bere poštu a šablony přes {@code ObjectProvider}.
+ */
+@Slf4j
+public class NonCriticalLazyInitPostProcessor implements BeanFactoryPostProcessor {
+
+    static final List<String> NON_CRITICAL_PREFIXES = List.of(
+            "org.springdoc.",
+            OpenApiConfig.class.getName(),
+            "org.springframework.boot.autoconfigure.thymeleaf.",
+            "org.thymeleaf.",
+            "org.springframework.boot.autoconfigure.mail.");
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        int lazy = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE && !definition.isLazyInit()
+                    && isNonCritical(beanFactory, definition)) {
+                definition.setLazyInit(true);
+                lazy++;
+            }
+        }
+        log.info("Lazy inicializace zapnuta pro {} nekritických beanů", lazy);
+    }
+
+    /**
+     * Podle třídy beanu, u {@code @Bean} metod podle konfigurační třídy, která ho vytváří.
+     */
+    private static boolean isNonCritical(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        String factoryBeanName = definition.getFactoryBeanName();
+        if (factoryBeanName != null && beanFactory.containsBeanDefinition(factoryBeanName)) {
+            className = beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName();
+        }
+        if (className == null) {
+            return false;
+        }
+        for (String prefix : NON_CRITICAL_PREFIXES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.function.Predicate;
+
+/**
+ * Obalí každé volání vybraných beanů do {@link Observation} - s tracingem z něj je span
+ * {@code Třída#metoda} s tagy {@code class} a {@code method}.
+ * <p>
+ * Beany, které už proxy jsou (repozitáře Spring Data), dostanou advice na začátek řetězce - poslední
+ * interceptor repozitáře dotaz provede a dál nepokračuje. Ostatní dostanou CGLIB proxy, aby Spring MVC
+ * u kontrolerů dál našel mapování na třídě.
+ * <p>
+ * Filtr dostává třídu beanu. Při AOT zpracování se z ní CGLIB proxy vygeneruje předem
+ * ({@link #determineBeanType}), native image za běhu třídy generovat neumí.
+ */
+public class ObservationPostProcessor implements SmartInstantiationAwareBeanPostProcessor, Ordered {
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+    private final String observationName;
+    private final Predicate<Class<?>> filter;
+    private volatile ObservationRegistry resolvedRegistry;
+
+    public ObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry, String observationName,
+                                    Predicate<Class<?>> filter) {
+        this.observationRegistry = observationRegistry;
+        this.observationName = observationName;
+        this.filter = filter;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!filter.test(bean.getClass())) {
+            return bean;
+        }
+        String type = typeName(bean);
+        MethodInterceptor interceptor = invocation -> {
+            if (AopUtils.isToStringMethod(invocation.getMethod()) || AopUtils.isEqualsMethod(invocation.getMethod())
+                    || AopUtils.isHashCodeMethod(invocation.getMethod())) {
+                return invocation.proceed();
+            }
+            String method = invocation.getMethod().getName();
+            Observation observation = Observation.createNotStarted(observationName, registry())
+                    .contextualName(type + "#" + method)
+                    .lowCardinalityKeyValue("class", type)
+                    .lowCardinalityKeyValue("method", method)
+                    .start();
+            try (Observation.Scope ignored = observation.openScope()) {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        };
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    @Override
+    public Class<?> determineBeanType(Class<?> beanClass, String beanName) {
+        if (!filter.test(beanClass) || beanClass.isInterface() || Proxy.isProxyClass(beanClass)
+                || beanClass.getName().contains(ClassUtils.CGLIB_CLASS_SEPARATOR)) {
+            // Existující proxy dostane jen další advice
+            return beanClass;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetClass(beanClass);
+        proxyFactory.setProxyTargetClass(true);
+        return proxyFactory.getProxyClass(beanClass.getClassLoader());
+    }
+
+    /**
+     * Až po ostatních proxy (transakce, zabezpečení).
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * Repozitář se pozná podle vlastního rozhraní, ne podle {@code CrudRepository}, kde je metoda deklarovaná.
+     */
+    private static String typeName(Object bean) {
+        if (bean instanceof Advised advised) {
+            for (Class<?> proxiedInterface : advised.getProxiedInterfaces()) {
+                if (!proxiedInterface.getName().startsWith("org.springframework.")) {
+                    return proxiedInterface.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(bean).getSimpleName();
+    }
+
+    private ObservationRegistry registry() {
+        ObservationRegistry registry = resolvedRegistry;
+        if (registry == null) {
+            registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+            resolvedRegistry = registry;
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,62 @@
+package com.kodprodobro.kodprodobro.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Čtení, která musí jít na primární databázi i v read-only transakci.
+ * <p>
+ * {@link ReadYourWritesTracker} pozná zapisujícího uživatele podle SecurityContextu. Kód na pozadí a po commitu
+ * (přestavba cache, matching index, rozesílání oznámení, zprávy chatu uložené write-behind vláknem) kontext nemá,
+ * a přesto musí vidět právě potvrzený zápis. Takové čtení se obalí {@link #call}/{@link #run}, případně se
+ * celá probíhající transakce připne přes {@link #pinCurrentTransaction()}. Bez repliky nemá žádný efekt.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> action) {
+        boolean outermost = PINNED.get() == null;
+        PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (outermost) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    public static void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Připne probíhající transakci na primární databázi až do jejího konce. Cíl se volí u prvního SQL
+     * transakce, volat se proto musí dřív.
+     */
+    public static void pinCurrentTransaction() {
+        if (PINNED.get() != null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PINNED.remove();
+            }
+        });
+    }
+
+    static boolean isActive() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Čtení přes repliku. Zapne se nastavením {@code app.datasource.replica.url}, bez něj
+ * zůstává jediný datasource z {@code spring.datasource.*}.
+ * <p>
+ * Primární i replika mají vlastní pool (metriky {@code hikaricp.*} s tagem {@code pool}),
+ * aplikace dostane směrovací datasource. Lokálně může repliku zastoupit druhá databáze.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    /**
+     * Deklarovaný typ je {@link DataSource}: {@code SqlInstrumentationConfig} pool po inicializaci obalí proxy,
+     * bean proto {@link HikariDataSource} není. K poolu se dostane {@code unwrap(HikariDataSource.class)}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public DataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Přihlašovací údaje k replice jsou bez explicitního nastavení stejné jako k primární databázi.
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public DataSource replicaDataSource(DataSourceProperties properties,
+                                        @Value("${app.datasource.replica.url}") String url,
+                                        @Value("${app.datasource.replica.username:}") String username,
+                                        @Value("${app.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName(HikariPoolTuner.REPLICA_POOL_NAME);
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${app.datasource.replica.max-lag:PT2S}") Duration maxLag,
+                                               @Value("${app.datasource.replica.lag-check-interval:PT5S}") Duration checkInterval,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxLag, checkInterval, meterRegistry);
+    }
+
+    /**
+     * Okno by mělo být delší než obvyklé zpoždění repliky, jinak uživatel po uložení uvidí starý stav.
+     */
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${app.datasource.replica.read-your-writes-window:PT5S}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor, readYourWritesTracker, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,53 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Pamatuje si uživatele, kteří právě zapisovali. Jejich čtení jde po dobu okna na primární databázi,
+ * aby hned po uložení neviděli starší stav z repliky (read-your-writes).
+ * <p>
+ * Spring Boot listener zaregistruje do transaction manageru, zápis se eviduje po úspěšném commitu.
+ */
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            currentUser().ifPresent(username -> recentWriters.put(username, Boolean.TRUE));
+        }
+    }
+
+    /**
+     * @return true, pokud přihlášený uživatel zapisoval v posledním okně
+     */
+    public boolean isSticky() {
+        return currentUser().map(recentWriters::getIfPresent).isPresent();
+    }
+
+    private static Optional<String> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(authentication.getName());
+    }
+}
@@ -0,0 +1,115 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hlídá zpoždění repliky za primární databází. Když zpoždění překročí limit nebo replika
+ * neodpovídá, čtení se přesměrují na primární databázi, dokud se replika nedožene.
+ * <p>
+ * Kontrola nejdřív přečte aktuální pozici WAL primární databáze. Replika, která ji už přehrála, má zpoždění 0
+ * (i když primární DB dlouho nic nezapsala), jinak se zpoždění počítá z času posledního přehraného commitu.
+ * Porovnání jen s tím, co replika přijala, by nepoznalo repliku, která zaostává už v příjmu WAL.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String PRIMARY_WAL_SQL = "select pg_current_wal_lsn()::text";
+
+    /**
+     * Databáze, která není v recovery (lokální náhrada repliky), má zpoždění 0. Replika, která ještě nepřehrála
+     * žádnou transakci, je pozadu neomezeně.
+     */
+    private static final String LAG_SQL = """
+            select case
+                       when not pg_is_in_recovery() then 0
+                       when pg_wal_lsn_diff(cast(? as pg_lsn), pg_last_wal_replay_lsn()) <= 0 then 0
+                       else coalesce(cast(extract(epoch from now() - pg_last_xact_replay_timestamp()) as float8), 'Infinity')
+                   end
+            """;
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final Thread checker;
+    private volatile boolean running = true;
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration checkInterval,
+                             MeterRegistry meterRegistry) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primary);
+        this.primaryJdbcTemplate.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.checker = new Thread(this::runChecks, "replica-lag-monitor");
+        this.checker.setDaemon(true);
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .description("Zpoždění repliky za primární databází")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1, pokud se čtení posílají na repliku")
+                .register(meterRegistry);
+    }
+
+    /**
+     * První kontrola proběhne synchronně, aby se čtení neposlala na nedostupnou repliku hned po startu.
+     */
+    public void start() {
+        check();
+        checker.start();
+    }
+
+    public void shutdown() throws InterruptedException {
+        running = false;
+        checker.interrupt();
+        checker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    void check() {
+        boolean wasUsable = usable;
+        try {
+            String primaryWal = primaryJdbcTemplate.queryForObject(PRIMARY_WAL_SQL, String.class);
+            Double lag = jdbcTemplate.queryForObject(LAG_SQL, Double.class, primaryWal);
+            lagSeconds = lag != null ? lag : 0;
+            usable = lagSeconds <= maxLag.toMillis() / 1000.0;
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Kontrola zpoždění repliky selhala, čtení jdou na primární databázi: {}", e.getMessage());
+            }
+        }
+        if (wasUsable && !usable && !Double.isNaN(lagSeconds)) {
+            log.warn("Replika je {} s pozadu (limit {}), čtení jdou na primární databázi", lagSeconds, maxLag);
+        } else if (!wasUsable && usable) {
+            log.info("Replika je dostupná, čtení jdou opět na repliku");
+        }
+    }
+
+    private void runChecks() {
+        while (running) {
+            try {
+                Thread.sleep(checkInterval);
+                check();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Posílá {@code @Transactional(readOnly = true)} na repliku, vše ostatní na primární databázi.
+ * Výjimkou jsou čtení uživatele hned po jeho zápisu ({@link ReadYourWritesTracker}) a čtení připnutá
+ * přes {@link PrimaryReads}.
+ * <p>
+ * Musí být obalený {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * transaction manager si spojení bere už na začátku transakce, ale skutečné spojení (a tedy
+ * rozhodnutí o cíli) vznikne až u prvního SQL, kdy je příznak readOnly transakce známý.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {PRIMARY, REPLICA}
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Counter writes;
+    private final Counter replicaReads;
+    private final Counter stickyReads;
+    private final Counter pinnedReads;
+    private final Counter laggingReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.writes = routeCounter(meterRegistry, Route.PRIMARY, "read-write");
+        this.replicaReads = routeCounter(meterRegistry, Route.REPLICA, "read");
+        this.stickyReads = routeCounter(meterRegistry, Route.PRIMARY, "read-your-writes");
+        this.pinnedReads = routeCounter(meterRegistry, Route.PRIMARY, "pinned");
+        this.laggingReads = routeCounter(meterRegistry, Route.PRIMARY, "replica-lag");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return Route.PRIMARY;
+        }
+        if (PrimaryReads.isActive()) {
+            pinnedReads.increment();
+            return Route.PRIMARY;
+        }
+        if (readYourWrites.isSticky()) {
+            stickyReads.increment();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isUsable()) {
+            laggingReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, Route route, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Počet spojení podle cílové databáze a důvodu")
+                .tag("target", route.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -6,6 +6,8 @@ import com.nimbusds.jose.jwk.OctetSequenceKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -49,7 +51,7 @@ public class SecurityConfig {
     private String jwtSecret;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
         return http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
@@ -70,6 +72,8 @@ public class SecurityConfig {
 
                         // Admin sekce (zbytek zabezpečen přes @PreAuthorize v controllerech)
                         .requestMatchers("/api/projects/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/startup").hasRole("ADMIN")
 
                         // Vše ostatní musí být přihlášeno
                         .anyRequest().authenticated()
@@ -78,7 +82,7 @@ public class SecurityConfig {
                 // Nastavení JWT jako způsobu autentizace
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
-                                .decoder(jwtDecoder())
+                                .decoder(jwtDecoder)
                                 .jwtAuthenticationConverter(jwtAuthenticationConverter())
                         )
                 )
@@ -92,11 +96,13 @@ public class SecurityConfig {
 
     // --- BEANY PRO PRÁCI S JWT ---
 
-    // 1. Dekodér: Ověřuje podpis tokenu, který přijde z frontendu
+    // 1. Dekodér: Ověřuje podpis tokenu, který přijde z frontendu (měřený, pokud je k dispozici MeterRegistry)
     @Bean
-    public JwtDecoder jwtDecoder() {
+    public JwtDecoder jwtDecoder(ObjectProvider<MeterRegistry> meterRegistry) {
         SecretKey key = new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-        return NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS512).build();
+        JwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS512).build();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry != null ? new TimedJwtDecoder(decoder, registry) : decoder;
     }
 
     // 2. Enkodér: Vytváří nové tokeny (používá ho AuthService)
@@ -124,8 +130,10 @@ public class SecurityConfig {
     // --- OSTATNÍ BEANY ---
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObjectProvider<MeterRegistry> meterRegistry) {
+        PasswordEncoder encoder = new BCryptPasswordEncoder();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry != null ? new TimedPasswordEncoder(encoder, registry) : encoder;
     }
 
     @Bean
@@ -0,0 +1,88 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Změří každé volání služby přes její rozhraní do timeru s tagy {@code method}, {@code outcome}
+ * ({@code success}/{@code error}) a {@code exception} (jednoduchý název třídy výjimky, jinak {@code none}),
+ * stejně jako {@code http.server.requests}.
+ * <p>
+ * Obaluje až transakční proxy, čas tedy zahrnuje i získání spojení a commit. Aplikace nemá AspectJ,
+ * proto proxy místo {@code @Timed}. Typ proxy hlásí i AOT zpracování, native image pak pro ni má hint.
+ */
+public class ServiceTimingPostProcessor implements SmartInstantiationAwareBeanPostProcessor, Ordered {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Class<?> serviceType;
+    private final String metricName;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, Class<?> serviceType, String metricName) {
+        this.meterRegistry = meterRegistry;
+        this.serviceType = serviceType;
+        this.metricName = metricName;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!serviceType.isInstance(bean)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTarget(bean);
+        proxyFactory.addInterface(serviceType);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            long start = System.nanoTime();
+            String exception = "none";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                timer(invocation.getMethod().getName(), exception).record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        });
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    @Override
+    public Class<?> determineBeanType(Class<?> beanClass, String beanName) {
+        if (!serviceType.isAssignableFrom(beanClass)) {
+            return beanClass;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetClass(beanClass);
+        proxyFactory.addInterface(serviceType);
+        return proxyFactory.getProxyClass(beanClass.getClassLoader());
+    }
+
+    /**
+     * Až po transakčních proxy.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private Timer timer(String method, String exception) {
+        return timers.computeIfAbsent(method + '|' + exception, ignored -> Timer.builder(metricName)
+                .description("Doba volání služby podle metody")
+                .tag("method", method)
+                .tag("outcome", "none".equals(exception) ? "success" : "error")
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(Duration.ofMillis(5), Duration.ofMillis(25), Duration.ofMillis(100), Duration.ofMillis(500))
+                .register(meterRegistry.getObject()));
+    }
+}
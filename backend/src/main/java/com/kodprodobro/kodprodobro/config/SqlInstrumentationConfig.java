@@ -0,0 +1,77 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Měření SQL přes datasource-proxy místo {@code spring.jpa.show-sql}. Výpis všech dotazů
+ * do stdoutu pod zátěží brzdí aplikaci, proxy jen měří a loguje pomalé dotazy.
+ * Pro výpis všech dotazů při vývoji stačí {@code app.sql.slow-threshold=0ms} a {@code app.sql.slow-log-interval=0s}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig {
+
+    /**
+     * Statická metoda - post-processor musí vzniknout dřív než datasource. Obalí každý pool
+     * (u repliky zvlášť primární a repliku), metriky tak mají tag podle poolu.
+     */
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                    Environment environment) {
+        return new InstrumentingPostProcessor(meterRegistry, environment);
+    }
+
+    static class InstrumentingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final Environment environment;
+        private SqlMetricsListener listener;
+
+        InstrumentingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+            this.meterRegistry = meterRegistry;
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource) {
+                String name = dataSource.getPoolName() != null ? dataSource.getPoolName() : beanName;
+                return ProxyDataSourceBuilder.create(name, dataSource)
+                        .listener(listener())
+                        .build();
+            }
+            return bean;
+        }
+
+        /**
+         * Až po {@link HikariPoolTuner}, který potřebuje původní {@link HikariDataSource}.
+         */
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        private synchronized SqlMetricsListener listener() {
+            if (listener == null) {
+                listener = new SqlMetricsListener(
+                        meterRegistry.getObject(),
+                        environment.getProperty("app.sql.slow-threshold", Duration.class, Duration.ofMillis(200)),
+                        environment.getProperty("app.sql.slow-log-sample-rate", Double.class, 1.0),
+                        environment.getProperty("app.sql.slow-log-interval", Duration.class, Duration.ofMinutes(1)),
+                        environment.getProperty("app.sql.max-shapes", Integer.class, 500));
+            }
+            return listener;
+        }
+    }
+}
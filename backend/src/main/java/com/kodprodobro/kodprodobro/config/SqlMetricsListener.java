@@ -0,0 +1,180 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kodprodobro.kodprodobro.profiling.DbQueryEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Měří každý SQL dotaz podle jeho tvaru a loguje jen pomalé dotazy.
+ * <p>
+ * Tvar je SQL s literály nahrazenými {@code ?} a sloučenými IN seznamy - dotazy z repozitářů
+ * se liší jen parametry, tvarů je tedy omezený počet. Každý tvar má timer {@code db.query}
+ * s tagy {@code operation}, {@code table}, {@code shape} (hash tvaru) a {@code datasource}.
+ * Vlastní tagy dostane prvních {@code maxShapes} různých tvarů, každý další se měří pod {@code other}.
+ * Rozhodnutí padne pro tvar jednou a platí pro všechny jeho timery (datasource, výsledek).
+ * <p>
+ * Pomalé dotazy (nad {@code app.sql.slow-threshold}) se logují s pravděpodobností
+ * {@code app.sql.slow-log-sample-rate} a nejvýš jednou za {@code app.sql.slow-log-interval}
+ * pro každý tvar, aby log nezahltil zápis pod zátěží. Hodnoty parametrů se nelogují,
+ * jen jejich typy - v parametrech bývají hesla, tokeny a e-maily.
+ * <p>
+ * Při zapnutém JFR jde každý dotaz i do {@link DbQueryEvent}, se stack trace volajícího.
+ */
+@Slf4j
+public class SqlMetricsListener implements QueryExecutionListener {
+
+    static final String OTHER_SHAPE = "other";
+    private static final String START_NANOS = SqlMetricsListener.class.getName() + ".start";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update|join)\\s+([a-z_][a-z0-9_.]*)");
+
+    record QueryShape(String id, String operation, String table, String sql) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowThreshold;
+    private final double sampleRate;
+    private final int maxShapes;
+    private final Cache<String, QueryShape> shapesBySql;
+    private final Cache<String, Timer> timers;
+    private final Cache<String, Boolean> recentlyLogged;
+    // ID tvarů s vlastními tagy, nejvýš maxShapes - timery se z registru neodebírají, set proto jen roste
+    private final Set<String> labelledShapes = ConcurrentHashMap.newKeySet();
+
+    public SqlMetricsListener(MeterRegistry meterRegistry, Duration slowThreshold, double sampleRate,
+                              Duration slowLogInterval, int maxShapes) {
+        this.meterRegistry = meterRegistry;
+        this.slowThreshold = slowThreshold;
+        this.sampleRate = sampleRate;
+        this.maxShapes = maxShapes;
+        this.shapesBySql = Caffeine.newBuilder().maximumSize(maxShapes * 4L).build();
+        this.timers = Caffeine.newBuilder().maximumSize(maxShapes * 2L + 1).build();
+        this.recentlyLogged = Caffeine.newBuilder().expireAfterWrite(slowLogInterval).maximumSize(maxShapes).build();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        if (start == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        QueryShape shape = shapesBySql.get(queryInfoList.get(0).getQuery(), SqlMetricsListener::shapeOf);
+        String dataSource = Objects.requireNonNullElse(execInfo.getDataSourceName(), "default");
+        timer(shape, dataSource, execInfo.isSuccess()).record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        DbQueryEvent event = new DbQueryEvent();
+        if (event.shouldCommit()) {
+            event.shape = shape.id();
+            event.operation = shape.operation();
+            event.table = shape.table();
+            event.dataSource = dataSource;
+            event.success = execInfo.isSuccess();
+            event.queryTime = elapsedNanos;
+            event.sql = shape.sql();
+            event.commit();
+        }
+
+        if (elapsedNanos >= slowThreshold.toNanos() && shouldLog(shape)) {
+            log.warn("Pomalý SQL dotaz {} ms [{} {}, tvar {}, datasource {}{}]: {} | parametry: {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), shape.operation(), shape.table(), shape.id(), dataSource,
+                    execInfo.isBatch() ? ", dávka " + execInfo.getBatchSize() : "",
+                    shape.sql(), parameterTypes(queryInfoList.get(0)));
+        }
+    }
+
+    private Timer timer(QueryShape shape, String dataSource, boolean success) {
+        String key = shape.id() + '|' + dataSource + '|' + success;
+        return timers.get(key, ignored -> {
+            // Nad limitem se nové tvary slučují, počet časových řad v Prometheu zůstane omezený
+            boolean known = isLabelled(shape.id());
+            return Timer.builder("db.query")
+                    .description("Doba SQL dotazu podle tvaru")
+                    .tag("operation", shape.operation())
+                    .tag("table", known ? shape.table() : OTHER_SHAPE)
+                    .tag("shape", known ? shape.id() : OTHER_SHAPE)
+                    .tag("datasource", dataSource)
+                    .tag("outcome", success ? "success" : "error")
+                    .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(20),
+                            Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(2))
+                    .register(meterRegistry);
+        });
+    }
+
+    private boolean isLabelled(String shapeId) {
+        if (labelledShapes.contains(shapeId)) {
+            return true;
+        }
+        synchronized (labelledShapes) {
+            if (labelledShapes.size() >= maxShapes) {
+                return labelledShapes.contains(shapeId);
+            }
+            labelledShapes.add(shapeId);
+            return true;
+        }
+    }
+
+    private boolean shouldLog(QueryShape shape) {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+        return recentlyLogged.asMap().putIfAbsent(shape.id(), Boolean.TRUE) == null;
+    }
+
+    static QueryShape shapeOf(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?)");
+        String lower = normalized.toLowerCase(Locale.ROOT);
+        int firstSpace = lower.indexOf(' ');
+        String operation = firstSpace > 0 ? lower.substring(0, firstSpace) : lower;
+        Matcher table = TABLE.matcher(lower);
+        return new QueryShape(
+                String.format("%08x", normalized.hashCode()),
+                operation.isEmpty() ? "unknown" : operation,
+                table.find() ? table.group(1) : "none",
+                normalized);
+    }
+
+    /**
+     * Typy parametrů místo hodnot, u dávky jen první sada.
+     */
+    static String parameterTypes(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return "[]";
+        }
+        return queryInfo.getParametersList().get(0).stream()
+                .map(ParameterSetOperation::getArgs)
+                .map(args -> args.length > 1 && args[1] != null ? args[1].getClass().getSimpleName() : "null")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.kodprodobro.kodprodobro.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+/**
+ * Rychlejší start instance, kterou autoscaler přidává pod zátěží.
+ * <p>
+ * Volitelná lazy inicializace nekritických beanů ({@code app.startup.lazy-non-critical=true}) a souhrn
+ * nejpomalejších beanů startu v logu. Souhrn i celá časová osa na {@code /actuator/startup} jsou jen se zapnutým
+ * záznamem kroků ({@link StartupTimeline}).
+ * AOT a CDS archiv vytváří Maven profil {@code startup} - s AOT se podmínky i lazy příznaky vyhodnotí
+ * už při buildu, vlastnost je tedy potřeba nastavit tam.
+ */
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    private static final int SLOWEST_BEANS = 10;
+
+    /**
+     * Statická metoda - post-processor továrny beanů musí vzniknout před ostatními beany.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.startup.lazy-non-critical", havingValue = "true")
+    public static BeanFactoryPostProcessor nonCriticalLazyInitPostProcessor() {
+        return new NonCriticalLazyInitPostProcessor();
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> startupTimelineReporter() {
+        return event -> {
+            if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+                return;
+            }
+            StartupTimeline timeline = startup.getBufferedTimeline();
+            // Doba beanu zahrnuje i jeho závislosti, které vznikly při jeho vytváření
+            String slowest = timeline.getEvents().stream()
+                    .filter(step -> "spring.beans.instantiate".equals(step.getStartupStep().getName()))
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(SLOWEST_BEANS)
+                    .map(step -> "%s %d ms".formatted(beanName(step), step.getDuration().toMillis()))
+                    .collect(Collectors.joining(", "));
+            log.info("Aplikace připravena za {} ms, nejpomalejší beany: {}",
+                    event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1, slowest);
+        };
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent step) {
+        for (var tag : step.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
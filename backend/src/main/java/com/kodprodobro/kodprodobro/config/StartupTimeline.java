@@ -0,0 +1,37 @@
+package com.kodprodobro.kodprodobro.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.util.Arrays;
+
+/**
+ * Záznam kroků startu (vytvoření beanů, konfigurační třídy, refresh) pro {@code /actuator/startup}
+ * a souhrn nejpomalejších beanů v logu ({@link StartupConfig}).
+ * <p>
+ * Buffer drží v heapu až {@value #CAPACITY} kroků, zapíná se proto jen na požádání:
+ * {@code app.startup.timeline.enabled=true}, nebo když je endpoint {@code startup} vystavený přes web.
+ * Jinak zůstává výchozí {@code ApplicationStartup}, který nic nezaznamenává. Registruje se přes
+ * {@code META-INF/spring.factories}, kontext, který se teprve vytvoří, záznam už dostane.
+ */
+public class StartupTimeline implements EnvironmentPostProcessor {
+
+    static final int CAPACITY = 8192;
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (isEnabled(environment)) {
+            application.setApplicationStartup(new BufferingApplicationStartup(CAPACITY));
+        }
+    }
+
+    static boolean isEnabled(ConfigurableEnvironment environment) {
+        if (environment.getProperty("app.startup.timeline.enabled", Boolean.class, false)) {
+            return true;
+        }
+        String[] exposed = environment.getProperty("management.endpoints.web.exposure.include", String[].class, new String[0]);
+        return Arrays.stream(exposed).map(String::trim).anyMatch(id -> id.equals("startup") || id.equals("*"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.kodprodobro.kodprodobro.profiling.JwtVerificationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+
+/**
+ * Měří ověření access tokenu, které resource server dělá u každého autentizovaného požadavku
+ * ({@code security.jwt}, {@code operation=decode}) a při zapnutém JFR zapisuje {@link JwtVerificationEvent}.
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    public TimedJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.validTimer = timer(meterRegistry, "decode", "success");
+        this.invalidTimer = timer(meterRegistry, "decode", "invalid");
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Jwt jwt = delegate.decode(token);
+            validTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            commit(event, true);
+            return jwt;
+        } catch (JwtException e) {
+            invalidTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            commit(event, false);
+            throw e;
+        }
+    }
+
+    private static void commit(JwtVerificationEvent event, boolean valid) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "decode";
+            event.valid = valid;
+            event.commit();
+        }
+    }
+
+    /**
+     * Timer {@code security.jwt} - jediná definice pro dekodér i {@code JwtService}, registry jinak odmítne
+     * druhý meter se stejným názvem a jinou konfigurací.
+     */
+    public static Timer timer(MeterRegistry meterRegistry, String operation, String outcome) {
+        return Timer.builder("security.jwt")
+                .description("Doba vydání a ověření JWT")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.kodprodobro.kodprodobro.services.email.EmailService;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+
+/**
+ * Distribuovaný tracing přes Micrometer Tracing s OpenTelemetry bridgem.
+ * <p>
+ * HTTP požadavky traceuje Spring MVC, tady přibývají spany kontrolerů ({@code app.controller})
+ * a repozitářů ({@code app.repository}); odeslání e-mailů ({@link EmailService}) má vlastní observation.
+ * Do {@code @Async} úloh se kontext přenáší přes {@link AsyncConfig}. Vzorkuje se už při vzniku trace
+ * podle {@code management.tracing.sampling.probability} (výchozí 0.1), nevybrané trace stojí jen
+ * vytvoření prázdného spanu.
+ */
+@Configuration
+public class TracingConfig {
+
+    private static final String CONTROLLER_OBSERVATION = "app.controller";
+    private static final String REPOSITORY_OBSERVATION = "app.repository";
+
+    /**
+     * Statická metoda - post-processor musí vzniknout dřív než kontrolery, které obaluje.
+     */
+    @Bean
+    public static ObservationPostProcessor controllerObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new ObservationPostProcessor(observationRegistry, CONTROLLER_OBSERVATION,
+                type -> AnnotationUtils.findAnnotation(ClassUtils.getUserClass(type), RestController.class) != null);
+    }
+
+    @Bean
+    public static ObservationPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new ObservationPostProcessor(observationRegistry, REPOSITORY_OBSERVATION, Repository.class::isAssignableFrom);
+    }
+
+    /**
+     * Spany kontrolerů a repozitářů bez metrik - dobu už měří {@code http.server.requests}
+     * a {@code spring.data.repository.invocations}.
+     */
+    @Bean
+    public MeterFilter tracingOnlyObservationsFilter() {
+        return MeterFilter.deny(id -> id.getName().startsWith(CONTROLLER_OBSERVATION)
+                || id.getName().startsWith(REPOSITORY_OBSERVATION));
+    }
+
+    /**
+     * Export spanů do souboru (Zipkin JSON) pro ladění bez collectoru, zapíná se {@code app.tracing.file.path}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.file.path")
+    public SpanExporter zipkinFileSpanExporter(@Value("${app.tracing.file.path}") Path path) {
+        return new ZipkinFileSpanExporter(path);
+    }
+}
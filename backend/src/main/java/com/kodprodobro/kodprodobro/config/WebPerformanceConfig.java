@@ -0,0 +1,53 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Nastavení výkonu HTTP vrstvy: komprese odpovědí a metrika velikosti odpovědí.
+ * <p>
+ * Blackbird modul pro Jackson se záměrně nepoužívá - DTO jsou recordy a na JDK 18+ je reflexe
+ * postavená na method handles, podle ProjectJsonBenchmark s ním serializace byla pomalejší.
+ */
+@Configuration
+public class WebPerformanceConfig {
+
+    /**
+     * Gzip komprese odpovědí nad prahem velikosti. Malé odpovědi se nekomprimují,
+     * režie by byla větší než úspora. Vypnutí: {@code server.compression.enabled=false}.
+     * Brotli Tomcat neumí, ten případně doplní reverzní proxy/CDN.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true", matchIfMissing = true)
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> compressionCustomizer(
+            @Value("${app.http.compression.min-response-size:1KB}") DataSize minResponseSize) {
+        return factory -> {
+            Compression compression = new Compression();
+            compression.setEnabled(true);
+            compression.setMinResponseSize(minResponseSize);
+            compression.setMimeTypes(new String[]{
+                    "application/json", "application/x-ndjson", "application/problem+json",
+                    "text/csv", "text/html", "text/plain", "text/css", "application/javascript"
+            });
+            factory.setCompression(compression);
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseSizeMetricsFilter> responseSizeMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ResponseSizeMetricsFilter> registration =
+                new FilterRegistrationBean<>(new ResponseSizeMetricsFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
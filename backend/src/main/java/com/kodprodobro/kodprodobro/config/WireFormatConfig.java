@@ -0,0 +1,56 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binární formáty API pro mobilní a partnerské klienty: {@code application/cbor}
+ * a {@code application/x-jackson-smile} nad stejnými DTO jako JSON.
+ * <p>
+ * Mappery vznikají z builderu Spring Bootu, takže mají stejné moduly a nastavení jako JSON.
+ * Konvertory se přidávají až na konec seznamu - klient s {@code Accept: *}{@code /*} tak dál dostane JSON.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public WireFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builderProvider) {
+        // Builder je prototype bean, každé volání vrátí novou instanci
+        this.cborMapper = builderProvider.getObject().factory(new CBORFactory()).build();
+        this.smileMapper = builderProvider.getObject().factory(new SmileFactory()).build();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+    }
+
+    /**
+     * Výběr formátu pro endpointy, které zapisují odpověď samy (streaming), mimo message konvertory.
+     */
+    @Bean
+    public WireFormatNegotiator wireFormatNegotiator(ObjectMapper objectMapper) {
+        return new WireFormatNegotiator(List.of(
+                new WireFormatNegotiator.WireFormat(MediaType.APPLICATION_JSON, objectMapper, ""),
+                new WireFormatNegotiator.WireFormat(MediaType.APPLICATION_CBOR, cborMapper, "-cbor"),
+                new WireFormatNegotiator.WireFormat(APPLICATION_SMILE, smileMapper, "-smile")
+        ));
+    }
+}
@@ -0,0 +1,60 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vybere formát odpovědi podle hlavičky Accept (kvalita i specifičnost).
+ * Při shodě má přednost formát uvedený dřív, JSON je proto první.
+ */
+public class WireFormatNegotiator {
+
+    /**
+     * @param etagSuffix přípona ETagu - každá reprezentace musí mít vlastní ETag
+     */
+    public record WireFormat(MediaType mediaType, ObjectMapper objectMapper, String etagSuffix) {
+
+        public boolean isJson() {
+            return MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType);
+        }
+    }
+
+    private final List<WireFormat> formats;
+
+    public WireFormatNegotiator(List<WireFormat> formats) {
+        this.formats = List.copyOf(formats);
+    }
+
+    public WireFormat negotiate(String acceptHeader) {
+        if (!StringUtils.hasText(acceptHeader)) {
+            return formats.get(0);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(acceptHeader));
+        } catch (InvalidMediaTypeException e) {
+            return formats.get(0);
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (WireFormat format : formats) {
+                if (mediaType.isCompatibleWith(format.mediaType())) {
+                    return format;
+                }
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+                "Podporované formáty: application/json, application/cbor, application/x-jackson-smile");
+    }
+}
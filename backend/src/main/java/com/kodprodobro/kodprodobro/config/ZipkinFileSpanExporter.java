@@ -0,0 +1,108 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zapisuje ukončené spany do souboru ve formátu Zipkin v2 JSON, jeden span na řádek.
+ * <p>
+ * Pro ladění bez běžícího collectoru: soubor se dá prohlédnout přímo, nebo nahrát do Zipkinu
+ * ({@code jq -s . spans.jsonl | curl -H 'Content-Type: application/json' -d @- localhost:9411/api/v2/spans}).
+ */
+@Slf4j
+public class ZipkinFileSpanExporter implements SpanExporter {
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path file;
+
+    public ZipkinFileSpanExporter(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (SpanData span : spans) {
+                    writer.write(toJson(span));
+                    writer.write('\n');
+                }
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Zápis spanů do {} selhal: {}", file, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    String toJson(SpanData span) throws IOException {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("traceId", span.getTraceId());
+            json.writeStringField("id", span.getSpanId());
+            if (span.getParentSpanContext().isValid()) {
+                json.writeStringField("parentId", span.getParentSpanId());
+            }
+            json.writeStringField("name", span.getName());
+            if (span.getKind() != SpanKind.INTERNAL) {
+                json.writeStringField("kind", span.getKind().name());
+            }
+            long start = TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos());
+            json.writeNumberField("timestamp", start);
+            json.writeNumberField("duration",
+                    Math.max(1, TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos()) - start));
+            String serviceName = span.getResource().getAttribute(SERVICE_NAME);
+            if (serviceName != null) {
+                json.writeObjectFieldStart("localEndpoint");
+                json.writeStringField("serviceName", serviceName);
+                json.writeEndObject();
+            }
+            json.writeObjectFieldStart("tags");
+            for (Map.Entry<AttributeKey<?>, Object> attribute : span.getAttributes().asMap().entrySet()) {
+                json.writeStringField(attribute.getKey().getKey(), String.valueOf(attribute.getValue()));
+            }
+            if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                String description = span.getStatus().getDescription();
+                json.writeStringField("error", description.isEmpty() ? "true" : description);
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+}
@@ -1,22 +1,19 @@
 package com.kodprodobro.kodprodobro.controllers;
 
+import com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse;
+import com.kodprodobro.kodprodobro.dto.chat.ChatResponse;
 import com.kodprodobro.kodprodobro.dto.message.SendMessageRequest;
-import com.kodprodobro.kodprodobro.models.chat.Chat;
-import com.kodprodobro.kodprodobro.models.chat.ChatMessage;
-import com.kodprodobro.kodprodobro.models.user.User;
-import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageRepository;
-import com.kodprodobro.kodprodobro.repositories.chat.ChatRepository;
-import com.kodprodobro.kodprodobro.repositories.user.UserRepository;
+import com.kodprodobro.kodprodobro.services.chat.ChatMessageWriteBuffer;
+import com.kodprodobro.kodprodobro.services.chat.ChatService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Optional;
 
 @Slf4j
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -25,51 +22,30 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ChatController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
-    private ChatRepository chatRepository;
-
-
-    private ChatMessageRepository chatMessageRepository;
-
-
-    private UserRepository userRepository;
+    private final ChatService chatService;
 
     @GetMapping
-    public List<Chat> getUserChats() {
-        return chatRepository.findAll();
+    public List<ChatResponse> getUserChats(Authentication authentication) {
+        return chatService.getUserChats(authentication.getName());
     }
 
     @GetMapping("/{chatId}/messages")
-    public ResponseEntity<List<ChatMessage>> getChatMessages(@PathVariable Long chatId) {
+    public ResponseEntity<List<ChatMessageResponse>> getChatMessages(@PathVariable Long chatId, Authentication authentication) {
         log.info("GET /api/chats/{}/messages - Získání zpráv pro chat", chatId);
-        if (!chatRepository.existsById(chatId)) {
-            return ResponseEntity.notFound().build();
-        }
-        List<ChatMessage> messages = chatMessageRepository.findByChatId(chatId);
-        return ResponseEntity.ok(messages);
+        return ResponseEntity.ok(chatService.getMessages(chatId, authentication.getName()));
     }
 
     @PostMapping("/{chatId}/messages")
-    public ResponseEntity<ChatMessage> sendMessage(@PathVariable Long chatId, @RequestBody SendMessageRequest messageRequest) {
+    public ResponseEntity<ChatMessageResponse> sendMessage(@PathVariable Long chatId,
+                                                           @Valid @RequestBody SendMessageRequest messageRequest,
+                                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                           Authentication authentication) {
         log.info("POST /api/chats/{}/messages - Odeslání zprávy do chatu", chatId);
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentPrincipalName = authentication.getName();
-
-        User sender = userRepository.findByUsername(currentPrincipalName)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Optional<Chat> chatOptional = chatRepository.findById(chatId);
-        if (chatOptional.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        Chat chat = chatOptional.get();
-
-        ChatMessage chatMessage = new ChatMessage();
-        chatMessage.setChat(chat);
-        chatMessage.setSender(sender);
-        chatMessage.setContent(messageRequest.content());
-
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
-        return ResponseEntity.ok(savedMessage);
+        ChatMessageWriteBuffer.Appended appended =
+                chatService.sendMessage(chatId, authentication.getName(), messageRequest.content(), idempotencyKey);
+        // 202: zpráva je přijatá, ale zápis ještě nepotvrzený - opakování se stejným Idempotency-Key ji nezduplikuje
+        return ResponseEntity.status(appended.stored() ? HttpStatus.OK : HttpStatus.ACCEPTED).body(appended.message());
     }
 }
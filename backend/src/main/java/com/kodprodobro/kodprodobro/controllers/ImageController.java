@@ -0,0 +1,217 @@
+package com.kodprodobro.kodprodobro.controllers;
+
+import com.kodprodobro.kodprodobro.dto.image.ImageUploadResponse;
+import com.kodprodobro.kodprodobro.exception.file.FileStorageException;
+import com.kodprodobro.kodprodobro.exception.file.InvalidFileException;
+import com.kodprodobro.kodprodobro.services.storage.FileStorageService;
+import com.kodprodobro.kodprodobro.services.storage.StoredFile;
+import com.kodprodobro.kodprodobro.services.storage.ThumbnailService;
+import com.kodprodobro.kodprodobro.services.storage.ThumbnailSize;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/images")
+@RequiredArgsConstructor
+@Tag(name = "Images", description = "Nahrávání a servírování obrázků")
+public class ImageController {
+
+    // Atributy požadavku, kterými Tomcat přebírá zápis souboru (sendfile, FileChannel.transferTo bez kopie přes heap)
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Název je hash obsahu, obsah pod ním se nikdy nezmění
+    private static final CacheControl IMMUTABLE_CACHE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable();
+
+    // Originál místo náhledu, který ještě není hotový - na stejné URL bude brzy jiný obsah
+    private static final CacheControl FALLBACK_CACHE = CacheControl.noCache();
+
+    private final FileStorageService fileStorageService;
+
+    private final ThumbnailService thumbnailService;
+
+    @Operation(summary = "Nahrání obrázku", description = "Uloží JPEG, PNG, GIF nebo WebP. Stejný obsah dostane vždy stejný název.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Obrázek uložen, Location obsahuje jeho URL"),
+            @ApiResponse(responseCode = "400", description = "Soubor chybí nebo to není podporovaný obrázek"),
+            @ApiResponse(responseCode = "413", description = "Soubor je příliš velký")
+    })
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImageUploadResponse> upload(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new InvalidFileException("Soubor je prázdný");
+        }
+        StoredFile stored;
+        try (InputStream input = file.getInputStream()) {
+            stored = fileStorageService.store(input);
+        } catch (IOException e) {
+            throw new FileStorageException("Čtení nahraného souboru selhalo", e);
+        }
+        // Náhledy se připraví na pozadí, plná fronta nevadí - vzniknou při prvním požadavku
+        thumbnailService.generate(stored);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{name}")
+                .buildAndExpand(stored.name())
+                .toUri();
+        Map<String, String> thumbnails = new LinkedHashMap<>();
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            thumbnails.put(size.pathName(), location.getPath() + "/thumbnails/" + size.pathName());
+        }
+        return ResponseEntity.created(location)
+                .body(new ImageUploadResponse(stored.name(), location.getPath(), stored.type().getMediaType().toString(),
+                        stored.size(), thumbnails));
+    }
+
+    /**
+     * Obrázek s dlouhodobou cache a podporou Range.
+     * <p>
+     * Na Tomcatu se celý soubor i jeden rozsah posílají přes sendfile - aplikace nastaví jen hlavičky a atributy požadavku,
+     * data zapíše Tomcat z page cache přímo do socketu. Jinde a pro více rozsahů najednou vrací {@link Resource},
+     * rozsahy (206) pak zpracuje Spring přes {@code ResourceRegion}.
+     */
+    @Operation(summary = "Stažení obrázku", description = "Podporuje Range a podmíněné požadavky (ETag).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Obrázek"),
+            @ApiResponse(responseCode = "206", description = "Požadovaný rozsah obrázku"),
+            @ApiResponse(responseCode = "304", description = "Obrázek se nezměnil"),
+            @ApiResponse(responseCode = "404", description = "Obrázek neexistuje")
+    })
+    @GetMapping("/{name}")
+    public ResponseEntity<Resource> download(@PathVariable String name,
+                                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                             WebRequest webRequest,
+                                             HttpServletRequest request,
+                                             HttpServletResponse response) throws NoResourceFoundException {
+        StoredFile file = fileStorageService.load(name)
+                .orElseThrow(() -> new NoResourceFoundException(HttpMethod.GET, request.getRequestURI()));
+        return serve(file, IMMUTABLE_CACHE, range, webRequest, request, response);
+    }
+
+    /**
+     * Náhled obrázku o šířce {@code small}, {@code medium} nebo {@code large}.
+     * <p>
+     * Chybějící náhled se zařadí ke generování na pozadí a požadavek na něj nečeká - hned se vrátí originál
+     * s {@code no-cache}, aby si ho prohlížeč pod URL náhledu neuložil natrvalo a příště si řekl o hotový náhled.
+     * Formáty bez náhledů (WebP) vrací originál s běžnou dlouhodobou cache.
+     */
+    @Operation(summary = "Náhled obrázku", description = "Zmenšená varianta pro výpisy a karty. Podporuje Range a ETag.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Náhled, případně originál, dokud náhled není hotový"),
+            @ApiResponse(responseCode = "304", description = "Náhled se nezměnil"),
+            @ApiResponse(responseCode = "404", description = "Obrázek nebo velikost neexistuje")
+    })
+    @GetMapping("/{name}/thumbnails/{size}")
+    public ResponseEntity<Resource> thumbnail(@PathVariable String name,
+                                              @PathVariable("size") String sizeName,
+                                              @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                              WebRequest webRequest,
+                                              HttpServletRequest request,
+                                              HttpServletResponse response) throws NoResourceFoundException {
+        StoredFile original = fileStorageService.load(name)
+                .orElseThrow(() -> new NoResourceFoundException(HttpMethod.GET, request.getRequestURI()));
+        ThumbnailSize size = ThumbnailSize.fromPathName(sizeName)
+                .orElseThrow(() -> new NoResourceFoundException(HttpMethod.GET, request.getRequestURI()));
+        if (!thumbnailService.supports(original.type())) {
+            return serve(original, IMMUTABLE_CACHE, range, webRequest, request, response);
+        }
+        Optional<StoredFile> thumbnail = thumbnailService.thumbnail(original, size);
+        if (thumbnail.isEmpty()) {
+            return serve(original, FALLBACK_CACHE, range, webRequest, request, response);
+        }
+        return serve(thumbnail.get(), IMMUTABLE_CACHE, range, webRequest, request, response);
+    }
+
+    private ResponseEntity<Resource> serve(StoredFile file, CacheControl cacheControl, String range,
+                                           WebRequest webRequest, HttpServletRequest request, HttpServletResponse response) {
+        String etag = "\"" + file.hash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && sendfile(file, etag, cacheControl, range, request, response)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .contentType(file.type().getMediaType())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(new FileSystemResource(file.path()));
+    }
+
+    /**
+     * Předá soubor (nebo jeden rozsah) Tomcatu k zápisu přes sendfile.
+     * <p>
+     * Rozsah platí jen bez {@code If-Range} nebo když se shoduje s aktuálním ETagem, jinak se posílá celý soubor (RFC 9110).
+     *
+     * @return {@code false}, pokud rozsah nejde obsloužit jedním voláním - neplatný nebo vícenásobný
+     */
+    private boolean sendfile(StoredFile file, String etag, CacheControl cacheControl, String range,
+                             HttpServletRequest request, HttpServletResponse response) {
+        long start = 0;
+        long end = file.size();
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (ranges.size() != 1 || ranges.get(0).getRangeStart(file.size()) >= file.size()) {
+                return false;
+            }
+            start = ranges.get(0).getRangeStart(file.size());
+            end = ranges.get(0).getRangeEnd(file.size()) + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + file.size());
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(file.type().getMediaType().toString());
+        response.setContentLengthLong(end - start);
+        request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, end);
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.kodprodobro.kodprodobro.controllers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * OpenAPI specifikace vygenerovaná při buildu (Maven profil {@code openapi}), servírovaná jako soubor.
+ * <p>
+ * Aktivní jen s {@code springdoc.api-docs.enabled=false} (profil {@code prod}) - springdoc pak při startu
+ * ani při prvním požadavku neprochází kontrolery a anotace, specifikace se jen přečte z classpath.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class OpenApiSpecController {
+
+    private static final CacheControl SPEC_CACHE = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
+    private final byte[] spec;
+    private final String etag;
+
+    public OpenApiSpecController(@Value("${app.openapi.prebuilt-spec:classpath:META-INF/openapi/openapi.json}") Resource specResource) {
+        if (specResource.exists()) {
+            try {
+                this.spec = specResource.getContentAsByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Načtení OpenAPI specifikace " + specResource + " selhalo", e);
+            }
+            this.etag = "\"openapi-" + DigestUtils.md5DigestAsHex(spec) + "\"";
+        } else {
+            log.warn("OpenAPI specifikace {} chybí, build bez profilu openapi - /api-docs vrátí 404", specResource);
+            this.spec = null;
+            this.etag = null;
+        }
+    }
+
+    @GetMapping(value = "${springdoc.api-docs.path:/v3/api-docs}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> spec(WebRequest webRequest) {
+        if (spec == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(SPEC_CACHE)
+                .eTag(etag)
+                .body(spec);
+    }
+}
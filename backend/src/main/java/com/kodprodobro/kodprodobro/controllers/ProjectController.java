@@ -1,26 +1,47 @@
 package com.kodprodobro.kodprodobro.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kodprodobro.kodprodobro.config.WireFormatNegotiator;
 import com.kodprodobro.kodprodobro.dto.message.MessageResponse;
+import com.kodprodobro.kodprodobro.dto.project.ProjectMatchRequest;
+import com.kodprodobro.kodprodobro.dto.project.ProjectMatchResponse;
 import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
 import com.kodprodobro.kodprodobro.dto.project.UpdateProjectRequest;
 import com.kodprodobro.kodprodobro.models.project.CreateProjectRequest;
 import com.kodprodobro.kodprodobro.repositories.project.ProjectRepository;
+import com.kodprodobro.kodprodobro.services.matching.ProjectMatchService;
+import com.kodprodobro.kodprodobro.services.project.LatestProjectsCache;
 import com.kodprodobro.kodprodobro.services.project.ProjectService;
+import com.kodprodobro.kodprodobro.services.project.ProjectVersionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -33,15 +54,45 @@ public class ProjectController {
 
     private final ProjectService projectService;
 
+    private final ProjectMatchService projectMatchService;
+
+    private final ProjectVersionService projectVersionService;
+
+    private final LatestProjectsCache latestProjectsCache;
+
+    private final WireFormatNegotiator wireFormatNegotiator;
+
+    // Prohlížeč si vždy ověří ETag (levné 304), CDN může odpověď chvíli servírovat sama
+    private static final CacheControl PUBLIC_CACHE = CacheControl.maxAge(Duration.ZERO)
+            .cachePublic()
+            .sMaxAge(Duration.ofSeconds(60))
+            .staleWhileRevalidate(Duration.ofSeconds(30));
+
     /**
      * Získání všech projektů.
      * @return
      */
     @Operation(summary = "Získání všech veřejných projektů", description = "Vrátí seznam všech projektů, které jsou ve stavu PUBLISHED.")
+    @ApiResponse(responseCode = "200", description = "Publikované projekty (JSON, CBOR nebo Smile podle Accept)",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ProjectResponse.class))))
     @GetMapping
-    public ResponseEntity<List<ProjectResponse>> getAllProjects() {
-        List<ProjectResponse> projects = projectService.getAllPublishedProjects();
-        return ResponseEntity.ok(projects);
+    public void getAllProjects(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                               WebRequest webRequest, HttpServletResponse response) throws IOException {
+        WireFormatNegotiator.WireFormat format = wireFormatNegotiator.negotiate(accept);
+        if (notModified(webRequest, response, "\"catalog-" + projectVersionService.catalogVersion() + format.etagSuffix() + "\"")) {
+            return;
+        }
+        // Projekty se zapisují do výstupu postupně, celé pole v paměti nikdy není
+        response.setContentType(format.mediaType().toString());
+        // Flush po každém projektu by z každého udělal samostatný TCP chunk
+        ObjectWriter projectWriter = format.objectMapper().writerFor(ProjectResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = format.objectMapper().getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            projectService.forEachPublishedProject(project -> writeValue(projectWriter, generator, project));
+            generator.writeEndArray();
+        }
     }
 
     /**
@@ -50,10 +101,19 @@ public class ProjectController {
     @Operation(summary = "Detail projektu", description = "Vrátí detailní informace o projektu podle ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Projekt nalezen"),
+            @ApiResponse(responseCode = "304", description = "Projekt se od posledního načtení nezměnil (If-None-Match)", content = @Content),
             @ApiResponse(responseCode = "404", description = "Projekt neexistuje", content = @Content)
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ProjectResponse> getProjectById(@PathVariable Long id) {
+    public ResponseEntity<ProjectResponse> getProjectById(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                          WebRequest webRequest, HttpServletResponse response) {
+        String etagSuffix = wireFormatNegotiator.negotiate(accept).etagSuffix();
+        // Neexistující projekt nemá verzi a propadne do běžné cesty, která vrátí 404
+        Optional<Long> version = projectVersionService.publishedProjectVersion(id);
+        if (version.isPresent() && notModified(webRequest, response, "\"project-" + id + "-" + version.get() + etagSuffix + "\"")) {
+            return null;
+        }
         ProjectResponse project = projectService.getPublishedProjectById(id);
         return ResponseEntity.ok(project);
     }
@@ -80,12 +140,82 @@ public class ProjectController {
 
     /**
      * Získání nejnovějších projektů.
+     * Odpověď je předrenderovaná v paměti, zapisují se rovnou hotové (případně gzipované) bajty.
      */
     @Operation(summary = "Získání nejnovějších projektů", description = "Vrátí seznam nejnovějších publikovaných projektů.")
+    @ApiResponse(responseCode = "200", description = "Nejnovější projekty",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ProjectResponse.class))))
     @GetMapping("/latest")
-    public ResponseEntity<List<ProjectResponse>> getLatestProjects() {
-        List<ProjectResponse> projects = projectService.getLatestPublishedProjects();
-        return ResponseEntity.ok(projects);
+    public ResponseEntity<?> getLatestProjects(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                               WebRequest webRequest, HttpServletResponse response) {
+        WireFormatNegotiator.WireFormat format = wireFormatNegotiator.negotiate(accept);
+        LatestProjectsCache.Rendered latest = latestProjectsCache.get();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // Gzip a identity jsou různé bajty, každá varianta potřebuje vlastní silný ETag
+        boolean gzip = format.isJson() && acceptsGzip(acceptEncoding);
+        String etag = latest.etag().substring(0, latest.etag().length() - 1) + format.etagSuffix()
+                + (gzip ? "-gzip" : "") + "\"";
+        if (notModified(webRequest, response, etag)) {
+            return null;
+        }
+        if (!format.isJson()) {
+            // Předrenderovaný je jen JSON pro homepage, binární klienti jdou přes konvertory
+            return ResponseEntity.ok().contentType(format.mediaType()).body(projectService.getLatestPublishedProjects());
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(latest.gzip());
+        }
+        return builder.body(latest.identity());
+    }
+
+    /**
+     * Přijímá klient gzip? Podle Accept-Encoding včetně q-hodnot: {@code gzip;q=0} gzip odmítá,
+     * {@code *} s kladnou q-hodnotou ho přijímá, pokud gzip není uvedený zvlášť.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        double effective = gzipQuality != null ? gzipQuality : wildcardQuality != null ? wildcardQuality : 0;
+        return effective > 0;
+    }
+
+    /**
+     * Párování studenta s projekty podle dovedností a zájmů.
+     */
+    @Operation(summary = "Doporučení projektů", description = "Seřadí publikované projekty podle shody s dovednostmi, zájmy a popisem studenta.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Seřazené projekty se skóre shody"),
+            @ApiResponse(responseCode = "400", description = "Neplatná data")
+    })
+    @PostMapping("/match")
+    public ResponseEntity<List<ProjectMatchResponse>> matchProjects(@Valid @RequestBody ProjectMatchRequest request) {
+        return ResponseEntity.ok(projectMatchService.match(request));
     }
 
     /**
@@ -123,6 +253,23 @@ public class ProjectController {
         return ResponseEntity.ok(updatedProject);
     }
 
+    /**
+     * Publikování projektu a oznámení studentům.
+     */
+    @Operation(summary = "Publikování projektu", description = "Zveřejní projekt a rozešle oznámení studentům, kteří je mají zapnutá.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Projekt publikován"),
+            @ApiResponse(responseCode = "403", description = "Nemáte oprávnění publikovat tento projekt"),
+            @ApiResponse(responseCode = "404", description = "Projekt nenalezen")
+    })
+    @PutMapping("/{id}/publish")
+    @PreAuthorize("hasAuthority('project:update')")
+    public ResponseEntity<ProjectResponse> publishProject(@PathVariable Long id, Authentication authentication) {
+        String currentUsername = authentication.getName();
+        ProjectResponse publishedProject = projectService.publishProject(id, currentUsername);
+        return ResponseEntity.ok(publishedProject);
+    }
+
     /**
      * Smazání projektu.
      */
@@ -139,8 +286,25 @@ public class ProjectController {
         return ResponseEntity.noContent().build();
     }
 
+    // --- Pomocné metody ---
 
+    private void writeValue(ObjectWriter writer, JsonGenerator generator, ProjectResponse project) {
+        try {
+            writer.writeValue(generator, project);
+        } catch (IOException e) {
+            // Typicky klient zavřel spojení, přeruší to i DB kurzor
+            throw new UncheckedIOException(e);
+        }
+    }
 
-
-
+    /**
+     * Nastaví cache hlavičky a vyhodnotí If-None-Match. Při shodě ETagu už je nastavený
+     * status 304 a handler vrací {@code null}, takže se nenačítá ani neserializuje žádný projekt.
+     */
+    private boolean notModified(WebRequest webRequest, HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, PUBLIC_CACHE.getHeaderValue());
+        // Formát odpovědi závisí na Accept, sdílené cache musí držet varianty zvlášť
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return webRequest.checkNotModified(etag);
+    }
 }
@@ -1,16 +1,27 @@
 package com.kodprodobro.kodprodobro.controllers;
 
+import com.kodprodobro.kodprodobro.dto.PageResponse;
+import com.kodprodobro.kodprodobro.dto.notification.NotificationPreferencesRequest;
+import com.kodprodobro.kodprodobro.dto.notification.NotificationPreferencesResponse;
 import com.kodprodobro.kodprodobro.dto.user.UserResponse;
 import com.kodprodobro.kodprodobro.dto.user.UserUpdateResponse;
 import com.kodprodobro.kodprodobro.mapper.UserMapper;
+import com.kodprodobro.kodprodobro.models.user.NotificationPreferences;
 import com.kodprodobro.kodprodobro.models.user.User;
+import com.kodprodobro.kodprodobro.services.user.UserExportFormat;
+import com.kodprodobro.kodprodobro.services.user.UserExportService;
 import com.kodprodobro.kodprodobro.services.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,8 +30,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.util.Locale;
 
 @Slf4j
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -31,18 +42,48 @@ public class UserController {
 
     private final UserService userService;
     private final UserMapper userMapper;
+    private final UserExportService userExportService;
+
+    private static final int MAX_PAGE_SIZE = 200;
 
     /**
-     * Získání seznamu všech uživatelů.
+     * Stránkovaný seznam uživatelů.
      * Vyžaduje ROLE_ADMIN.
+     *
+     * @param page číslo stránky (od 0)
+     * @param size velikost stránky (max. 200)
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN')")
-    public List<UserResponse> getAllUsers() {
-        log.info("GET /api/user - Získání seznamu všech uživatelů");
-        return userService.findAllUsers().stream()
-                .map(userMapper::toDto)
-                .toList();
+    public PageResponse<UserResponse> getAllUsers(@RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "50") int size) {
+        log.info("GET /api/user - Získání stránky {} seznamu uživatelů", page);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE), Sort.by("id"));
+        return PageResponse.from(userService.findUsers(pageRequest).map(userMapper::toDto));
+    }
+
+    /**
+     * Export všech uživatelů (NDJSON nebo CSV).
+     * Data se streamují z DB kurzoru přímo do odpovědi, takže první bajty odcházejí hned
+     * a paměť nezávisí na počtu uživatelů.
+     * Vyžaduje ROLE_ADMIN.
+     *
+     * @param format ndjson (výchozí) nebo csv
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export users", description = "Streamovaný export všech uživatelů ve formátu NDJSON nebo CSV") // Swagger
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        UserExportFormat exportFormat = UserExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        log.info("GET /api/user/export - Export uživatelů ve formátu {}", exportFormat);
+
+        response.setContentType(exportFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("users." + exportFormat.getFileExtension())
+                .build()
+                .toString());
+        userExportService.export(exportFormat, response.getOutputStream());
     }
 
     /**
@@ -63,6 +104,23 @@ public class UserController {
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    /**
+     * Změna nastavení notifikací přihlášeného uživatele.
+     */
+    @PutMapping("/me/notification-preferences")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Update notification preferences", description = "Změna nastavení notifikací přihlášeného uživatele") // Swagger
+    public ResponseEntity<NotificationPreferencesResponse> updateNotificationPreferences(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody NotificationPreferencesRequest request) {
+        log.info("PUT /api/user/me/notification-preferences - Změna notifikací uživatele: {}", userDetails.getUsername());
+        NotificationPreferences preferences = userService.updateNotificationPreferences(userDetails.getUsername(), request);
+        return ResponseEntity.ok(new NotificationPreferencesResponse(
+                preferences.isNewMessages(),
+                preferences.isProjectUpdates(),
+                preferences.isEmailEnabled()));
+    }
+
     /**
      * Získání uživatele podle ID.
      * Vyžaduje ROLE_ADMIN nebo vlastníka účtu.
@@ -0,0 +1,12 @@
+package com.kodprodobro.kodprodobro.dto.chat;
+
+import java.time.LocalDateTime;
+
+public record ChatMessageResponse(
+        Long id,
+        Long chatId,
+        String senderUsername,
+        String content,
+        LocalDateTime timestamp
+) {
+}
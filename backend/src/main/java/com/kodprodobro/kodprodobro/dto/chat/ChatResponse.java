@@ -0,0 +1,9 @@
+package com.kodprodobro.kodprodobro.dto.chat;
+
+import java.util.List;
+
+public record ChatResponse(
+        Long id,
+        List<String> participants
+) {
+}
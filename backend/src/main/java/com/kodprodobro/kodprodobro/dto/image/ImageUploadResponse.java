@@ -0,0 +1,12 @@
+package com.kodprodobro.kodprodobro.dto.image;
+
+import java.util.Map;
+
+public record ImageUploadResponse(
+        String name,
+        String url,
+        String contentType,
+        long size,
+        Map<String, String> thumbnails
+) {
+}
@@ -1,8 +1,12 @@
 package com.kodprodobro.kodprodobro.dto.message;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
 public record SendMessageRequest(
         String recipientId,
+        @NotBlank(message = "Zpráva nesmí být prázdná")
+        @Size(max = 4000, message = "Zpráva může mít maximálně 4000 znaků")
         String content
 ) {
 }
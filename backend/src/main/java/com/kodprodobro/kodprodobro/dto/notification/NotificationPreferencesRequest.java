@@ -0,0 +1,8 @@
+package com.kodprodobro.kodprodobro.dto.notification;
+
+public record NotificationPreferencesRequest(
+        Boolean newMessages,
+        Boolean projectUpdates,
+        Boolean emailEnabled
+) {
+}
@@ -0,0 +1,8 @@
+package com.kodprodobro.kodprodobro.dto.notification;
+
+public record NotificationPreferencesResponse(
+        boolean newMessages,
+        boolean projectUpdates,
+        boolean emailEnabled
+) {
+}
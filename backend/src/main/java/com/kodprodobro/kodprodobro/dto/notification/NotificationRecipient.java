@@ -0,0 +1,12 @@
+package com.kodprodobro.kodprodobro.dto.notification;
+
+/**
+ * Lehká projekce uživatele pro rozesílání notifikací.
+ * Nenačítá celou entitu User (heslo, role...), takže drží paměť konstantní.
+ */
+public record NotificationRecipient(
+        Long id,
+        String email,
+        boolean emailEnabled
+) {
+}
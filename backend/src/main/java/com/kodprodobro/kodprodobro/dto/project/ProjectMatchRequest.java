@@ -0,0 +1,23 @@
+package com.kodprodobro.kodprodobro.dto.project;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ProjectMatchRequest(
+        @Size(max = 50, message = "Maximálně 50 dovedností")
+        List<String> skills,
+
+        @Size(max = 50, message = "Maximálně 50 zájmů")
+        List<String> interests,
+
+        @Size(max = 2000, message = "Popis může mít maximálně 2000 znaků")
+        String description,
+
+        @Min(value = 1, message = "Limit musí být alespoň 1")
+        @Max(value = 50, message = "Limit může být maximálně 50")
+        Integer limit
+) {
+}
@@ -0,0 +1,12 @@
+package com.kodprodobro.kodprodobro.dto.project;
+
+import java.util.List;
+
+public record ProjectMatchResponse(
+        Long projectId,
+        String title,
+        int matchScore,
+        double score,
+        List<String> matchedTerms
+) {
+}
@@ -0,0 +1,16 @@
+package com.kodprodobro.kodprodobro.event;
+
+/**
+ * Projekt byl vytvořen, upraven, publikován nebo smazán.
+ * Posluchači si aktuální stav načtou sami, událost nese jen ID.
+ */
+public record ProjectChangedEvent(Long projectId, boolean deleted) {
+
+    public static ProjectChangedEvent updated(Long projectId) {
+        return new ProjectChangedEvent(projectId, false);
+    }
+
+    public static ProjectChangedEvent deleted(Long projectId) {
+        return new ProjectChangedEvent(projectId, true);
+    }
+}
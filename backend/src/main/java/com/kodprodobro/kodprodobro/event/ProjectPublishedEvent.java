@@ -0,0 +1,4 @@
+package com.kodprodobro.kodprodobro.event;
+
+public record ProjectPublishedEvent(Long projectId, String title, String ownerUsername) {
+}
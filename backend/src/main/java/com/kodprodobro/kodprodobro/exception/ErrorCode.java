@@ -59,6 +59,10 @@ public enum ErrorCode {
             HttpStatus.BAD_REQUEST,
             "Neplatný argument."),
 
+    CHAT_NOT_FOUND(
+            HttpStatus.NOT_FOUND,
+            "Chat nebyl nalezen."),
+
     RESOURCE_NOT_FOUND(
             HttpStatus.NOT_FOUND,
             "Endpoint nebo zdroj nenalezen."),
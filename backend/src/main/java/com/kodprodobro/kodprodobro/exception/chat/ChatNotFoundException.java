@@ -0,0 +1,7 @@
+package com.kodprodobro.kodprodobro.exception.chat;
+
+public class ChatNotFoundException extends RuntimeException {
+    public ChatNotFoundException(String message) {
+        super(message);
+    }
+}
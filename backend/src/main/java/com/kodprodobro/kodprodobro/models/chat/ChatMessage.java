@@ -15,8 +15,13 @@ import java.time.LocalDateTime;
 @Table(name = "chat_messages")
 public class ChatMessage {
 
+    public static final String ID_SEQUENCE = "chat_messages_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Sekvence místo IDENTITY - ID se dají rezervovat předem a INSERTy posílat v JDBC dávkách
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,6 +39,8 @@ public class ChatMessage {
 
     @PrePersist
     protected void onSend() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
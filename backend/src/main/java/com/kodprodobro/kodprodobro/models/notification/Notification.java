@@ -0,0 +1,50 @@
+package com.kodprodobro.kodprodobro.models.notification;
+
+import com.kodprodobro.kodprodobro.models.user.User;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * In-app notifikace zobrazená uživateli po přihlášení.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "notifications")
+public class Notification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recipient_id", nullable = false)
+    private User recipient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private NotificationType type;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(length = 1000)
+    private String message;
+
+    // ID projektu, ke kterému se notifikace vztahuje (pokud nějaký je)
+    private Long projectId;
+
+    @Column(name = "is_read", nullable = false)
+    private boolean read;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,6 @@
+package com.kodprodobro.kodprodobro.models.notification;
+
+public enum NotificationType {
+    PROJECT_PUBLISHED,
+    NEW_MESSAGE
+}
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class CreateProjectRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "create_project_request_seq")
+    @SequenceGenerator(name = "create_project_request_seq", sequenceName = "projects_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Název projektu je povinný")
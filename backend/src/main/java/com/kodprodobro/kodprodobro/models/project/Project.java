@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 @Table(name = "projects")
 public class Project {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projects_seq")
+    @SequenceGenerator(name = "projects_seq", sequenceName = "projects_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Název projektu je povinný")
@@ -39,13 +40,27 @@ public class Project {
 
     private boolean published;
 
+    // Optimistický zámek a zároveň ETag detailu projektu
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private long version;
+
     private String repositoryUrl;
 
     private LocalDateTime createdAt;
 
+    // Pro dohnání změn matching indexu po startu ze snapshotu
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 
 }
@@ -0,0 +1,25 @@
+package com.kodprodobro.kodprodobro.models.project;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Verze celého katalogu publikovaných projektů (jediný řádek).
+ * Zvyšuje se v každé transakci, která mění projekty, a slouží jako ETag pro seznamy projektů.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "project_catalog_version")
+public class ProjectCatalogVersion {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -14,7 +14,8 @@ import java.time.Instant;
 @Table(name = "blacklisted_tokens")
 public class BlacklistedToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blacklisted_tokens_seq")
+    @SequenceGenerator(name = "blacklisted_tokens_seq", sequenceName = "blacklisted_tokens_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 512)
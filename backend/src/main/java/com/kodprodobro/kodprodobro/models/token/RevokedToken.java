@@ -14,7 +14,8 @@ import java.time.Instant;
 public class RevokedToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_token_seq")
+    @SequenceGenerator(name = "revoked_token_seq", sequenceName = "revoked_token_seq", allocationSize = 50)
     private Long id;
 
     @Column
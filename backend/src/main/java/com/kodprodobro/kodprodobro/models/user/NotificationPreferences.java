@@ -0,0 +1,29 @@
+package com.kodprodobro.kodprodobro.models.user;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Nastavení notifikací uživatele (odpovídá NotificationSettingsModal na frontendu).
+ * Výchozí hodnoty jsou zapnuté, aby nový uživatel dostával upozornění.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class NotificationPreferences {
+
+    @Column(name = "notify_new_messages", nullable = false, columnDefinition = "boolean default true")
+    private boolean newMessages = true;
+
+    @Column(name = "notify_project_updates", nullable = false, columnDefinition = "boolean default true")
+    private boolean projectUpdates = true;
+
+    @Column(name = "notify_by_email", nullable = false, columnDefinition = "boolean default true")
+    private boolean emailEnabled = true;
+}
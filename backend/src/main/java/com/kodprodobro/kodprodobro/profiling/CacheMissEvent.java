@@ -0,0 +1,25 @@
+package com.kodprodobro.kodprodobro.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Postavení hodnoty cache - synchronně na požadavku ({@code request}) nebo přestavbou po změně ({@code invalidation}).
+ */
+@Name("kodprodobro.CacheMiss")
+@Label("Cache miss")
+@Description("Postavení hodnoty, která v cache nebyla nebo byla zastaralá")
+@Category({"KodProDobro", "Cache"})
+@StackTrace(false)
+public class CacheMissEvent extends Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Spouštěč")
+    public String trigger;
+}
@@ -0,0 +1,45 @@
+package com.kodprodobro.kodprodobro.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * SQL dotaz podle tvaru (viz {@code SqlMetricsListener}).
+ * <p>
+ * Doba dotazu je v poli {@link #queryTime} - listener se o dotazu dozví až po jeho dokončení.
+ * Stack trace ukáže, odkud v aplikaci dotaz přišel.
+ */
+@Name("kodprodobro.DbQuery")
+@Label("SQL dotaz")
+@Description("SQL dotaz podle tvaru, bez hodnot parametrů")
+@Category({"KodProDobro", "Database"})
+@StackTrace(true)
+public class DbQueryEvent extends Event {
+
+    @Label("Tvar")
+    public String shape;
+
+    @Label("Operace")
+    public String operation;
+
+    @Label("Tabulka")
+    public String table;
+
+    @Label("Datasource")
+    public String dataSource;
+
+    @Label("Úspěch")
+    public boolean success;
+
+    @Label("Doba dotazu")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queryTime;
+
+    @Label("SQL")
+    public String sql;
+}
@@ -0,0 +1,208 @@
+package com.kodprodobro.kodprodobro.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nahrávání Java Flight Recorderu na běžící instanci, bez restartu a bez připojení agenta.
+ * <ul>
+ *     <li>{@code POST /actuator/jfr} - spustí nahrávání ({@code settings}: {@code default}/{@code profile}, {@code duration})</li>
+ *     <li>{@code GET /actuator/jfr} - seznam nahrávání</li>
+ *     <li>{@code POST /actuator/jfr/{id}} - zastaví nahrávání</li>
+ *     <li>{@code GET /actuator/jfr/{id}} - stáhne {@code .jfr} (u běžícího nahrávání aktuální snapshot)</li>
+ *     <li>{@code DELETE /actuator/jfr/{id}} - zahodí nahrávání i soubor</li>
+ * </ul>
+ * Kromě událostí JDK nahrává i vlastní události aplikace (ověření JWT, SQL dotazy, cache miss, BCrypt).
+ * Běží nejvýš jedno nahrávání a jeho délka i velikost jsou omezené ({@code app.jfr.*}), aby profilování
+ * produkce nemohlo zaplnit disk. Přístup má jen ADMIN ({@code SecurityConfig}).
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint implements DisposableBean {
+
+    static final List<Class<? extends Event>> APPLICATION_EVENTS = List.of(
+            JwtVerificationEvent.class, PasswordHashEvent.class, DbQueryEvent.class, CacheMissEvent.class);
+
+    /**
+     * Kolik zastavených nahrávání se drží ke stažení, starší se zavírají.
+     */
+    private static final int RETAINED_RECORDINGS = 3;
+
+    /**
+     * Stav nahrávání pro výpis.
+     */
+    public record RecordingInfo(long id, String name, String state, String settings, Instant startTime,
+                                Duration duration, long sizeBytes) {
+
+        static RecordingInfo of(Tracked tracked) {
+            Recording recording = tracked.recording();
+            return new RecordingInfo(recording.getId(), recording.getName(), recording.getState().name(),
+                    tracked.settings(), recording.getStartTime(), recording.getDuration(), recording.getSize());
+        }
+    }
+
+    /**
+     * @param dumps stažené soubory nahrávání, smažou se s ním
+     */
+    private record Tracked(Recording recording, String settings, Set<Path> dumps) {
+    }
+
+    private final Map<Long, Tracked> recordings = new ConcurrentHashMap<>();
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final Path dumpDirectory;
+
+    public JfrRecordingEndpoint(
+            @Value("${app.jfr.default-duration:PT5M}") Duration defaultDuration,
+            @Value("${app.jfr.max-duration:PT30M}") Duration maxDuration,
+            @Value("${app.jfr.max-size:200MB}") DataSize maxSize,
+            @Value("${app.jfr.dump-directory:${java.io.tmpdir}}") Path dumpDirectory) {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    @ReadOperation
+    public List<RecordingInfo> recordings() {
+        return recordings.values().stream()
+                .sorted(Comparator.comparingLong(tracked -> tracked.recording().getId()))
+                .map(RecordingInfo::of)
+                .toList();
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingInfo> start(@Nullable String settings, @Nullable Duration duration) {
+        if (!FlightRecorder.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        if (recordings.values().stream().anyMatch(tracked -> tracked.recording().getState() == RecordingState.RUNNING)) {
+            return new WebEndpointResponse<>(409);
+        }
+        String settingsName = settings != null ? settings : "profile";
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Duration requested = duration != null ? duration : defaultDuration;
+        Duration limited = requested.compareTo(maxDuration) > 0 ? maxDuration : requested;
+
+        closeOldRecordings();
+        Recording recording = new Recording(configuration);
+        recording.setName("kodprodobro-" + Instant.now().getEpochSecond());
+        recording.setDuration(limited);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.setToDisk(true);
+        APPLICATION_EVENTS.forEach(recording::enable);
+        recording.start();
+        Tracked tracked = new Tracked(recording, settingsName, ConcurrentHashMap.newKeySet());
+        recordings.put(recording.getId(), tracked);
+        log.info("JFR nahrávání {} spuštěno (nastavení {}, délka {})", recording.getId(), settingsName, limited);
+        return new WebEndpointResponse<>(RecordingInfo.of(tracked));
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<RecordingInfo> stop(@Selector long id) {
+        Tracked tracked = recordings.get(id);
+        if (tracked == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Recording recording = tracked.recording();
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("JFR nahrávání {} zastaveno ({} B)", id, recording.getSize());
+        }
+        return new WebEndpointResponse<>(RecordingInfo.of(tracked));
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        Tracked tracked = recordings.get(id);
+        if (tracked == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        // Každé stažení do vlastního souboru, souběžné požadavky si ho nepřepíšou
+        Path file;
+        try {
+            Files.createDirectories(dumpDirectory);
+            file = Files.createTempFile(dumpDirectory, "kodprodobro-" + id + "-", ".jfr");
+            tracked.dumps().add(file);
+            tracked.recording().dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Zápis JFR nahrávání " + id + " selhal", e);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> close(@Selector long id) {
+        Tracked tracked = recordings.remove(id);
+        if (tracked == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        close(tracked);
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+    @Override
+    public void destroy() {
+        recordings.values().forEach(this::close);
+        recordings.clear();
+    }
+
+    private void closeOldRecordings() {
+        List<Tracked> stopped = recordings.values().stream()
+                .filter(tracked -> tracked.recording().getState() != RecordingState.RUNNING)
+                .sorted(Comparator.comparingLong(tracked -> tracked.recording().getId()))
+                .toList();
+        for (int i = 0; i < stopped.size() - RETAINED_RECORDINGS; i++) {
+            recordings.remove(stopped.get(i).recording().getId());
+            close(stopped.get(i));
+        }
+    }
+
+    private void close(Tracked tracked) {
+        tracked.recording().close();
+        for (Path dump : tracked.dumps()) {
+            try {
+                Files.deleteIfExists(dump);
+            } catch (IOException e) {
+                log.warn("Soubor JFR nahrávání {} se nepodařilo smazat: {}", tracked.recording().getId(), e.getMessage());
+            }
+        }
+    }
+}
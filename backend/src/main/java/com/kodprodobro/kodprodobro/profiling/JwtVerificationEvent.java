@@ -0,0 +1,25 @@
+package com.kodprodobro.kodprodobro.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Ověření JWT - v resource serveru u každého autentizovaného požadavku, v {@code JwtService} při refresh/logout.
+ */
+@Name("kodprodobro.JwtVerification")
+@Label("Ověření JWT")
+@Description("Ověření podpisu a platnosti JWT")
+@Category({"KodProDobro", "Security"})
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Operace")
+    public String operation;
+
+    @Label("Platný")
+    public boolean valid;
+}
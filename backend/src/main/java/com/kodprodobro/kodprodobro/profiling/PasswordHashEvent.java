@@ -0,0 +1,25 @@
+package com.kodprodobro.kodprodobro.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Hashování nebo ověření hesla BCryptem.
+ */
+@Name("kodprodobro.PasswordHash")
+@Label("BCrypt")
+@Description("Hashování nebo ověření hesla")
+@Category({"KodProDobro", "Security"})
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operace")
+    public String operation;
+
+    @Label("Výsledek")
+    public String outcome;
+}
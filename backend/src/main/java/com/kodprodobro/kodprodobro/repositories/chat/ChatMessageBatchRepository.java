@@ -0,0 +1,60 @@
+package com.kodprodobro.kodprodobro.repositories.chat;
+
+import com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse;
+import com.kodprodobro.kodprodobro.models.chat.ChatMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Dávkový JDBC zápis zpráv chatu mimo Hibernate.
+ * <p>
+ * ID se rezervují po blocích ze sekvence {@value ChatMessage#ID_SEQUENCE} se stejnou sémantikou
+ * jako optimizer pooled-lo: {@code nextval} vrací první ID bloku o velikosti
+ * {@value ChatMessage#ID_ALLOCATION_SIZE}. Zápis přes JPA a přes tuto třídu se tak nikdy nepřekryje.
+ */
+@Repository
+public class ChatMessageBatchRepository {
+
+    private static final String INSERT_SQL =
+            "insert into chat_messages (id, chat_id, sender_id, content, timestamp) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChatMessageBatchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Rezervuje další blok ID.
+     *
+     * @return první ID bloku
+     */
+    public long nextIdBlock() {
+        Long first = jdbcTemplate.queryForObject("select nextval('" + ChatMessage.ID_SEQUENCE + "')", Long.class);
+        if (first == null) {
+            throw new IllegalStateException("Sekvence " + ChatMessage.ID_SEQUENCE + " nevrátila hodnotu");
+        }
+        return first;
+    }
+
+    /**
+     * Vloží zprávy jedním dávkovým příkazem. Volá se uvnitř transakce.
+     */
+    public void insertBatch(List<PendingRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ChatMessageResponse message = row.message();
+            ps.setLong(1, message.id());
+            ps.setLong(2, message.chatId());
+            ps.setLong(3, row.senderId());
+            ps.setString(4, message.content());
+            ps.setTimestamp(5, Timestamp.valueOf(message.timestamp()));
+        });
+    }
+
+    public record PendingRow(ChatMessageResponse message, long senderId) {
+    }
+}
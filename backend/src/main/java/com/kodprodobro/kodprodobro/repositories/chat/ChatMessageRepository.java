@@ -1,12 +1,26 @@
 package com.kodprodobro.kodprodobro.repositories.chat;
 
+import com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse;
 import com.kodprodobro.kodprodobro.models.chat.ChatMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    List<ChatMessage> findByChatId(Long chatId);
+
+    /**
+     * Zprávy chatu rovnou jako DTO, odesílatel se připojí v témže dotazu.
+     */
+    @Query("""
+            select new com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse(
+                m.id, m.chat.id, s.username, m.content, m.timestamp)
+            from ChatMessage m join m.sender s
+            where m.chat.id = :chatId
+            order by m.timestamp, m.id
+            """)
+    List<ChatMessageResponse> findResponsesByChatId(@Param("chatId") Long chatId);
 }
@@ -2,8 +2,45 @@ package com.kodprodobro.kodprodobro.repositories.chat;
 
 import com.kodprodobro.kodprodobro.models.chat.Chat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ChatRepository extends JpaRepository<Chat, Long> {
+
+    /**
+     * Ověří členství uživatele v chatu jedním EXISTS nad {@code chat_participants}.
+     */
+    @Query(value = """
+            select exists (
+                select 1 from chat_participants cp
+                join users u on u.id = cp.user_id
+                where cp.chat_id = :chatId and u.username = :username)
+            """, nativeQuery = true)
+    boolean isParticipant(@Param("chatId") Long chatId, @Param("username") String username);
+
+    /**
+     * Vrátí ID uživatele, pokud je účastníkem chatu. Ověření členství a dohledání odesílatele
+     * zvládne jeden dotaz, celý {@code User} ani {@code Chat} se nenačítá.
+     */
+    @Query(value = """
+            select cp.user_id from chat_participants cp
+            join users u on u.id = cp.user_id
+            where cp.chat_id = :chatId and u.username = :username
+            """, nativeQuery = true)
+    Optional<Long> findParticipantId(@Param("chatId") Long chatId, @Param("username") String username);
+
+    /**
+     * Chaty uživatele jako dvojice [ID chatu, uživatelské jméno účastníka], seřazené podle ID chatu.
+     */
+    @Query("""
+            select c.id, p.username from Chat c join c.participants p
+            where c.id in (select mc.id from Chat mc join mc.participants me where me.username = :username)
+            order by c.id, p.username
+            """)
+    List<Object[]> findChatParticipantsByUsername(@Param("username") String username);
 }
@@ -0,0 +1,9 @@
+package com.kodprodobro.kodprodobro.repositories.notification;
+
+import com.kodprodobro.kodprodobro.models.notification.Notification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+}
@@ -0,0 +1,26 @@
+package com.kodprodobro.kodprodobro.repositories.project;
+
+import com.kodprodobro.kodprodobro.models.project.ProjectCatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProjectCatalogVersionRepository extends JpaRepository<ProjectCatalogVersion, Long> {
+
+    @Query("select c.version from ProjectCatalogVersion c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Atomický inkrement přímo v DB, bez načtení entity. Chybějící řádek se založí ve stejném příkazu,
+    // dva souběžní první zapisovatelé tak nenarazí na primární klíč.
+    @Modifying
+    @Query(value = """
+            insert into project_catalog_version (id, version) values (:id, 1)
+            on conflict (id) do update set version = project_catalog_version.version + 1
+            """, nativeQuery = true)
+    int increment(@Param("id") Long id);
+}
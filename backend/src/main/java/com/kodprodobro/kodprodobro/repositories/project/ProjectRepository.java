@@ -2,15 +2,41 @@ package com.kodprodobro.kodprodobro.repositories.project;
 
 
 import com.kodprodobro.kodprodobro.models.project.Project;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
 
     List<Project> findByPublishedTrue();
 
+    // Kurzor po dávkách místo načtení celého výsledku do paměti, používat v transakci
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Project p join fetch p.owner where p.published = true order by p.id")
+    Stream<Project> streamPublishedWithOwner();
+
     List<Project> findByTitleContainingIgnoreCaseAndPublishedTrue(String title);
+
+    // Vlastník se načte stejným dotazem, mapování na DTO pak nedělá N+1 dotazy
+    @EntityGraph(attributePaths = "owner")
+    List<Project> findTop10ByPublishedTrueOrderByCreatedAtDesc();
+
+    List<Project> findByPublishedTrueAndUpdatedAtAfter(LocalDateTime since);
+
+    @Query("select p.id from Project p where p.published = true")
+    List<Long> findPublishedIds();
+
+    @Query("select p.version from Project p where p.id = :id and p.published = true")
+    Optional<Long> findPublishedVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,50 @@
+package com.kodprodobro.kodprodobro.repositories.user;
+
+import com.kodprodobro.kodprodobro.dto.user.UserResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.stream.Stream;
+
+/**
+ * Čtení uživatelů pro export přes dopředný JDBC kurzor.
+ * <p>
+ * PostgreSQL driver načítá po {@code fetchSize} řádcích jen uvnitř transakce (autocommit off),
+ * proto se musí volat z {@code @Transactional} metody a stream se musí zavřít.
+ * Role se skládají korelovaným poddotazem, aby první řádky odcházely hned
+ * bez agregace celé tabulky.
+ */
+@Repository
+public class UserExportRepository {
+
+    private static final String EXPORT_SQL = """
+            select u.id, u.username, u.email,
+                   (select string_agg(r.roles, ',' order by r.roles) from user_roles r where r.user_id = u.id) as roles
+            from users u
+            order by u.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserExportRepository(DataSource dataSource,
+                                @Value("${app.users.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Stream všech uživatelů seřazených podle ID. Heslo se nikdy neexportuje.
+     *
+     * @return stream, který je nutné zavřít (try-with-resources)
+     */
+    public Stream<UserResponse> streamAll() {
+        return jdbcTemplate.queryForStream(EXPORT_SQL, (rs, rowNum) -> new UserResponse(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email"),
+                null,
+                rs.getString("roles")));
+    }
+}
@@ -1,9 +1,16 @@
 package com.kodprodobro.kodprodobro.repositories.user;
 
+import com.kodprodobro.kodprodobro.dto.notification.NotificationRecipient;
+import com.kodprodobro.kodprodobro.models.enums.Role;
 import com.kodprodobro.kodprodobro.models.user.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -33,4 +40,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsernameAndIdNot(String username, Long id);
 
     boolean existsByEmailAndIdNot(String email, Long id);
+
+    /**
+     * Keyset stránkování příjemců oznámení o projektech.
+     * Vrací jen uživatele s danou rolí a zapnutými notifikacemi o projektech,
+     * seřazené podle ID a začínající za {@code afterId} (bez OFFSET, takže každá stránka stojí stejně).
+     *
+     * @param roles   role, které mají notifikaci dostat
+     * @param afterId ID posledního zpracovaného uživatele (0 pro první stránku)
+     * @param limit   velikost stránky
+     * @return projekce příjemců
+     */
+    @Query("""
+            select new com.kodprodobro.kodprodobro.dto.notification.NotificationRecipient(
+                u.id, u.email, u.notificationPreferences.emailEnabled)
+            from User u
+            where u.id > :afterId
+              and u.notificationPreferences.projectUpdates = true
+              and exists (select 1 from User ur join ur.roles r where ur.id = u.id and r in :roles)
+            order by u.id asc
+            """)
+    List<NotificationRecipient> findProjectUpdateRecipientsAfter(@Param("roles") Collection<Role> roles,
+                                                                 @Param("afterId") Long afterId,
+                                                                 Limit limit);
 }
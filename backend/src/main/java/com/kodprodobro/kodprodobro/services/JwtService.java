@@ -1,17 +1,22 @@
 package com.kodprodobro.kodprodobro.services;
 
+import com.kodprodobro.kodprodobro.config.TimedJwtDecoder;
 import com.kodprodobro.kodprodobro.models.token.BlacklistedToken;
+import com.kodprodobro.kodprodobro.profiling.JwtVerificationEvent;
 import com.kodprodobro.kodprodobro.repositories.token.BlacklistedTokenRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
@@ -26,12 +31,16 @@ public class JwtService {
 
     private final BlacklistedTokenRepository blacklistedTokenRepository;
 
+    private final Timer issueTimer;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
 
     public JwtService(
             @Value("${jwt.secret}") String secretKey,
             @Value("${jwt.access-token-expiration-ms:900000}") long accessTokenExpirationMillis, // default 15 min
             @Value("${jwt.refresh-token-expiration-ms:604800000}") long refreshTokenExpirationMillis, // default 7 days
-            BlacklistedTokenRepository blacklistedTokenRepository
+            BlacklistedTokenRepository blacklistedTokenRepository,
+            MeterRegistry meterRegistry
     ) {
         if (secretKey == null || secretKey.isBlank() || secretKey.length() < 32) {
             throw new IllegalArgumentException("JWT secret must be at least 32 characters");
@@ -40,6 +49,9 @@ public class JwtService {
         this.accessTokenExpirationMillis = accessTokenExpirationMillis;
         this.refreshTokenExpirationMillis = refreshTokenExpirationMillis;
         this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.issueTimer = TimedJwtDecoder.timer(meterRegistry, "issue", "success");
+        this.validTimer = TimedJwtDecoder.timer(meterRegistry, "validate", "success");
+        this.invalidTimer = TimedJwtDecoder.timer(meterRegistry, "validate", "invalid");
     }
 
     // -------- Generování tokenu --------
@@ -52,19 +64,36 @@ public class JwtService {
     }
     // Společná metoda pro generování tokenu
     private String generateToken(String username, long expirationMillis) {
-        long now = System.currentTimeMillis();
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date(now))
-                .setExpiration(new Date(now + expirationMillis))
-                .signWith(signingKey)
-                .compact();
+        return issueTimer.record(() -> {
+            long now = System.currentTimeMillis();
+            return Jwts.builder()
+                    .setSubject(username)
+                    .setIssuedAt(new Date(now))
+                    .setExpiration(new Date(now + expirationMillis))
+                    .signWith(signingKey)
+                    .compact();
+        });
     }
 
     // -------- Parsování a validace --------
     public boolean validateToken(String Token, String username){
-        final String tokenUsername = extractUsername(Token);
-        return (tokenUsername.equals(username) && !isTokenExpired(Token));
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean valid = false;
+        try {
+            final String tokenUsername = extractUsername(Token);
+            valid = tokenUsername.equals(username) && !isTokenExpired(Token);
+            return valid;
+        } finally {
+            (valid ? validTimer : invalidTimer).record(Duration.ofNanos(System.nanoTime() - start));
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "validate";
+                event.valid = valid;
+                event.commit();
+            }
+        }
     }
 
     private boolean isTokenExpired(String token){
@@ -0,0 +1,331 @@
+package com.kodprodobro.kodprodobro.services.chat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse;
+import com.kodprodobro.kodprodobro.models.chat.ChatMessage;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageBatchRepository;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageBatchRepository.PendingRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Write-behind zápis zpráv chatu.
+ * <p>
+ * Zpráva dostane ID z předem rezervovaného bloku sekvence, zařadí se do fronty a do čekajících
+ * zpráv svého chatu (čtení je tak vidí hned). Jediné zapisovací vlákno ukládá frontu po dávkách
+ * jedním JDBC batch INSERTem v jedné transakci. Pořadí zápisu odpovídá pořadí ve frontě.
+ * <p>
+ * S {@code flush-before-ack=true} (výchozí) čeká odeslání na commit dávky se svou zprávou -
+ * souběžné zprávy se ukládají společně (group commit), ale potvrzená zpráva je vždy v DB.
+ * S {@code false} se potvrzuje hned po zařazení a zprávy ve frontě se při pádu procesu ztratí.
+ * <p>
+ * Když potvrzení nedorazí do {@code ack-timeout}, zpráva zůstává ve frontě a odesílatel dostane
+ * {@link Appended#stored()} {@code false}. Opakované odeslání se stejným idempotentním klíčem
+ * (po dobu {@code idempotency-ttl}) vrátí původní zprávu místo uložení další kopie.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriteBuffer {
+
+    private final ChatMessageBatchRepository batchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final boolean flushBeforeAck;
+    private final int maxBatch;
+    private final Duration ackTimeout;
+    private final Cache<String, Pending> recentByIdempotencyKey;
+    private final Cache<Long, Boolean> recentlyWrittenChats;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentMap<Long, ConcurrentLinkedQueue<ChatMessageResponse>> pendingByChat = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // --- Blok rezervovaných ID, chráněno zámkem instance ---
+    private long nextId;
+    private long idBlockEnd;
+
+    // --- Metriky ---
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedCounter;
+
+    private static final int MAX_IDEMPOTENCY_KEYS = 100_000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    private static final int MAX_RECENT_CHATS = 100_000;
+
+    private record Pending(PendingRow row, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * Přijatá zpráva. {@code stored} říká, jestli je potvrzeně v DB, nebo zatím jen ve frontě.
+     */
+    public record Appended(ChatMessageResponse message, boolean stored) {
+    }
+
+    public ChatMessageWriteBuffer(
+            ChatMessageBatchRepository batchRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.chat.write-behind.enabled:true}") boolean enabled,
+            @Value("${app.chat.write-behind.flush-before-ack:true}") boolean flushBeforeAck,
+            @Value("${app.chat.write-behind.max-batch:500}") int maxBatch,
+            @Value("${app.chat.write-behind.ack-timeout:PT5S}") Duration ackTimeout,
+            @Value("${app.chat.write-behind.idempotency-ttl:PT10M}") Duration idempotencyTtl,
+            @Value("${app.datasource.replica.read-your-writes-window:PT5S}") Duration readYourWritesWindow) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Velikost dávky zpráv musí být kladná");
+        }
+        this.batchRepository = batchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.flushBeforeAck = flushBeforeAck;
+        this.maxBatch = maxBatch;
+        this.ackTimeout = ackTimeout;
+        this.recentByIdempotencyKey = Caffeine.newBuilder()
+                .expireAfterWrite(idempotencyTtl)
+                .maximumSize(MAX_IDEMPOTENCY_KEYS)
+                .build();
+        this.recentlyWrittenChats = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(MAX_RECENT_CHATS)
+                .build();
+        this.writer = new Thread(this::runWriter, "chat-message-writer");
+        this.writer.setDaemon(true);
+
+        Gauge.builder("chat.messages.buffer.pending", queue, BlockingQueue::size)
+                .description("Zprávy chatu čekající na zápis do DB")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.messages.flush.duration")
+                .description("Doba zápisu jedné dávky zpráv chatu")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("chat.messages.flush.batch.size")
+                .description("Počet zpráv v jedné dávce")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.messages.flush.failed")
+                .description("Zprávy chatu, které se nepodařilo uložit")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    /**
+     * Zastaví příjem zpráv a počká, až zapisovací vlákno uloží zbytek fronty.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (enabled) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!queue.isEmpty()) {
+            log.error("Při vypnutí zůstalo neuloženo {} zpráv chatu", queue.size());
+        }
+    }
+
+    /**
+     * Přijme zprávu k uložení. Účast odesílatele v chatu musí být ověřená předem.
+     *
+     * @param idempotencyKey klíč od klienta pro bezpečné opakování odeslání, může být {@code null}
+     * @return zpráva s definitivním ID a časem odeslání; při opakování se stejným klíčem původní zpráva
+     */
+    public Appended append(long chatId, long senderId, String senderUsername, String content, String idempotencyKey) {
+        if (!running) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server se vypíná, zprávu nelze přijmout.");
+        }
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotentní klíč je příliš dlouhý.");
+        }
+        ChatMessageResponse message = new ChatMessageResponse(nextId(), chatId, senderUsername, content, LocalDateTime.now());
+        Pending pending = new Pending(new PendingRow(message, senderId), new CompletableFuture<>());
+
+        if (idempotencyKey != null) {
+            // Neúspěšný pokus se smí zopakovat, přijatý nebo uložený se jen znovu potvrdí
+            Pending original = recentByIdempotencyKey.asMap().merge(chatId + ":" + senderId + ":" + idempotencyKey, pending,
+                    (existing, fresh) -> existing.written().isCompletedExceptionally() ? fresh : existing);
+            if (original != pending) {
+                log.debug("Opakované odeslání zprávy {} do chatu {}, vracím původní", original.row().message().id(), chatId);
+                return acknowledge(original);
+            }
+        }
+
+        if (!enabled) {
+            // Bez write-behind se zpráva uloží hned ve vlákně požadavku
+            flush(List.of(pending));
+            return acknowledge(pending);
+        }
+        pendingByChat.compute(chatId, (id, messages) -> {
+            ConcurrentLinkedQueue<ChatMessageResponse> result = messages != null ? messages : new ConcurrentLinkedQueue<>();
+            result.add(message);
+            return result;
+        });
+        queue.add(pending);
+        return acknowledge(pending);
+    }
+
+    /**
+     * Zprávy chatu přijaté, ale ještě neuložené. Mohou se překrývat s tím, co už je v DB.
+     */
+    public List<ChatMessageResponse> pendingMessages(long chatId) {
+        ConcurrentLinkedQueue<ChatMessageResponse> messages = pendingByChat.get(chatId);
+        return messages != null ? List.copyOf(messages) : List.of();
+    }
+
+    /**
+     * Uložila se do chatu v posledním okně read-your-writes nějaká zpráva? Takové zprávy už nejsou mezi čekajícími
+     * a replika je ještě nemusí mít.
+     */
+    public boolean recentlyWritten(long chatId) {
+        return recentlyWrittenChats.getIfPresent(chatId) != null;
+    }
+
+    private synchronized long nextId() {
+        if (nextId >= idBlockEnd) {
+            nextId = batchRepository.nextIdBlock();
+            idBlockEnd = nextId + ChatMessage.ID_ALLOCATION_SIZE;
+        }
+        return nextId++;
+    }
+
+    private Appended acknowledge(Pending pending) {
+        ChatMessageResponse message = pending.row().message();
+        if (enabled && !flushBeforeAck) {
+            return new Appended(message, pending.written().isDone() && !pending.written().isCompletedExceptionally());
+        }
+        return new Appended(message, await(pending));
+    }
+
+    /**
+     * @return {@code false}, pokud zápis nedoběhl včas - zpráva je pořád ve frontě a ještě se uloží
+     */
+    private boolean await(Pending pending) {
+        try {
+            pending.written().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Uložení zprávy bylo přerušeno.");
+        } catch (TimeoutException e) {
+            log.warn("Zpráva {} do chatu {} čeká na zápis déle než {}", pending.row().message().id(),
+                    pending.row().message().chatId(), ackTimeout);
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // --- Zapisovací vlákno ---
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Vlákno musí přežít cokoliv, jinak by se fronta už nikdy neuložila
+                log.error("Neočekávaná chyba zápisu zpráv chatu: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        Map<Pending, RuntimeException> failures = new HashMap<>();
+        try {
+            insert(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failures.put(batch.get(0), e);
+            } else {
+                // Jedna vadná zpráva (např. mezitím smazaný chat) nesmí shodit celou dávku
+                log.warn("Dávka {} zpráv chatu selhala ({}), ukládám jednotlivě", batch.size(), e.getMessage());
+                for (Pending pending : batch) {
+                    try {
+                        insert(List.of(pending));
+                    } catch (RuntimeException single) {
+                        failures.put(pending, single);
+                    }
+                }
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+
+        // Chat se označí dřív, než zprávy zmizí z čekajících - čtení je najde vždy aspoň na jednom místě
+        for (Pending pending : batch) {
+            if (!failures.containsKey(pending)) {
+                recentlyWrittenChats.put(pending.row().message().chatId(), Boolean.TRUE);
+            }
+        }
+        // Nejdřív pryč z čekajících, pak potvrdit - potvrzená zpráva už je jen v DB
+        batch.forEach(this::removePending);
+        for (Pending pending : batch) {
+            RuntimeException failure = failures.get(pending);
+            if (failure == null) {
+                pending.written().complete(null);
+            } else {
+                fail(pending, failure);
+            }
+        }
+    }
+
+    private void insert(List<Pending> batch) {
+        List<PendingRow> rows = batch.stream().map(Pending::row).toList();
+        transactionTemplate.executeWithoutResult(status -> batchRepository.insertBatch(rows));
+    }
+
+    private void fail(Pending pending, RuntimeException e) {
+        failedCounter.increment();
+        log.error("Zprávu {} do chatu {} se nepodařilo uložit: {}",
+                pending.row().message().id(), pending.row().message().chatId(), e.getMessage());
+        pending.written().completeExceptionally(e);
+    }
+
+    private void removePending(Pending pending) {
+        ChatMessageResponse message = pending.row().message();
+        pendingByChat.computeIfPresent(message.chatId(), (id, messages) -> {
+            messages.remove(message);
+            return messages.isEmpty() ? null : messages;
+        });
+    }
+}
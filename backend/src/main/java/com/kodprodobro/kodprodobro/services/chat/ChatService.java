@@ -0,0 +1,106 @@
+package com.kodprodobro.kodprodobro.services.chat;
+
+import com.kodprodobro.kodprodobro.config.PrimaryReads;
+import com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse;
+import com.kodprodobro.kodprodobro.dto.chat.ChatResponse;
+import com.kodprodobro.kodprodobro.exception.chat.ChatNotFoundException;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageRepository;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Chaty a zprávy s kontrolou, že uživatel je účastníkem chatu.
+ * <p>
+ * Členství se ověřuje jedním dotazem nad {@code chat_participants}, ukládání zpráv obstarává
+ * {@link ChatMessageWriteBuffer} po dávkách. Odeslání proto nedrží transakci ani spojení,
+ * zatímco čeká na zápis dávky - za předpokladu, že je vypnuté open-session-in-view
+ * ({@code spring.jpa.open-in-view=false}, výchozí podle {@code ApplicationDefaults}). Jinak by vlákno požadavku
+ * drželo spojení z ověření členství a zapisovací vlákno by na malém poolu nemělo čím dávku uložit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatService {
+
+    private static final Comparator<ChatMessageResponse> MESSAGE_ORDER =
+            Comparator.comparing(ChatMessageResponse::timestamp).thenComparing(ChatMessageResponse::id);
+
+    private final ChatRepository chatRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriteBuffer writeBuffer;
+
+    /**
+     * Chaty, kterých je uživatel účastníkem.
+     */
+    @Transactional(readOnly = true)
+    public List<ChatResponse> getUserChats(String username) {
+        Map<Long, List<String>> participantsByChat = new LinkedHashMap<>();
+        for (Object[] row : chatRepository.findChatParticipantsByUsername(username)) {
+            participantsByChat.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return participantsByChat.entrySet().stream()
+                .map(entry -> new ChatResponse(entry.getKey(), List.copyOf(entry.getValue())))
+                .toList();
+    }
+
+    /**
+     * Zprávy chatu pro jeho účastníka včetně přijatých, ale ještě neuložených.
+     *
+     * @throws ChatNotFoundException chat neexistuje
+     * @throws AccessDeniedException uživatel není účastníkem chatu
+     */
+    @Transactional(readOnly = true)
+    public List<ChatMessageResponse> getMessages(Long chatId, String username) {
+        // Čekající zprávy se čtou před DB: zpráva uložená mezi oběma čteními je pak v obou seznamech, nikdy v žádném
+        List<ChatMessageResponse> pending = writeBuffer.pendingMessages(chatId);
+        // Zapisovací vlákno nemá uživatele pro read-your-writes. Čerstvě uložené zprávy už nejsou mezi čekajícími
+        // a replika je ještě nemusí mít, čtení se proto připne na primární DB (před prvním SQL transakce).
+        if (writeBuffer.recentlyWritten(chatId)) {
+            PrimaryReads.pinCurrentTransaction();
+        }
+        if (!chatRepository.isParticipant(chatId, username)) {
+            throw membershipFailure(chatId, username);
+        }
+        List<ChatMessageResponse> stored = chatMessageRepository.findResponsesByChatId(chatId);
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        Map<Long, ChatMessageResponse> merged = new LinkedHashMap<>();
+        stored.forEach(message -> merged.put(message.id(), message));
+        pending.forEach(message -> merged.putIfAbsent(message.id(), message));
+        return merged.values().stream()
+                .sorted(MESSAGE_ORDER)
+                .toList();
+    }
+
+    /**
+     * Uloží zprávu odeslanou účastníkem chatu.
+     *
+     * @param idempotencyKey klíč od klienta, se kterým opakované odeslání nevytvoří duplicitní zprávu; může být {@code null}
+     * @throws ChatNotFoundException chat neexistuje
+     * @throws AccessDeniedException uživatel není účastníkem chatu
+     */
+    public ChatMessageWriteBuffer.Appended sendMessage(Long chatId, String username, String content, String idempotencyKey) {
+        Long senderId = chatRepository.findParticipantId(chatId, username)
+                .orElseThrow(() -> membershipFailure(chatId, username));
+        return writeBuffer.append(chatId, senderId, username, content, idempotencyKey);
+    }
+
+    /**
+     * Rozliší neexistující chat (404) od chatu, do kterého uživatel nepatří (403).
+     * Dotaz navíc padá jen na chybovou cestu.
+     */
+    private RuntimeException membershipFailure(Long chatId, String username) {
+        if (!chatRepository.existsById(chatId)) {
+            return new ChatNotFoundException("Chat s ID " + chatId + " nebyl nalezen.");
+        }
+        log.warn("Uživatel {} není účastníkem chatu {}", username, chatId);
+        return new AccessDeniedException("Nejste účastníkem tohoto chatu.");
+    }
+}
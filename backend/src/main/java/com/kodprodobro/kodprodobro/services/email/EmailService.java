@@ -1,22 +1,36 @@
 package com.kodprodobro.kodprodobro.services.email;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
-    private final JavaMailSender mailSender;
+    // Přes ObjectProvider, aby pošta a šablony mohly vzniknout až při prvním e-mailu (NonCriticalLazyInitPostProcessor)
+    private final ObjectProvider<JavaMailSender> mailSender;
+
+    private final ObjectProvider<TemplateEngine> templateEngine;
+
+    private final ObservationRegistry observationRegistry;
 
-    private final TemplateEngine templateEngine;
+    @Value("${app.frontend.url:http://localhost:3000}")
+    private String frontendUrl;
 
     /**
      * Odeslání e-mailu asynchronně (nebude blokovat hlavní vlákno)
@@ -24,23 +38,27 @@ public class EmailService {
     @Async
     public void sendWelcomeEmail(String to, String username) {
         log.info("Volána metoda pro odeslání uvítacího e-mailu");
+        Observation observation = start("welcome");
         try {
-            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessage message = mailSender.getObject().createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
 
             // Připraví HTML šablonu s proměnnou username
             Context context = new Context();
             context.setVariable("username", username);
-            String htmlContent = templateEngine.process("welcome-email", context);
+            String htmlContent = templateEngine.getObject().process("welcome-email", context);
 
             helper.setTo(to);
             helper.setSubject("Vítejte v SecondEL!");
             helper.setText(htmlContent, true);
             helper.setFrom("noreply@secondel.cz");
 
-            mailSender.send(message);
+            mailSender.getObject().send(message);
             log.info("✅ Odeslán uvítací e-mail na " + to);
+            stop(observation, "success");
         } catch (Exception e) {
+            observation.error(e);
+            stop(observation, "failure");
             log.error("Chyba při odesílání uvítacího e-mailu: {}", e.getMessage());
         }
     }
@@ -49,8 +67,9 @@ public class EmailService {
     public void sendPasswordResetEmail(String userEmail, String resetToken) {
         log.info("Volána metoda pro odeslání e-mailu pro reset hesla");
         // Implementace odeslání e-mailu pro reset hesla
+        Observation observation = start("password-reset");
         try {
-            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessage message = mailSender.getObject().createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
             String resetUrl = "https://www.tvoje-domena.cz/reset-hesla?token=" + resetToken;
 
@@ -70,11 +89,70 @@ public class EmailService {
             helper.setText(htmlContent, true);
 
             // Odeslání e-mailu
-            mailSender.send(message);
+            mailSender.getObject().send(message);
             helper.setTo(userEmail);
             helper.setSubject("Žádost o obnovení hesla");
+            stop(observation, "success");
         } catch (Exception e) {
+            observation.error(e);
+            stop(observation, "failure");
             log.error("Chyba při odesílání e-mailu pro reset hesla: {}", e.getMessage());
         }
     }
+
+    /**
+     * Hromadné oznámení o nově publikovaném projektu.
+     * Volá se synchronně z vlákna rozesílání (už běží mimo request), příjemci jsou v BCC,
+     * takže jedna dávka = jedna zpráva. Chybu propaguje volajícímu, aby ji mohl započítat.
+     */
+    public void sendProjectAnnouncement(List<String> recipients, Long projectId, String projectTitle) throws MessagingException {
+        Observation observation = start("project-announcement");
+        try {
+            doSendProjectAnnouncement(recipients, projectId, projectTitle);
+            stop(observation, "success");
+        } catch (MessagingException | RuntimeException e) {
+            observation.error(e);
+            stop(observation, "failure");
+            throw e;
+        }
+    }
+
+    private void doSendProjectAnnouncement(List<String> recipients, Long projectId, String projectTitle) throws MessagingException {
+        MimeMessage message = mailSender.getObject().createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
+        String projectUrl = frontendUrl + "/projects/" + projectId;
+
+        String htmlContent = "<html>"
+                + "<body>"
+                + "<h2>Nový projekt: " + HtmlUtils.htmlEscape(projectTitle) + "</h2>"
+                + "<p>Byl publikován nový projekt, který by vás mohl zajímat.</p>"
+                + "<a href=\"" + projectUrl + "\" style=\"background-color:#007bff; color:white; padding:10px 15px; text-decoration:none; border-radius:5px;\">Zobrazit projekt</a>"
+                + "<p>Notifikace můžete vypnout v nastavení svého profilu.</p>"
+                + "</body>"
+                + "</html>";
+
+        helper.setFrom("noreply@secondel.cz");
+        helper.setTo("noreply@secondel.cz");
+        helper.setBcc(recipients.toArray(String[]::new));
+        helper.setSubject("Nový projekt: " + projectTitle);
+        helper.setText(htmlContent, true);
+
+        mailSender.getObject().send(message);
+        log.debug("Oznámení o projektu {} odesláno {} příjemcům", projectId, recipients.size());
+    }
+
+    /**
+     * Sestavení a odeslání e-mailu včetně SMTP: timer {@code email.send} a span pod požadavkem,
+     * který e-mail vyvolal (i přes {@code @Async}).
+     */
+    private Observation start(String type) {
+        return Observation.createNotStarted("email.send", observationRegistry)
+                .contextualName("email " + type)
+                .lowCardinalityKeyValue("type", type)
+                .start();
+    }
+
+    private static void stop(Observation observation, String outcome) {
+        observation.lowCardinalityKeyValue("outcome", outcome).stop();
+    }
 }
@@ -0,0 +1,49 @@
+package com.kodprodobro.kodprodobro.services.matching;
+
+import java.util.*;
+
+/**
+ * Neměnný pohled na matching index složený ze dvou vrstev (styl LSM stromu).
+ * <p>
+ * {@code base} je velký index z poslední kompakce, {@code delta} obsahuje projekty změněné od té doby
+ * a {@code tombstones} jsou ID, jejichž verze v {@code base} už neplatí (smazané nebo nahrazené v deltě).
+ * Statistiky pro idf se počítají přes obě vrstvy, takže skóre jsou porovnatelná. Stejně jako v Lucene
+ * se smazané dokumenty ze statistik odečtou až při kompakci.
+ */
+public record LayeredProjectIndex(
+        ProjectMatchIndex base,
+        ProjectMatchIndex delta,
+        Set<Long> tombstones
+) {
+
+    public static LayeredProjectIndex of(ProjectMatchIndex base) {
+        return new LayeredProjectIndex(base, ProjectMatchIndex.empty(), Set.of());
+    }
+
+    public static LayeredProjectIndex empty() {
+        return of(ProjectMatchIndex.empty());
+    }
+
+    public List<ProjectMatch> topMatches(Collection<String> queryTerms, int limit) {
+        if (delta.size() == 0 && tombstones.isEmpty()) {
+            return base.topMatches(queryTerms, limit);
+        }
+        ProjectMatchIndex.CollectionStatistics statistics = new ProjectMatchIndex.CollectionStatistics(
+                base.size() + delta.size(),
+                term -> base.documentFrequency(term) + delta.documentFrequency(term));
+
+        List<ProjectMatch> merged = new ArrayList<>(
+                base.topMatches(queryTerms, limit, statistics, tombstones::contains));
+        merged.addAll(delta.topMatches(queryTerms, limit, statistics, id -> false));
+        merged.sort(Comparator.comparingDouble(ProjectMatch::score).reversed()
+                .thenComparingLong(ProjectMatch::projectId));
+        return merged.size() > limit ? List.copyOf(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Počet projektů, které jsou aktuálně vidět ve výsledcích.
+     */
+    public int liveSize() {
+        return base.size() - tombstones.size() + delta.size();
+    }
+}
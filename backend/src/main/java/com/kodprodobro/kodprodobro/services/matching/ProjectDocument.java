@@ -0,0 +1,32 @@
+package com.kodprodobro.kodprodobro.services.matching;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tokenizovaná podoba projektu pro matching index (četnosti termů + délka dokumentu).
+ */
+public record ProjectDocument(
+        long projectId,
+        String title,
+        Map<String, Integer> termFrequencies,
+        int length
+) {
+    // Slova z názvu mají větší váhu než slova z popisu
+    private static final int TITLE_WEIGHT = 2;
+
+    public static ProjectDocument of(long projectId, String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> titleTerms = TextTokenizer.tokenize(title);
+        List<String> descriptionTerms = TextTokenizer.tokenize(description);
+        for (String term : titleTerms) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : descriptionTerms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = titleTerms.size() * TITLE_WEIGHT + descriptionTerms.size();
+        return new ProjectDocument(projectId, title, Map.copyOf(frequencies), length);
+    }
+}
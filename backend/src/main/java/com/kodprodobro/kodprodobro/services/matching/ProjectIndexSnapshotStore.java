@@ -0,0 +1,84 @@
+package com.kodprodobro.kodprodobro.services.matching;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Ukládání a načítání snapshotu matching indexu na disk.
+ * <p>
+ * Snapshot se zapisuje do dočasného souboru a atomicky přejmenuje, takže po pádu
+ * aplikace na disku zůstane vždy celý starý nebo celý nový soubor. Při startu se soubor
+ * namapuje do paměti a posting listy se z něj zkopírují přímo do polí, bez dotazu do DB.
+ */
+@Slf4j
+@Component
+public class ProjectIndexSnapshotStore {
+
+    private static final int MAGIC = 0x4B504449; // "KPDI"
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path snapshotPath;
+
+    public ProjectIndexSnapshotStore(@Value("${app.matching.snapshot-path:data/project-index.bin}") Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Načtený snapshot.
+     *
+     * @param index     index projektů
+     * @param watermark okamžik, od kterého je potřeba dohnat změny z DB
+     */
+    public record Snapshot(ProjectMatchIndex index, Instant watermark) {
+    }
+
+    public Optional<Snapshot> load() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(read(buffer));
+        } catch (IOException | RuntimeException e) {
+            // Poškozený nebo starý snapshot není chyba, index se postaví znovu z DB
+            log.warn("Snapshot matching indexu {} nelze načíst: {}", snapshotPath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void save(ProjectMatchIndex index, Instant watermark) throws IOException {
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "project-index", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(watermark.toEpochMilli());
+                index.writeTo(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static Snapshot read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalStateException("Neznámý formát snapshotu");
+        }
+        Instant watermark = Instant.ofEpochMilli(buffer.getLong());
+        return new Snapshot(ProjectMatchIndex.readFrom(buffer), watermark);
+    }
+}
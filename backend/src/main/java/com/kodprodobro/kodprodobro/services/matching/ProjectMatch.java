@@ -0,0 +1,19 @@
+package com.kodprodobro.kodprodobro.services.matching;
+
+import java.util.List;
+
+/**
+ * Výsledek párování jednoho projektu.
+ *
+ * @param score        surové BM25 skóre
+ * @param matchScore   skóre 0-100 relativně k nejlepšímu možnému výsledku dotazu
+ * @param matchedTerms termy dotazu, které projekt obsahuje
+ */
+public record ProjectMatch(
+        long projectId,
+        String title,
+        double score,
+        int matchScore,
+        List<String> matchedTerms
+) {
+}
@@ -0,0 +1,456 @@
+package com.kodprodobro.kodprodobro.services.matching;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.LongPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Neměnný invertovaný index projektů se skórováním BM25.
+ * <p>
+ * Dotaz (dovednosti + zájmy) má jen pár termů, proto se neporovnávají husté vektory
+ * se všemi projekty, ale sčítají se jen posting listy termů z dotazu.
+ * Cena dotazu tak roste s počtem projektů, které dotaz skutečně obsahují, ne s velikostí katalogu.
+ * Posting listy jsou primitivní pole seřazená podle čísla dokumentu.
+ */
+public final class ProjectMatchIndex {
+
+    // Standardní parametry BM25
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+
+    private static final ProjectMatchIndex EMPTY = new ProjectMatchIndex(
+            new long[0], new String[0], new int[0], 1f, Map.of());
+
+    private final long[] projectIds;
+    private final String[] titles;
+    private final int[] lengths;
+    private final float averageLength;
+    // k1 * (1 - b + b * |d| / avgdl), předpočítané pro každý dokument
+    private final float[] lengthNorms;
+    private final Map<String, Postings> postings;
+
+    private ProjectMatchIndex(long[] projectIds, String[] titles, int[] lengths, float averageLength,
+                              Map<String, Postings> postings) {
+        this.projectIds = projectIds;
+        this.titles = titles;
+        this.lengths = lengths;
+        this.averageLength = averageLength;
+        this.postings = postings;
+        this.lengthNorms = new float[lengths.length];
+        for (int i = 0; i < lengths.length; i++) {
+            lengthNorms[i] = K1 * (1 - B + B * lengths[i] / averageLength);
+        }
+    }
+
+    public static ProjectMatchIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Postaví index z tokenizovaných projektů.
+     */
+    public static ProjectMatchIndex build(Collection<ProjectDocument> documents) {
+        return build(documents, Float.NaN);
+    }
+
+    /**
+     * Postaví index s danou průměrnou délkou dokumentu. Používá se pro malou delta vrstvu,
+     * která má normalizovat délky podle celého katalogu, ne jen podle pár změněných projektů.
+     *
+     * @param averageLength průměrná délka dokumentu, {@code NaN} = spočítat z {@code documents}
+     */
+    public static ProjectMatchIndex build(Collection<ProjectDocument> documents, float averageLength) {
+        if (documents.isEmpty()) {
+            return EMPTY;
+        }
+        int size = documents.size();
+        long[] projectIds = new long[size];
+        String[] titles = new String[size];
+        int[] lengths = new int[size];
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+
+        // Řazení podle ID umožní binární vyhledání projektu v indexu
+        List<ProjectDocument> sorted = new ArrayList<>(documents);
+        sorted.sort(Comparator.comparingLong(ProjectDocument::projectId));
+
+        long totalLength = 0;
+        int doc = 0;
+        for (ProjectDocument document : sorted) {
+            projectIds[doc] = document.projectId();
+            titles[doc] = document.title();
+            lengths[doc] = document.length();
+            totalLength += document.length();
+            for (Map.Entry<String, Integer> entry : document.termFrequencies().entrySet()) {
+                builders.computeIfAbsent(entry.getKey(), key -> new PostingsBuilder())
+                        .add(doc, entry.getValue());
+            }
+            doc++;
+        }
+
+        float avgLength = Float.isNaN(averageLength) ? (float) totalLength / size : averageLength;
+
+        Map<String, Postings> postings = HashMap.newHashMap(builders.size());
+        builders.forEach((term, builder) -> postings.put(term, builder.build()));
+        return new ProjectMatchIndex(projectIds, titles, lengths, Math.max(1f, avgLength), postings);
+    }
+
+    public int size() {
+        return projectIds.length;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    public long[] projectIds() {
+        return projectIds.clone();
+    }
+
+    public boolean contains(long projectId) {
+        return Arrays.binarySearch(projectIds, projectId) >= 0;
+    }
+
+    public float averageLength() {
+        return averageLength;
+    }
+
+    public long totalLength() {
+        long total = 0;
+        for (int length : lengths) {
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Počet dokumentů obsahujících term.
+     */
+    public int documentFrequency(String term) {
+        Postings termPostings = postings.get(term);
+        return termPostings == null ? 0 : termPostings.docs.length;
+    }
+
+    /**
+     * Zpětně složí dokumenty z posting listů (pro kompakci a snapshot), bez přístupu do DB.
+     */
+    public List<ProjectDocument> documents() {
+        List<Map<String, Integer>> frequencies = new ArrayList<>(projectIds.length);
+        for (int i = 0; i < projectIds.length; i++) {
+            frequencies.add(new HashMap<>());
+        }
+        postings.forEach((term, termPostings) -> {
+            for (int i = 0; i < termPostings.docs.length; i++) {
+                frequencies.get(termPostings.docs[i]).put(term, (int) termPostings.frequencies[i]);
+            }
+        });
+        List<ProjectDocument> documents = new ArrayList<>(projectIds.length);
+        for (int i = 0; i < projectIds.length; i++) {
+            documents.add(new ProjectDocument(projectIds[i], titles[i], Map.copyOf(frequencies.get(i)), lengths[i]));
+        }
+        return documents;
+    }
+
+    /**
+     * Vrátí {@code limit} nejlépe odpovídajících projektů, seřazených podle skóre
+     * (při shodě podle ID projektu, aby byl výsledek deterministický).
+     *
+     * @param queryTerms termy dotazu (duplicity se ignorují)
+     * @param limit      maximální počet výsledků
+     */
+    public List<ProjectMatch> topMatches(Collection<String> queryTerms, int limit) {
+        return topMatches(queryTerms, limit, new CollectionStatistics(projectIds.length, this::documentFrequency), id -> false);
+    }
+
+    /**
+     * Skórování se statistikami celé kolekce (počet dokumentů a df přes všechny vrstvy indexu),
+     * aby skóre z různých vrstev byla vzájemně porovnatelná.
+     *
+     * @param statistics statistiky kolekce pro výpočet idf
+     * @param hidden     projekty, které se z výsledků vynechají (smazané nebo nahrazené novější verzí)
+     */
+    List<ProjectMatch> topMatches(Collection<String> queryTerms, int limit,
+                                  CollectionStatistics statistics, LongPredicate hidden) {
+        if (limit <= 0 || projectIds.length == 0 || queryTerms.isEmpty()) {
+            return List.of();
+        }
+        // Document-at-a-time: posting listy termů se procházejí souběžně podle čísla dokumentu (jsou seřazené),
+        // skóre dokumentu je hotové v jednom kroku. Alokace jsou jen pole velikosti počtu termů a limitu,
+        // ne velikosti katalogu.
+        List<String> usedTerms = new ArrayList<>();
+        List<Postings> usedPostings = new ArrayList<>();
+        float[] usedIdfs = new float[queryTerms.size()];
+        float maxPossibleScore = 0;
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            int documentFrequency = statistics.documentFrequency().applyAsInt(term);
+            if (documentFrequency == 0) {
+                continue;
+            }
+            float idf = idf(documentFrequency, statistics.documentCount());
+            maxPossibleScore += idf * (K1 + 1);
+
+            Postings termPostings = postings.get(term);
+            if (termPostings != null) {
+                usedTerms.add(term);
+                usedPostings.add(termPostings);
+                usedIdfs[usedPostings.size() - 1] = idf;
+            }
+        }
+        if (usedPostings.isEmpty()) {
+            return List.of();
+        }
+
+        int termCount = usedPostings.size();
+        int[] cursors = new int[termCount];
+        long candidates = 0;
+        for (Postings termPostings : usedPostings) {
+            candidates += termPostings.docs.length;
+        }
+        TopK best = new TopK((int) Math.min(limit, Math.min(candidates, projectIds.length)));
+        while (true) {
+            int d = Integer.MAX_VALUE;
+            for (int t = 0; t < termCount; t++) {
+                int[] docs = usedPostings.get(t).docs;
+                if (cursors[t] < docs.length && docs[cursors[t]] < d) {
+                    d = docs[cursors[t]];
+                }
+            }
+            if (d == Integer.MAX_VALUE) {
+                break;
+            }
+            // Sčítá se v pořadí termů dotazu, stejně jako dřív - skóre jsou bitově stejná
+            float score = 0;
+            for (int t = 0; t < termCount; t++) {
+                Postings termPostings = usedPostings.get(t);
+                if (cursors[t] < termPostings.docs.length && termPostings.docs[cursors[t]] == d) {
+                    float tf = termPostings.frequencies[cursors[t]++];
+                    score += usedIdfs[t] * tf * (K1 + 1) / (tf + lengthNorms[d]);
+                }
+            }
+            if (!hidden.test(projectIds[d])) {
+                best.offer(d, score);
+            }
+        }
+
+        List<ProjectMatch> matches = new ArrayList<>(best.size);
+        for (int i = best.drainSorted(); i < best.docs.length; i++) {
+            int d = best.docs[i];
+            float score = best.scores[i];
+            int matchScore = Math.round(100f * score / maxPossibleScore);
+            matches.add(new ProjectMatch(projectIds[d], titles[d], score, matchScore, matchedTerms(d, usedTerms)));
+        }
+        return matches;
+    }
+
+    private List<String> matchedTerms(int doc, List<String> terms) {
+        List<String> matched = new ArrayList<>();
+        for (String term : terms) {
+            if (Arrays.binarySearch(postings.get(term).docs, doc) >= 0) {
+                matched.add(term);
+            }
+        }
+        return matched;
+    }
+
+    // BM25 idf, vždy kladné
+    private static float idf(int documentFrequency, int documentCount) {
+        return (float) Math.log(1 + Math.max(0, documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Top-K přes min-haldu na primitivních polích (bez boxingu). V kořeni je nejhorší z dosud nejlepších.
+     */
+    private final class TopK {
+
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            this.docs = new int[k];
+            this.scores = new float[k];
+        }
+
+        void offer(int d, float score) {
+            if (size < docs.length) {
+                docs[size] = d;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (isBetter(d, score, docs[0], scores[0])) {
+                docs[0] = d;
+                scores[0] = score;
+                siftDown(size);
+            }
+        }
+
+        /**
+         * Vyprázdní haldu odzadu, výsledek je seřazený sestupně na konci polí.
+         *
+         * @return index prvního (nejlepšího) výsledku
+         */
+        int drainSorted() {
+            int heapSize = size;
+            for (int i = docs.length - 1; i >= docs.length - size; i--) {
+                int d = docs[0];
+                float score = scores[0];
+                heapSize--;
+                docs[0] = docs[heapSize];
+                scores[0] = scores[heapSize];
+                siftDown(heapSize);
+                docs[i] = d;
+                scores[i] = score;
+            }
+            return docs.length - size;
+        }
+
+        private boolean isBetter(int a, float scoreA, int b, float scoreB) {
+            if (scoreA != scoreB) {
+                return scoreA > scoreB;
+            }
+            return projectIds[a] < projectIds[b];
+        }
+
+        private void siftUp(int index) {
+            int d = docs[index];
+            float score = scores[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!isBetter(docs[parent], scores[parent], d, score)) {
+                    break;
+                }
+                docs[index] = docs[parent];
+                scores[index] = scores[parent];
+                index = parent;
+            }
+            docs[index] = d;
+            scores[index] = score;
+        }
+
+        private void siftDown(int heapSize) {
+            if (heapSize == 0) {
+                return;
+            }
+            int index = 0;
+            int d = docs[0];
+            float score = scores[0];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && isBetter(docs[child], scores[child], docs[child + 1], scores[child + 1])) {
+                    child++;
+                }
+                if (!isBetter(d, score, docs[child], scores[child])) {
+                    break;
+                }
+                docs[index] = docs[child];
+                scores[index] = scores[child];
+                index = child;
+            }
+            docs[index] = d;
+            scores[index] = score;
+        }
+    }
+
+    // --- Binární serializace pro snapshot (big-endian, stejně jako výchozí ByteBuffer) ---
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(projectIds.length);
+        out.writeFloat(averageLength);
+        for (int i = 0; i < projectIds.length; i++) {
+            out.writeLong(projectIds[i]);
+            out.writeInt(lengths[i]);
+            writeString(out, titles[i]);
+        }
+        out.writeInt(postings.size());
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            writeString(out, entry.getKey());
+            int[] docs = entry.getValue().docs;
+            float[] frequencies = entry.getValue().frequencies;
+            out.writeInt(docs.length);
+            for (int doc : docs) {
+                out.writeInt(doc);
+            }
+            for (float frequency : frequencies) {
+                out.writeFloat(frequency);
+            }
+        }
+    }
+
+    static ProjectMatchIndex readFrom(ByteBuffer in) {
+        int size = in.getInt();
+        float averageLength = in.getFloat();
+        if (size == 0) {
+            return EMPTY;
+        }
+        long[] projectIds = new long[size];
+        int[] lengths = new int[size];
+        String[] titles = new String[size];
+        for (int i = 0; i < size; i++) {
+            projectIds[i] = in.getLong();
+            lengths[i] = in.getInt();
+            titles[i] = readString(in);
+        }
+        int termCount = in.getInt();
+        Map<String, Postings> postings = HashMap.newHashMap(termCount);
+        for (int t = 0; t < termCount; t++) {
+            String term = readString(in);
+            int count = in.getInt();
+            int[] docs = new int[count];
+            float[] frequencies = new float[count];
+            in.asIntBuffer().get(docs);
+            in.position(in.position() + count * Integer.BYTES);
+            in.asFloatBuffer().get(frequencies);
+            in.position(in.position() + count * Float.BYTES);
+            postings.put(term, new Postings(docs, frequencies));
+        }
+        return new ProjectMatchIndex(projectIds, titles, lengths, averageLength, postings);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Statistiky kolekce pro výpočet idf.
+     */
+    record CollectionStatistics(int documentCount, ToIntFunction<String> documentFrequency) {
+    }
+
+    // --- Posting listy ---
+
+    private record Postings(int[] docs, float[] frequencies) {
+    }
+
+    private static final class PostingsBuilder {
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(docs, size), Arrays.copyOf(frequencies, size));
+        }
+    }
+}
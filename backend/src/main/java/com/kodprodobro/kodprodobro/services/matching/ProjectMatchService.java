@@ -0,0 +1,285 @@
+package com.kodprodobro.kodprodobro.services.matching;
+
+import com.kodprodobro.kodprodobro.config.PrimaryReads;
+import com.kodprodobro.kodprodobro.dto.project.ProjectMatchRequest;
+import com.kodprodobro.kodprodobro.dto.project.ProjectMatchResponse;
+import com.kodprodobro.kodprodobro.event.ProjectChangedEvent;
+import com.kodprodobro.kodprodobro.models.project.Project;
+import com.kodprodobro.kodprodobro.repositories.project.ProjectRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lokální párování studenta s projekty podle dovedností a zájmů (bez externí AI služby).
+ * <p>
+ * Index udržuje jediné zapisovací vlákno: změny projektů přicházejí po commitu jako
+ * {@link ProjectChangedEvent} do fronty, vlákno je po dávkách zapracuje do malé delta vrstvy
+ * a vymění neměnný {@link LayeredProjectIndex}. Dotazy čtou vždy kompletní verzi indexu bez zámků.
+ * Když delta naroste nebo uplyne interval kompakce, vrstvy se sloučí do nového základu
+ * a ten se uloží jako snapshot, ze kterého se index po restartu načte bez dotazu na všechny projekty.
+ */
+@Slf4j
+@Service
+public class ProjectMatchService {
+
+    static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_BATCH = 500;
+
+    private final ProjectRepository projectRepository;
+    private final ProjectIndexSnapshotStore snapshotStore;
+    private final int compactionThreshold;
+    private final Duration compactionInterval;
+    // Rezerva pro transakce, které byly při kompakci rozpracované - dohnání změn je idempotentní
+    private final Duration snapshotSafetyMargin;
+
+    private final BlockingQueue<ProjectChangedEvent> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile LayeredProjectIndex index = LayeredProjectIndex.empty();
+
+    // --- Stav vlastněný výhradně zapisovacím vláknem ---
+    private ProjectMatchIndex base = ProjectMatchIndex.empty();
+    private final Map<Long, ProjectDocument> delta = new HashMap<>();
+    private final Set<Long> tombstones = new HashSet<>();
+    private long lastCompaction = System.nanoTime();
+
+    public ProjectMatchService(
+            ProjectRepository projectRepository,
+            ProjectIndexSnapshotStore snapshotStore,
+            @Value("${app.matching.compaction-threshold:1000}") int compactionThreshold,
+            @Value("${app.matching.compaction-interval:PT10M}") Duration compactionInterval,
+            @Value("${app.matching.snapshot-safety-margin:PT5M}") Duration snapshotSafetyMargin) {
+        this.projectRepository = projectRepository;
+        this.snapshotStore = snapshotStore;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionInterval = compactionInterval;
+        this.snapshotSafetyMargin = snapshotSafetyMargin;
+        // Změny přicházejí hned po commitu, čtení z repliky by právě publikovaný projekt z indexu vyřadilo
+        this.writer = new Thread(() -> PrimaryReads.run(this::runWriter), "project-index-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Zařadí změnu projektu ke zpracování. Volá se po commitu transakce.
+     */
+    public void enqueue(ProjectChangedEvent event) {
+        queue.add(event);
+    }
+
+    /**
+     * Najde projekty nejlépe odpovídající dovednostem, zájmům a popisu studenta.
+     */
+    public List<ProjectMatchResponse> match(ProjectMatchRequest request) {
+        List<String> terms = new ArrayList<>();
+        if (request.skills() != null) {
+            request.skills().forEach(skill -> terms.addAll(TextTokenizer.tokenize(skill)));
+        }
+        if (request.interests() != null) {
+            request.interests().forEach(interest -> terms.addAll(TextTokenizer.tokenize(interest)));
+        }
+        terms.addAll(TextTokenizer.tokenize(request.description()));
+
+        int limit = request.limit() != null ? request.limit() : DEFAULT_LIMIT;
+        return index.topMatches(terms, limit).stream()
+                .map(match -> new ProjectMatchResponse(match.projectId(), match.title(),
+                        match.matchScore(), match.score(), match.matchedTerms()))
+                .toList();
+    }
+
+    // --- Zapisovací vlákno ---
+
+    private void runWriter() {
+        try {
+            initialize();
+        } catch (RuntimeException e) {
+            log.error("Inicializace matching indexu selhala: {}", e.getMessage(), e);
+        }
+        List<ProjectChangedEvent> batch = new ArrayList<>(MAX_BATCH);
+        while (running) {
+            try {
+                ProjectChangedEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    applyChanges(batch);
+                    batch.clear();
+                }
+                if (shouldCompact()) {
+                    compact();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Vlákno musí přežít i chybu DB, nezpracované změny dožene kompakce/restart
+                log.error("Chyba při aktualizaci matching indexu: {}", e.getMessage(), e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void initialize() {
+        long start = System.nanoTime();
+        Optional<ProjectIndexSnapshotStore.Snapshot> snapshot = snapshotStore.load();
+        if (snapshot.isPresent()) {
+            base = snapshot.get().index();
+            publish();
+            log.info("Matching index načten ze snapshotu: {} projektů za {} ms",
+                    base.size(), (System.nanoTime() - start) / 1_000_000);
+            catchUp(snapshot.get().watermark());
+        } else {
+            List<ProjectDocument> documents = projectRepository.findByPublishedTrue().stream()
+                    .map(ProjectMatchService::toDocument)
+                    .toList();
+            base = ProjectMatchIndex.build(documents);
+            publish();
+            log.info("Matching index postaven z DB: {} projektů za {} ms",
+                    base.size(), (System.nanoTime() - start) / 1_000_000);
+            saveSnapshot(Instant.now());
+        }
+    }
+
+    /**
+     * Dožene změny provedené po uložení snapshotu: upravené projekty podle {@code updatedAt},
+     * smazané a nepublikované podle rozdílu se seznamem publikovaných ID.
+     */
+    private void catchUp(Instant watermark) {
+        LocalDateTime since = LocalDateTime.ofInstant(watermark, ZoneId.systemDefault());
+        List<Project> changed = projectRepository.findByPublishedTrueAndUpdatedAtAfter(since);
+        for (Project project : changed) {
+            upsert(toDocument(project));
+        }
+
+        Set<Long> publishedIds = new HashSet<>(projectRepository.findPublishedIds());
+        int removed = 0;
+        for (long projectId : base.projectIds()) {
+            if (!publishedIds.contains(projectId)) {
+                remove(projectId);
+                removed++;
+            }
+        }
+        publish();
+        log.info("Matching index dohnán od {}: {} upravených, {} odebraných projektů", since, changed.size(), removed);
+    }
+
+    private void applyChanges(List<ProjectChangedEvent> events) {
+        // Poslední událost pro dané ID vyhrává
+        Map<Long, Boolean> deletedById = new LinkedHashMap<>();
+        for (ProjectChangedEvent event : events) {
+            deletedById.put(event.projectId(), event.deleted());
+        }
+        List<Long> toLoad = deletedById.entrySet().stream()
+                .filter(entry -> !entry.getValue())
+                .map(Map.Entry::getKey)
+                .toList();
+
+        Set<Long> published = new HashSet<>();
+        if (!toLoad.isEmpty()) {
+            for (Project project : projectRepository.findAllById(toLoad)) {
+                if (project.isPublished()) {
+                    upsert(toDocument(project));
+                    published.add(project.getId());
+                }
+            }
+        }
+        // Smazané, neexistující i nepublikované projekty z indexu zmizí
+        for (Long projectId : deletedById.keySet()) {
+            if (!published.contains(projectId)) {
+                remove(projectId);
+            }
+        }
+        publish();
+        log.debug("Matching index: zpracováno {} změn, delta {} projektů, {} tombstones",
+                deletedById.size(), delta.size(), tombstones.size());
+    }
+
+    private void upsert(ProjectDocument document) {
+        if (base.contains(document.projectId())) {
+            tombstones.add(document.projectId());
+        }
+        delta.put(document.projectId(), document);
+    }
+
+    private void remove(long projectId) {
+        if (base.contains(projectId)) {
+            tombstones.add(projectId);
+        }
+        delta.remove(projectId);
+    }
+
+    private void publish() {
+        float averageLength = base.size() > 0 ? base.averageLength() : Float.NaN;
+        ProjectMatchIndex deltaIndex = ProjectMatchIndex.build(delta.values(), averageLength);
+        index = new LayeredProjectIndex(base, deltaIndex, Set.copyOf(tombstones));
+    }
+
+    private boolean shouldCompact() {
+        int pending = delta.size() + tombstones.size();
+        if (pending == 0) {
+            return false;
+        }
+        return pending >= compactionThreshold
+                || System.nanoTime() - lastCompaction >= compactionInterval.toNanos();
+    }
+
+    /**
+     * Sloučí delta vrstvu a tombstones do nového základního indexu a uloží snapshot.
+     */
+    private void compact() {
+        long start = System.nanoTime();
+        Instant watermark = Instant.now();
+        List<ProjectDocument> documents = new ArrayList<>(base.size() + delta.size());
+        for (ProjectDocument document : base.documents()) {
+            if (!tombstones.contains(document.projectId())) {
+                documents.add(document);
+            }
+        }
+        documents.addAll(delta.values());
+
+        base = ProjectMatchIndex.build(documents);
+        delta.clear();
+        tombstones.clear();
+        publish();
+        lastCompaction = System.nanoTime();
+        log.info("Kompakce matching indexu: {} projektů za {} ms", base.size(), (System.nanoTime() - start) / 1_000_000);
+        saveSnapshot(watermark);
+    }
+
+    private void saveSnapshot(Instant watermark) {
+        try {
+            snapshotStore.save(base, watermark.minus(snapshotSafetyMargin));
+        } catch (Exception e) {
+            // Bez snapshotu jen příští start postaví index z DB
+            log.warn("Snapshot matching indexu se nepodařilo uložit: {}", e.getMessage());
+        }
+    }
+
+    private static ProjectDocument toDocument(Project project) {
+        return ProjectDocument.of(project.getId(), project.getTitle(), project.getDescription());
+    }
+}
@@ -0,0 +1,74 @@
+package com.kodprodobro.kodprodobro.services.matching;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Jednoduchý deterministický tokenizer pro párování dovedností a projektů.
+ * Odstraní diakritiku, převede na malá písmena a zahodí běžná česká/anglická slova.
+ * Znaky '#' a '+' uvnitř tokenu zůstávají, aby "C#" a "C++" nesplynuly s "C".
+ */
+public final class TextTokenizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}#+]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Jednopísmenné tokeny se zahazují, kromě názvů jazyků
+    private static final Set<String> SHORT_TERMS = Set.of("c", "r");
+
+    private static final Set<String> STOP_WORDS = Set.copyOf(Arrays.asList(
+            // EN
+            "a", "an", "and", "the", "of", "in", "on", "for", "to", "with", "is", "are", "am", "i", "my",
+            "we", "our", "be", "as", "at", "by", "or", "it", "this", "that", "me", "you", "your", "from",
+            "key", "skills", "include", "interested", "student", "general", "interests",
+            // CZ (bez diakritiky)
+            "je", "jsem", "jsou", "se", "na", "v", "ve", "s", "z", "ze", "do", "pro", "k", "o", "u", "i",
+            "to", "ten", "ta", "by", "jak", "co", "ktery", "ktera", "ktere", "mam", "moje", "muj", "nebo",
+            "ale", "jako", "pri", "po", "od", "za", "nas", "vas", "jsme"
+    ));
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Rozdělí text na normalizované termy (v pořadí výskytu, včetně opakování).
+     *
+     * @param text libovolný text (může být null)
+     * @return seznam termů
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            String term = stripSymbolPrefix(token);
+            if (term.isEmpty() || STOP_WORDS.contains(term)) {
+                continue;
+            }
+            if (term.length() == 1 && !SHORT_TERMS.contains(term)) {
+                continue;
+            }
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    // "+react" nebo "#java" -> "react"/"java", ale "c++" a "c#" zůstávají
+    private static String stripSymbolPrefix(String token) {
+        int start = 0;
+        while (start < token.length() && (token.charAt(start) == '#' || token.charAt(start) == '+')) {
+            start++;
+        }
+        return token.substring(start);
+    }
+}
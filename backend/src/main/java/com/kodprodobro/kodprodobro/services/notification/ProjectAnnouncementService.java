@@ -0,0 +1,159 @@
+package com.kodprodobro.kodprodobro.services.notification;
+
+import com.kodprodobro.kodprodobro.config.PrimaryReads;
+import com.kodprodobro.kodprodobro.dto.notification.NotificationRecipient;
+import com.kodprodobro.kodprodobro.event.ProjectPublishedEvent;
+import com.kodprodobro.kodprodobro.models.enums.Role;
+import com.kodprodobro.kodprodobro.models.notification.Notification;
+import com.kodprodobro.kodprodobro.models.notification.NotificationType;
+import com.kodprodobro.kodprodobro.repositories.notification.NotificationRepository;
+import com.kodprodobro.kodprodobro.repositories.user.UserRepository;
+import com.kodprodobro.kodprodobro.services.email.EmailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rozesílání oznámení o publikovaném projektu všem odpovídajícím studentům.
+ * <p>
+ * Uživatelé se procházejí keyset kurzorem po dávkách (ne přes {@code findAllUsers()}),
+ * každá dávka se uloží jako in-app notifikace ve vlastní transakci a e-mailem se pošle
+ * jen těm, kdo ho mají povolený. V paměti je tedy vždy maximálně jedna dávka
+ * bez ohledu na počet uživatelů.
+ */
+@Slf4j
+@Service
+public class ProjectAnnouncementService {
+
+    private final UserRepository userRepository;
+    private final NotificationRepository notificationRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Set<Role> targetRoles;
+
+    // --- Metriky propustnosti ---
+    private final Timer fanOutTimer;
+    private final Timer batchTimer;
+    private final Counter inAppCounter;
+    private final Counter emailCounter;
+    private final Counter emailFailureCounter;
+
+    public ProjectAnnouncementService(
+            UserRepository userRepository,
+            NotificationRepository notificationRepository,
+            EmailService emailService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.batch-size:500}") int batchSize,
+            @Value("${app.notifications.project-announcement.roles:STUDENT,USER}") Set<Role> targetRoles) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Velikost dávky notifikací musí být kladná");
+        }
+        this.userRepository = userRepository;
+        this.notificationRepository = notificationRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.targetRoles = Set.copyOf(targetRoles);
+
+        this.fanOutTimer = Timer.builder("notifications.fanout.duration")
+                .description("Doba rozeslání jednoho oznámení všem příjemcům")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("notifications.fanout.batch.duration")
+                .description("Doba zpracování jedné dávky příjemců")
+                .register(meterRegistry);
+        this.inAppCounter = Counter.builder("notifications.fanout.sent")
+                .tag("channel", "in_app")
+                .register(meterRegistry);
+        this.emailCounter = Counter.builder("notifications.fanout.sent")
+                .tag("channel", "email")
+                .register(meterRegistry);
+        this.emailFailureCounter = Counter.builder("notifications.fanout.failed")
+                .tag("channel", "email")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Projde všechny příjemce a rozešle jim oznámení o projektu.
+     *
+     * @param event událost publikování projektu
+     * @return počet uživatelů, kterým byla vytvořena in-app notifikace
+     */
+    public long announce(ProjectPublishedEvent event) {
+        long start = System.nanoTime();
+        long recipients = 0;
+        int batches = 0;
+        long afterId = 0L;
+
+        List<NotificationRecipient> batch;
+        do {
+            long cursor = afterId;
+            // Stránkování běží asynchronně po commitu a mezi dávkami zapisuje, čte proto z primární DB
+            batch = PrimaryReads.call(() -> userRepository.findProjectUpdateRecipientsAfter(targetRoles, cursor, Limit.of(batchSize)));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<NotificationRecipient> current = batch;
+            batchTimer.record(() -> dispatchBatch(event, current));
+
+            recipients += batch.size();
+            batches++;
+            afterId = batch.get(batch.size() - 1).id();
+        } while (batch.size() == batchSize);
+
+        long elapsedNanos = System.nanoTime() - start;
+        fanOutTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        double seconds = Math.max(elapsedNanos / 1_000_000_000.0, 0.001);
+        log.info("Oznámení o projektu {} rozesláno {} příjemcům v {} dávkách ({} příjemců/s)",
+                event.projectId(), recipients, batches, Math.round(recipients / seconds));
+        return recipients;
+    }
+
+    private void dispatchBatch(ProjectPublishedEvent event, List<NotificationRecipient> batch) {
+        // 1. In-app notifikace - jedna transakce na dávku, persistence context se po ní zahodí
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Notification> notifications = new ArrayList<>(batch.size());
+            for (NotificationRecipient recipient : batch) {
+                notifications.add(Notification.builder()
+                        .recipient(userRepository.getReferenceById(recipient.id()))
+                        .type(NotificationType.PROJECT_PUBLISHED)
+                        .title("Nový projekt: " + event.title())
+                        .message("Organizace " + event.ownerUsername() + " publikovala nový projekt.")
+                        .projectId(event.projectId())
+                        .build());
+            }
+            notificationRepository.saveAll(notifications);
+        });
+        inAppCounter.increment(batch.size());
+
+        // 2. E-mail jen pro ty, kdo ho mají povolený
+        List<String> emails = batch.stream()
+                .filter(NotificationRecipient::emailEnabled)
+                .map(NotificationRecipient::email)
+                .toList();
+        if (emails.isEmpty()) {
+            return;
+        }
+        try {
+            emailService.sendProjectAnnouncement(emails, event.projectId(), event.title());
+            emailCounter.increment(emails.size());
+        } catch (Exception e) {
+            // Chyba e-mailu nesmí zastavit rozesílání dalších dávek
+            emailFailureCounter.increment(emails.size());
+            log.error("Chyba při odesílání oznámení o projektu {} ({} příjemců): {}",
+                    event.projectId(), emails.size(), e.getMessage());
+        }
+    }
+}
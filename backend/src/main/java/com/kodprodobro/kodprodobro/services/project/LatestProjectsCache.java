@@ -0,0 +1,194 @@
+package com.kodprodobro.kodprodobro.services.project;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.kodprodobro.kodprodobro.config.PrimaryReads;
+import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
+import com.kodprodobro.kodprodobro.profiling.CacheMissEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Předrenderovaná odpověď widgetu "nejnovější projekty" na homepage.
+ * <p>
+ * JSON se serializuje a zkomprimuje jen při změně projektů, požadavek pak jen zapíše hotové bajty
+ * (bez DB, mapování i serializace). Přestavba běží asynchronně a nanejvýš jedna najednou -
+ * změny, které přijdou během přestavby, se sloučí do jedné další přestavby.
+ * <p>
+ * Metriky: {@code cache.gets} (hit/miss, miss je synchronní build na prvním požadavku)
+ * a {@code cache.render} s dobou přestavby; při zapnutém JFR každé postavení zapíše {@link CacheMissEvent}.
+ */
+@Slf4j
+@Component
+public class LatestProjectsCache {
+
+    private static final String CACHE_NAME = "latest-projects";
+
+    private static final TypeReference<List<ProjectResponse>> PROJECT_LIST = new TypeReference<>() {
+    };
+
+    /**
+     * Hotová odpověď ve dvou kódováních a její ETag (hash obsahu).
+     */
+    public record Rendered(byte[] identity, byte[] gzip, String etag) {
+    }
+
+    private final ProjectService projectService;
+    private final ObjectWriter writer;
+    private final Executor taskExecutor;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer renderTimer;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Rendered rendered;
+
+    public LatestProjectsCache(ProjectService projectService, ObjectMapper objectMapper, Executor taskExecutor,
+                               MeterRegistry meterRegistry) {
+        this.projectService = projectService;
+        this.writer = objectMapper.writerFor(PROJECT_LIST);
+        this.taskExecutor = taskExecutor;
+        this.hits = gets(meterRegistry, "hit");
+        this.misses = gets(meterRegistry, "miss");
+        this.renderTimer = Timer.builder("cache.render")
+                .description("Doba přestavby předrenderované odpovědi")
+                .tag("cache", CACHE_NAME)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        invalidate();
+    }
+
+    /**
+     * Vrátí aktuální odpověď. Jen úplně první požadavek před dokončením prvního renderu ji postaví synchronně.
+     */
+    public Rendered get() {
+        Rendered current = rendered;
+        if (current == null) {
+            synchronized (this) {
+                if (rendered == null) {
+                    misses.increment();
+                    rendered = render("request");
+                    return rendered;
+                }
+                current = rendered;
+            }
+        }
+        hits.increment();
+        return current;
+    }
+
+    /**
+     * Označí odpověď za zastaralou a naplánuje přestavbu (single-flight).
+     */
+    public void invalidate() {
+        dirty.set(true);
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(this::rebuild);
+        } catch (RejectedExecutionException e) {
+            // Plný executor - zastaralá verze se přestaví při další změně
+            rebuilding.set(false);
+            log.warn("Přestavba cache nejnovějších projektů odmítnuta executorem");
+        }
+    }
+
+    private void rebuild() {
+        try {
+            while (dirty.getAndSet(false)) {
+                rendered = render("invalidation");
+            }
+        } catch (RuntimeException e) {
+            // Zůstane předchozí verze, další změna zkusí přestavbu znovu
+            log.error("Přestavba cache nejnovějších projektů selhala: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+        // Změna mohla přijít mezi posledním while a uvolněním příznaku
+        if (dirty.get()) {
+            scheduleRebuild();
+        }
+    }
+
+    private Rendered render(String trigger) {
+        CacheMissEvent event = new CacheMissEvent();
+        event.begin();
+        long start = System.nanoTime();
+        // Přestavba běží po commitu bez uživatele, replika by ještě nemusela mít právě publikovaný projekt
+        List<ProjectResponse> projects = PrimaryReads.call(projectService::getLatestPublishedProjects);
+        try {
+            byte[] identity = writer.writeValueAsBytes(projects);
+            Rendered result = new Rendered(identity, gzip(identity), "\"latest-" + hash(identity) + "\"");
+            long elapsed = System.nanoTime() - start;
+            renderTimer.record(Duration.ofNanos(elapsed));
+            event.end();
+            if (event.shouldCommit()) {
+                event.cache = CACHE_NAME;
+                event.trigger = trigger;
+                event.commit();
+            }
+            log.debug("Cache nejnovějších projektů přestavěna ({} B, gzip {} B) za {} ms",
+                    identity.length, result.gzip().length, elapsed / 1_000_000);
+            return result;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Serializace nejnovějších projektů selhala", e);
+        }
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.gets")
+                .description("Čtení z předrenderované cache")
+                .tag("cache", CACHE_NAME)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
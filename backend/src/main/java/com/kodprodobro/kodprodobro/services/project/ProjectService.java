@@ -5,9 +5,11 @@ import com.kodprodobro.kodprodobro.dto.project.UpdateProjectRequest;
 import com.kodprodobro.kodprodobro.models.project.CreateProjectRequest;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProjectService {
     List<ProjectResponse> getAllPublishedProjects();
+    void forEachPublishedProject(Consumer<ProjectResponse> action);
     ProjectResponse getPublishedProjectById(Long id);
     List<ProjectResponse> searchPublishedProjectsByTitle(String title);
     List<ProjectResponse> filterPublishedProjectsByTechnology(String technology);
@@ -16,4 +18,5 @@ public interface ProjectService {
     ProjectResponse createProject(CreateProjectRequest request, String ownerUsername);
     ProjectResponse updateProject(Long projectId, UpdateProjectRequest request, String username);
     void deleteProject(Long projectId, String username);
+    ProjectResponse publishProject(Long projectId, String username);
 }
@@ -2,22 +2,28 @@ package com.kodprodobro.kodprodobro.services.project;
 
 import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
 import com.kodprodobro.kodprodobro.dto.project.UpdateProjectRequest;
+import com.kodprodobro.kodprodobro.event.ProjectChangedEvent;
+import com.kodprodobro.kodprodobro.event.ProjectPublishedEvent;
 import com.kodprodobro.kodprodobro.mapper.ProjectMapper;
 import com.kodprodobro.kodprodobro.models.project.CreateProjectRequest;
 import com.kodprodobro.kodprodobro.models.project.Project;
 import com.kodprodobro.kodprodobro.models.user.User;
 import com.kodprodobro.kodprodobro.repositories.project.ProjectRepository;
 import com.kodprodobro.kodprodobro.repositories.user.UserRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -28,6 +34,8 @@ public class ProjectServiceImpl implements ProjectService {
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final ProjectMapper projectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional(readOnly = true)
@@ -37,6 +45,21 @@ public class ProjectServiceImpl implements ProjectService {
                 .toList();
     }
 
+    /**
+     * Projde publikované projekty DB kurzorem a každý předá jako DTO, bez sestavení celého listu.
+     * Zpracované entity se odpojují, aby persistence context nerostl s velikostí katalogu.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachPublishedProject(Consumer<ProjectResponse> action) {
+        try (Stream<Project> projects = projectRepository.streamPublishedWithOwner()) {
+            projects.forEach(project -> {
+                action.accept(projectMapper.toResponse(project));
+                entityManager.detach(project);
+            });
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ProjectResponse getPublishedProjectById(Long id) {
@@ -58,15 +81,14 @@ public class ProjectServiceImpl implements ProjectService {
         project.setCategoryId(request.getCategoryId());
         Project savedProject = projectRepository.save(project);
         log.info("Vytvořen nový projekt s ID: {} uživatelem: {}", savedProject.getId(), ownerUsername);
+        eventPublisher.publishEvent(ProjectChangedEvent.updated(savedProject.getId()));
         return projectMapper.toResponse(savedProject);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProjectResponse> getLatestPublishedProjects() {
-        return projectRepository.findByPublishedTrue().stream()
-                .sorted((p1, p2) -> p2.getCreatedAt().compareTo(p1.getCreatedAt()))
-                .limit(10)
+        return projectRepository.findTop10ByPublishedTrueOrderByCreatedAtDesc().stream()
                 .map(projectMapper::toResponse)
                 .toList();
     }
@@ -93,6 +115,7 @@ public class ProjectServiceImpl implements ProjectService {
         if (request.repositoryUrl() != null) project.setRepositoryUrl(request.repositoryUrl());
         Project updatedProject = projectRepository.save(project);
         log.info("Projekt ID {} aktualizován uživatelem {}", projectId, username);
+        eventPublisher.publishEvent(ProjectChangedEvent.updated(projectId));
 
         return projectMapper.toResponse(updatedProject);
     }
@@ -106,6 +129,27 @@ public class ProjectServiceImpl implements ProjectService {
 
         projectRepository.delete(project);
         log.info("Projekt ID {} smazán uživatelem {}", projectId, username);
+        eventPublisher.publishEvent(ProjectChangedEvent.deleted(projectId));
+    }
+
+    @Override
+    public ProjectResponse publishProject(Long projectId, String username) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new EntityNotFoundException("Projekt nenalezen"));
+        checkOwnership(project, username);
+
+        if (project.isPublished()) {
+            // Opakované publikování nesmí znovu rozeslat oznámení
+            return projectMapper.toResponse(project);
+        }
+        project.setPublished(true);
+        Project publishedProject = projectRepository.save(project);
+        log.info("Projekt ID {} publikován uživatelem {}", projectId, username);
+
+        // Oznámení studentům se rozešle až po commitu (viz ProjectEventListener)
+        eventPublisher.publishEvent(new ProjectPublishedEvent(projectId, publishedProject.getTitle(), username));
+        eventPublisher.publishEvent(ProjectChangedEvent.updated(projectId));
+        return projectMapper.toResponse(publishedProject);
     }
 
     // --- Pomocné metody ---
@@ -0,0 +1,49 @@
+package com.kodprodobro.kodprodobro.services.project;
+
+import com.kodprodobro.kodprodobro.models.project.ProjectCatalogVersion;
+import com.kodprodobro.kodprodobro.repositories.project.ProjectCatalogVersionRepository;
+import com.kodprodobro.kodprodobro.repositories.project.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Verze projektů pro ETagy veřejných endpointů.
+ * Čtení verze je jeden dotaz na primární klíč, bez načítání entit a mapování.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectVersionService {
+
+    private final ProjectCatalogVersionRepository catalogVersionRepository;
+    private final ProjectRepository projectRepository;
+
+    @Transactional(readOnly = true)
+    public long catalogVersion() {
+        return catalogVersionRepository.findVersionById(ProjectCatalogVersion.SINGLETON_ID).orElse(0L);
+    }
+
+    /**
+     * Verze publikovaného projektu, prázdné pokud projekt neexistuje nebo není publikovaný.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> publishedProjectVersion(Long projectId) {
+        return projectRepository.findPublishedVersionById(projectId);
+    }
+
+    /**
+     * Zvýší verzi katalogu v rámci probíhající transakce, takže se projeví až s commitem změny.
+     * <p>
+     * Daň za přesný ETag: všechny změny projektů zapisují stejný řádek, souběžné zápisy se na jeho zámku
+     * řadí za sebe. Volá se ve fázi BEFORE_COMMIT, zámek se tedy drží jen od inkrementu do commitu,
+     * ne po celou transakci. Inkrement až po commitu by řazení odstranil, ale na chvíli by se nová data
+     * cachovala pod starým ETagem.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bumpCatalogVersion() {
+        catalogVersionRepository.increment(ProjectCatalogVersion.SINGLETON_ID);
+    }
+}
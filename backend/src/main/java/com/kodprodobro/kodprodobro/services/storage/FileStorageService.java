@@ -0,0 +1,166 @@
+package com.kodprodobro.kodprodobro.services.storage;
+
+import com.kodprodobro.kodprodobro.exception.file.FileStorageException;
+import com.kodprodobro.kodprodobro.exception.file.ImageFileIsTooBig;
+import com.kodprodobro.kodprodobro.exception.file.InvalidFileException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Úložiště obrázků na disku adresované obsahem.
+ * <p>
+ * Upload se čte po blocích a zároveň počítá SHA-256, do paměti se nikdy nenačte celý. Formát se ověří
+ * podle magic bytes z prvního bloku, ještě než se cokoli zapíše; limit velikosti se hlídá během čtení.
+ * Soubor se nejdřív zapíše do {@code tmp/} a pak se atomicky přesune na {@code ab/cd/<sha256>.<přípona>} -
+ * stejný obrázek nahraný vícekrát leží na disku jen jednou a rozpracovaný upload nikdy není vidět pod finálním názvem.
+ * <p>
+ * Metrika {@code storage.uploads} s tagem {@code result} (stored/deduplicated/rejected).
+ */
+@Slf4j
+@Service
+public class FileStorageService {
+
+    private static final Pattern STORED_NAME = Pattern.compile("([0-9a-f]{64})\\.([a-z]+)");
+    private static final int BUFFER_SIZE = 8192;
+
+    @Getter
+    private final Path root;
+    @Getter
+    private final Path tempDirectory;
+    private final long maxFileSize;
+    private final Counter storedCounter;
+    private final Counter deduplicatedCounter;
+    private final Counter rejectedCounter;
+
+    public FileStorageService(@Value("${app.storage.directory:uploads}") Path directory,
+                              @Value("${app.storage.max-file-size:10MB}") DataSize maxFileSize,
+                              MeterRegistry meterRegistry) {
+        this.root = directory.toAbsolutePath().normalize();
+        this.tempDirectory = root.resolve("tmp");
+        this.maxFileSize = maxFileSize.toBytes();
+        try {
+            Files.createDirectories(tempDirectory);
+        } catch (IOException e) {
+            throw new FileStorageException("Nelze vytvořit adresář úložiště " + root, e);
+        }
+        this.storedCounter = uploadCounter(meterRegistry, "stored");
+        this.deduplicatedCounter = uploadCounter(meterRegistry, "deduplicated");
+        this.rejectedCounter = uploadCounter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Uloží obrázek z proudu. Proud nezavírá.
+     *
+     * @throws InvalidFileException pokud obsah není JPEG, PNG, GIF ani WebP
+     * @throws ImageFileIsTooBig    pokud obsah přesáhne {@code app.storage.max-file-size}
+     */
+    public StoredFile store(InputStream input) {
+        Path temp = null;
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int headerLength = input.readNBytes(buffer, 0, ImageType.HEADER_LENGTH);
+            ImageType type = ImageType.detect(buffer, headerLength).orElseThrow(() -> {
+                rejectedCounter.increment();
+                return new InvalidFileException("Nepodporovaný formát obrázku, povolené jsou JPEG, PNG, GIF a WebP");
+            });
+
+            MessageDigest digest = sha256();
+            long size = 0;
+            temp = Files.createTempFile(tempDirectory, "upload-", ".part");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                for (int read = headerLength; read != -1; read = input.read(buffer)) {
+                    size += read;
+                    if (size > maxFileSize) {
+                        rejectedCounter.increment();
+                        throw new ImageFileIsTooBig("Obrázek je větší než povolených " + DataSize.ofBytes(maxFileSize).toMegabytes() + " MB");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + type.getExtension();
+            Path target = pathOf(name);
+            if (Files.exists(target)) {
+                deduplicatedCounter.increment();
+                log.debug("Obrázek {} už v úložišti je, nahraná kopie se zahazuje", name);
+            } else {
+                Files.createDirectories(target.getParent());
+                // Souběžný upload stejného obsahu přepíše cíl stejnými bajty
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                storedCounter.increment();
+                log.info("Uložen obrázek {} ({} B)", name, size);
+            }
+            return new StoredFile(name, type, target, size);
+        } catch (IOException e) {
+            throw new FileStorageException("Uložení obrázku selhalo", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Najde uložený obrázek podle názvu. Názvy, které úložiště nemohlo vytvořit (cesty, jiné přípony), rovnou odmítne.
+     */
+    public Optional<StoredFile> load(String name) {
+        var matcher = STORED_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return ImageType.fromExtension(matcher.group(2)).flatMap(type -> {
+            Path path = pathOf(name);
+            try {
+                return Optional.of(new StoredFile(name, type, path, Files.size(path)));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    private Path pathOf(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("Nepodařilo se smazat dočasný soubor {}", temp, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 není k dispozici", e);
+        }
+    }
+
+    private static Counter uploadCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("storage.uploads")
+                .description("Nahrané obrázky podle výsledku")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kodprodobro.kodprodobro.services.storage;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Podporované formáty obrázků, rozpoznané podle magic bytes na začátku souboru (ne podle přípony nebo Content-Type klienta).
+ */
+@Getter
+public enum ImageType {
+
+    JPEG("jpg", MediaType.IMAGE_JPEG),
+    PNG("png", MediaType.IMAGE_PNG),
+    GIF("gif", MediaType.IMAGE_GIF),
+    WEBP("webp", MediaType.parseMediaType("image/webp"));
+
+    /**
+     * Počet bajtů hlavičky, který stačí k rozpoznání všech formátů (WebP: {@code RIFF????WEBP}).
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87_MAGIC = "GIF87a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GIF89_MAGIC = "GIF89a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RIFF_MAGIC = "RIFF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WEBP_MAGIC = "WEBP".getBytes(StandardCharsets.US_ASCII);
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ImageType(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Rozpozná formát z prvních {@code length} bajtů souboru.
+     */
+    public static Optional<ImageType> detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, JPEG_MAGIC)) {
+            return Optional.of(JPEG);
+        }
+        if (startsWith(header, length, 0, PNG_MAGIC)) {
+            return Optional.of(PNG);
+        }
+        if (startsWith(header, length, 0, GIF87_MAGIC) || startsWith(header, length, 0, GIF89_MAGIC)) {
+            return Optional.of(GIF);
+        }
+        if (startsWith(header, length, 0, RIFF_MAGIC) && startsWith(header, length, 8, WEBP_MAGIC)) {
+            return Optional.of(WEBP);
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<ImageType> fromExtension(String extension) {
+        return Arrays.stream(values()).filter(type -> type.extension.equals(extension)).findFirst();
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] magic) {
+        return length >= offset + magic.length
+                && Arrays.equals(header, offset, offset + magic.length, magic, 0, magic.length);
+    }
+}
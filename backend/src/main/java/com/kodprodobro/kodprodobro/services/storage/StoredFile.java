@@ -0,0 +1,13 @@
+package com.kodprodobro.kodprodobro.services.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Uložený obrázek. Název je SHA-256 obsahu s příponou formátu, stejný obsah má vždy stejný název.
+ */
+public record StoredFile(String name, ImageType type, Path path, long size) {
+
+    public String hash() {
+        return name.substring(0, name.indexOf('.'));
+    }
+}
@@ -0,0 +1,317 @@
+package com.kodprodobro.kodprodobro.services.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Náhledy obrázků z {@link FileStorageService} ve velikostech {@link ThumbnailSize}.
+ * <p>
+ * Originál se dekóduje jednou (u velkých obrázků rovnou se subsamplingem) a všechny velikosti vzniknou postupným
+ * zmenšováním od největší. Náhledy se ukládají do {@code thumbnails/} úložiště pod hashem originálu a šířkou,
+ * neprůhledné jako JPEG, s průhledností jako PNG. ImageIO z JDK neumí WebP zapsat ani přečíst - WebP originály
+ * náhledy nemají a servírují se beze změny.
+ * <p>
+ * Generování běží na vlastním omezeném poolu s omezenou frontou. Když je fronta plná, úloha se odmítne
+ * (metrika {@code images.thumbnails.jobs} s {@code result=rejected}) a volající dostane originál - náhled vznikne
+ * při dalším požadavku. Na náhled se nikdy nečeká, požadavek nedrží vlákno serveru. Souběžné požadavky
+ * na stejný obrázek sdílejí jednu úlohu.
+ */
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int MAX_UNDECODABLE = 10_000;
+
+    private final Path directory;
+    private final Path tempDirectory;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    // Originály, které nejde dekódovat - obsah se pod hashem nemění, znovu to zkoušet nemá smysl.
+    // Omezená velikost: vypadlý hash se jen jednou zbytečně zkusí dekódovat znovu.
+    private final Cache<String, Boolean> undecodable = Caffeine.newBuilder()
+            .maximumSize(MAX_UNDECODABLE)
+            .build();
+
+    // --- Metriky ---
+    private final Timer renderTimer;
+    private final Counter generatedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public ThumbnailService(FileStorageService fileStorageService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.images.thumbnails.workers:2}") int workers,
+                            @Value("${app.images.thumbnails.queue-capacity:32}") int queueCapacity,
+                            @Value("${app.images.thumbnails.max-pixels:40000000}") long maxPixels) {
+        if (workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Počet vláken i kapacita fronty náhledů musí být kladné");
+        }
+        this.directory = fileStorageService.getRoot().resolve("thumbnails");
+        this.tempDirectory = fileStorageService.getTempDirectory();
+        this.maxPixels = maxPixels;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("thumbnail-");
+        threadFactory.setDaemon(true);
+        threadFactory.setThreadPriority(Thread.NORM_PRIORITY - 1);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("images.thumbnails.queue", executor, pool -> pool.getQueue().size())
+                .description("Obrázky čekající na vygenerování náhledů")
+                .register(meterRegistry);
+        Gauge.builder("images.thumbnails.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Obrázky, jejichž náhledy se právě generují")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("images.thumbnails.render")
+                .description("Dekódování originálu a zápis všech jeho náhledů")
+                .register(meterRegistry);
+        this.generatedCounter = jobCounter(meterRegistry, "generated");
+        this.rejectedCounter = jobCounter(meterRegistry, "rejected");
+        this.failedCounter = jobCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Rozpracované úlohy se zahodí - náhledy se při dalším požadavku vygenerují znovu.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public boolean supports(ImageType type) {
+        return type != ImageType.WEBP;
+    }
+
+    /**
+     * Zařadí vygenerování všech náhledů obrázku. Už hotové náhledy se negenerují znovu.
+     *
+     * @return dokončí se po zápisu náhledů, výjimečně při odmítnutí úlohy (plná fronta) nebo chybě
+     */
+    public CompletableFuture<Void> generate(StoredFile file) {
+        if (!supports(file.type()) || find(file, ThumbnailSize.SMALL).isPresent()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (undecodable.getIfPresent(file.hash()) != null) {
+            return CompletableFuture.failedFuture(new IOException("Obrázek " + file.name() + " nejde dekódovat"));
+        }
+        CompletableFuture<Void> job = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(file.hash(), job);
+        if (running != null) {
+            return running;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    renderTimer.recordCallable(() -> {
+                        render(file);
+                        return null;
+                    });
+                    generatedCounter.increment();
+                    job.complete(null);
+                } catch (UndecodableImageException e) {
+                    failedCounter.increment();
+                    undecodable.put(file.hash(), Boolean.TRUE);
+                    log.warn("Obrázek {} nejde dekódovat, náhledy nebudou: {}", file.name(), e.getMessage());
+                    job.completeExceptionally(e);
+                } catch (Exception e) {
+                    failedCounter.increment();
+                    log.warn("Generování náhledů obrázku {} selhalo: {}", file.name(), e.getMessage());
+                    job.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(file.hash(), job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            inFlight.remove(file.hash(), job);
+            job.completeExceptionally(e);
+        }
+        return job;
+    }
+
+    /**
+     * Hotový náhled. Chybějící zařadí ke generování, ale nečeká na něj.
+     *
+     * @return prázdné, pokud náhled pro formát nejde vytvořit nebo ještě není hotový
+     */
+    public Optional<StoredFile> thumbnail(StoredFile file, ThumbnailSize size) {
+        Optional<StoredFile> existing = find(file, size);
+        if (existing.isEmpty() && supports(file.type())) {
+            generate(file);
+        }
+        return existing;
+    }
+
+    /**
+     * Náhled, pokud už na disku je.
+     */
+    public Optional<StoredFile> find(StoredFile file, ThumbnailSize size) {
+        for (ImageType type : new ImageType[]{ImageType.JPEG, ImageType.PNG}) {
+            Path path = pathOf(file, size, type);
+            if (Files.isRegularFile(path)) {
+                try {
+                    return Optional.of(new StoredFile(path.getFileName().toString(), type, path, Files.size(path)));
+                } catch (IOException e) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void render(StoredFile file) throws IOException {
+        BufferedImage image = decode(file);
+        ImageType outputType = image.getColorModel().hasAlpha() ? ImageType.PNG : ImageType.JPEG;
+        ThumbnailSize[] sizes = ThumbnailSize.values();
+        // Od největšího náhledu, každý další se zmenšuje z předchozího. SMALL se zapisuje poslední,
+        // jeho existence proto znamená, že jsou hotové všechny velikosti.
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            image = resize(image, sizes[i].getWidth());
+            write(image, outputType, pathOf(file, sizes[i], outputType));
+        }
+        log.debug("Vygenerovány náhledy obrázku {}", file.name());
+    }
+
+    /**
+     * Dekóduje první snímek. Z obrázků mnohem větších než největší náhled se čte jen každý n-tý pixel.
+     */
+    private BufferedImage decode(StoredFile file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.path().toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new UndecodableImageException("formát " + file.type() + " ImageIO nepodporuje");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new UndecodableImageException(width + "x" + height + " je víc než " + maxPixels + " pixelů");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (ThumbnailSize.LARGE.getWidth() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } catch (UndecodableImageException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                // Poškozená data: IIOException, EOFException, u některých readerů i runtime výjimky
+                throw new UndecodableImageException(e.toString());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Zmenší na šířku postupným půlením (bilineárně), větší skok najednou by ztrácel detaily.
+     */
+    static BufferedImage resize(BufferedImage source, int targetWidth) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int finalWidth = Math.min(targetWidth, source.getWidth());
+        if (source.getWidth() == finalWidth && source.getType() == type) {
+            return source;
+        }
+        BufferedImage current = source;
+        do {
+            int width = Math.max(finalWidth, current.getWidth() / 2);
+            int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+            BufferedImage scaled = new BufferedImage(width, height, type);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = scaled;
+        } while (current.getWidth() > finalWidth);
+        return current;
+    }
+
+    private void write(BufferedImage image, ImageType type, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(tempDirectory, "thumbnail-", ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(type == ImageType.PNG ? "png" : "jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (type == ImageType.JPEG) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                    param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path pathOf(StoredFile file, ThumbnailSize size, ImageType type) {
+        String hash = file.hash();
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + "-" + size.getWidth() + "." + type.getExtension());
+    }
+
+    private static Counter jobCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("images.thumbnails.jobs")
+                .description("Úlohy generování náhledů podle výsledku")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Poškozený nebo příliš velký originál - na rozdíl od chyb zápisu se opakováním nespraví.
+     */
+    private static class UndecodableImageException extends IOException {
+        UndecodableImageException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.kodprodobro.kodprodobro.services.storage;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Šířky náhledů. Výška se dopočítá z poměru stran, menší obrázky se nezvětšují.
+ */
+@Getter
+public enum ThumbnailSize {
+
+    /** Výpisy projektů, avatary v seznamech. */
+    SMALL(160),
+    /** Karta projektu, profil. */
+    MEDIUM(480),
+    /** Detail projektu. */
+    LARGE(1024);
+
+    private final int width;
+
+    ThumbnailSize(int width) {
+        this.width = width;
+    }
+
+    public String pathName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<ThumbnailSize> fromPathName(String name) {
+        return Arrays.stream(values()).filter(size -> size.pathName().equals(name)).findFirst();
+    }
+}
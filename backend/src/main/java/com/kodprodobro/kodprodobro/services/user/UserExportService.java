@@ -0,0 +1,118 @@
+package com.kodprodobro.kodprodobro.services.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kodprodobro.kodprodobro.dto.user.UserResponse;
+import com.kodprodobro.kodprodobro.repositories.user.UserExportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export všech uživatelů pro administrátory v konstantní paměti.
+ * Řádky se čtou z DB kurzorem a rovnou zapisují do výstupu, nic se nehromadí v listu.
+ */
+@Slf4j
+@Service
+public class UserExportService {
+
+    private static final String CSV_HEADER = "id,username,email,roles";
+
+    private final UserExportRepository userExportRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter userWriter;
+
+    public UserExportService(UserExportRepository userExportRepository, ObjectMapper objectMapper) {
+        this.userExportRepository = userExportRepository;
+        this.objectMapper = objectMapper;
+        // Flush po každém řádku by z každého uživatele udělal samostatný TCP chunk
+        this.userWriter = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Zapíše všechny uživatele do výstupu v požadovaném formátu.
+     * Transakce drží otevřený DB kurzor po celou dobu zápisu.
+     *
+     * @param format formát exportu
+     * @param out    výstup (typicky output stream HTTP odpovědi), metoda ho nezavírá
+     * @return počet exportovaných uživatelů
+     */
+    @Transactional(readOnly = true)
+    public long export(UserExportFormat format, OutputStream out) throws IOException {
+        try (Stream<UserResponse> users = userExportRepository.streamAll()) {
+            long count = switch (format) {
+                case NDJSON -> writeNdjson(users, out);
+                case CSV -> writeCsv(users, out);
+            };
+            log.info("Export uživatelů ({}) dokončen, {} záznamů", format, count);
+            return count;
+        }
+    }
+
+    private long writeNdjson(Stream<UserResponse> users, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Jeden JSON objekt na řádek
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            Iterator<UserResponse> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                userWriter.writeValue(generator, iterator.next());
+                count++;
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Stream<UserResponse> users, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        Iterator<UserResponse> iterator = users.iterator();
+        while (iterator.hasNext()) {
+            UserResponse user = iterator.next();
+            writer.write(String.valueOf(user.id()));
+            writer.write(',');
+            writer.write(csvField(user.username()));
+            writer.write(',');
+            writer.write(csvField(user.email()));
+            writer.write(',');
+            writer.write(csvField(user.role()));
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Escapování podle RFC 4180 + ochrana proti CSV/formula injection v Excelu.
+     */
+    static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String safe = value;
+        char first = safe.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            safe = "'" + safe;
+        }
+        if (safe.indexOf(',') >= 0 || safe.indexOf('"') >= 0 || safe.indexOf('\n') >= 0 || safe.indexOf('\r') >= 0) {
+            return '"' + safe.replace("\"", "\"\"") + '"';
+        }
+        return safe;
+    }
+}
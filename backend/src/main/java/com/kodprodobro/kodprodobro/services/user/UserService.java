@@ -1,6 +1,7 @@
 package com.kodprodobro.kodprodobro.services.user;
 
 
+import com.kodprodobro.kodprodobro.dto.notification.NotificationPreferencesRequest;
 import com.kodprodobro.kodprodobro.dto.user.UserUpdateResponse;
 import com.kodprodobro.kodprodobro.exception.email.EmailAlreadyExistsException;
 import com.kodprodobro.kodprodobro.exception.user.UserAlreadyExistException;
@@ -8,10 +9,13 @@ import com.kodprodobro.kodprodobro.models.enums.Role;
 import com.kodprodobro.kodprodobro.repositories.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.kodprodobro.kodprodobro.models.user.NotificationPreferences;
 import com.kodprodobro.kodprodobro.models.user.User;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -44,7 +48,7 @@ public class UserService {
      */
 
     @Transactional
-    @CacheEvict(value = { "users", "usersById", "allUsers" }, allEntries = true)
+    @CacheEvict(value = { "users", "usersById" }, allEntries = true)
     public User registerNewUser(User user) {
         // 1. Validace
         validateUser(user);
@@ -62,7 +66,7 @@ public class UserService {
     }
 
     @Transactional
-    @CacheEvict(value = { "users", "usersById", "allUsers" }, allEntries = true)
+    @CacheEvict(value = { "users", "usersById" }, allEntries = true)
     public User updateUser(User user, UserUpdateResponse userUpdateResponse) {
 
         user.setEmail(userUpdateResponse.email());
@@ -72,6 +76,29 @@ public class UserService {
         return updatedUser;
     }
 
+    /**
+     * Částečná aktualizace nastavení notifikací (null = beze změny).
+     *
+     * @param username uživatelské jméno přihlášeného uživatele
+     * @param request  nové hodnoty nastavení
+     * @return uložené nastavení
+     */
+    @Transactional
+    @CacheEvict(value = { "users", "usersById" }, allEntries = true)
+    public NotificationPreferences updateNotificationPreferences(String username, NotificationPreferencesRequest request) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+
+        NotificationPreferences preferences = user.getNotificationPreferences();
+        if (request.newMessages() != null) preferences.setNewMessages(request.newMessages());
+        if (request.projectUpdates() != null) preferences.setProjectUpdates(request.projectUpdates());
+        if (request.emailEnabled() != null) preferences.setEmailEnabled(request.emailEnabled());
+
+        userRepository.save(user);
+        log.info("Nastavení notifikací uživatele {} aktualizováno", username);
+        return preferences;
+    }
+
     /**
      * Vytvoření tokenu pro reset hesla a jeho přiřazení uživateli.
      *
@@ -133,7 +160,7 @@ public class UserService {
 
     // getters, setters, další metody...
     @Transactional
-    @CacheEvict(value = { "users", "usersById", "allUsers" }, allEntries = true)
+    @CacheEvict(value = { "users", "usersById" }, allEntries = true)
     public void deleteUserById(Long userId) {
         userRepository.deleteById(userId);
     }
@@ -154,7 +181,7 @@ public class UserService {
      * @param newRole Nová role (USER nebo ADMIN).
      */
     @Transactional
-    @CacheEvict(value = { "users", "usersById", "allUsers" }, allEntries = true)
+    @CacheEvict(value = { "users", "usersById" }, allEntries = true)
     public void changeUserRole(Long userId, Role newRole) {
         // 1. Načtení uživatele
         User user = userRepository.findById(userId)
@@ -174,9 +201,16 @@ public class UserService {
         return userRepository.findById(userId);
     }
 
-    @Cacheable("allUsers")
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    /**
+     * Stránkovaný seznam uživatelů pro administraci.
+     * Celou tabulku nikdy nenačítá ani necachuje - pro kompletní výpis slouží {@link UserExportService}.
+     *
+     * @param pageable stránka a řazení
+     * @return stránka uživatelů
+     */
+    @Transactional(readOnly = true)
+    public Page<User> findUsers(Pageable pageable) {
+        return userRepository.findAll(pageable);
     }
 
     public boolean isOwner(Long userId, String username) {
@@ -0,0 +1,113 @@
+-- Výchozí schéma odpovídající entitám (dřív vytvářené přes spring.jpa.hibernate.ddl-auto=update).
+-- Existující databáze ho už mají, Flyway je při prvním běhu označí jako baseline (viz FlywayConfig).
+
+create sequence users_seq start with 1 increment by 50;
+create sequence projects_seq start with 1 increment by 50;
+create sequence chats_seq start with 1 increment by 50;
+create sequence chat_messages_seq start with 1 increment by 50;
+create sequence notifications_seq start with 1 increment by 50;
+create sequence password_reset_token_seq start with 1 increment by 50;
+create sequence revoked_token_seq start with 1 increment by 50;
+create sequence blacklisted_tokens_seq start with 1 increment by 50;
+
+create table users (
+    id                          bigint                      not null,
+    username                    varchar(30)                 not null unique,
+    email                       varchar(50)                 not null unique,
+    password                    varchar(100)                not null,
+    password_reset_token        varchar(255),
+    password_reset_token_expiry timestamp(6) with time zone,
+    notify_by_email             boolean default true        not null,
+    notify_new_messages         boolean default true        not null,
+    notify_project_updates      boolean default true        not null,
+    created_at                  timestamp(6) with time zone not null,
+    updated_at                  timestamp(6) with time zone,
+    primary key (id)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    roles   varchar(255) check (roles in ('USER', 'STUDENT', 'TEACHER', 'ADMIN', 'NONPROFIT')),
+    constraint fk_user_roles_user foreign key (user_id) references users
+);
+
+create table projects (
+    id             bigint        not null,
+    title          varchar(100)  not null,
+    description    varchar(2000) not null,
+    owner_id       bigint        not null,
+    category_id    bigint        not null,
+    published      boolean       not null,
+    repository_url varchar(255),
+    created_at     timestamp(6),
+    updated_at     timestamp(6),
+    version        bigint default 0,
+    primary key (id),
+    constraint fk_projects_owner foreign key (owner_id) references users
+);
+
+create table project_catalog_version (
+    id      bigint not null,
+    version bigint not null,
+    primary key (id)
+);
+
+create table chats (
+    id bigint not null,
+    primary key (id)
+);
+
+create table chat_participants (
+    chat_id bigint not null,
+    user_id bigint not null,
+    primary key (chat_id, user_id),
+    constraint fk_chat_participants_chat foreign key (chat_id) references chats,
+    constraint fk_chat_participants_user foreign key (user_id) references users
+);
+
+create table chat_messages (
+    id        bigint not null,
+    chat_id   bigint not null,
+    sender_id bigint not null,
+    content   varchar(4000),
+    timestamp timestamp(6),
+    primary key (id),
+    constraint fk_chat_messages_chat foreign key (chat_id) references chats,
+    constraint fk_chat_messages_sender foreign key (sender_id) references users
+);
+
+create table notifications (
+    id           bigint                      not null,
+    recipient_id bigint                      not null,
+    project_id   bigint,
+    type         varchar(32)                 not null check (type in ('PROJECT_PUBLISHED', 'NEW_MESSAGE')),
+    title        varchar(255)                not null,
+    message      varchar(1000),
+    is_read      boolean                     not null,
+    created_at   timestamp(6) with time zone not null,
+    primary key (id),
+    constraint fk_notifications_recipient foreign key (recipient_id) references users
+);
+
+create table password_reset_token (
+    id          bigint                      not null,
+    token       varchar(255)                not null unique,
+    user_id     bigint                      not null unique,
+    expiry_date timestamp(6) with time zone not null,
+    primary key (id),
+    constraint fk_password_reset_token_user foreign key (user_id) references users
+);
+
+create table revoked_token (
+    id              bigint not null,
+    token           varchar(255),
+    expiration_date timestamp(6) with time zone,
+    primary key (id)
+);
+
+create table blacklisted_tokens (
+    id              bigint                      not null,
+    token           varchar(512)                not null unique,
+    expiration_date timestamp(6) with time zone not null,
+    primary key (id)
+);
@@ -0,0 +1,13 @@
+-- Databáze založené přes ddl-auto=update před přechodem na sekvence je ještě nemají.
+-- Posun za existující ID dělá při startu IdSequenceAligner.
+create sequence if not exists users_seq start with 1 increment by 50;
+create sequence if not exists projects_seq start with 1 increment by 50;
+create sequence if not exists chats_seq start with 1 increment by 50;
+create sequence if not exists chat_messages_seq start with 1 increment by 50;
+create sequence if not exists notifications_seq start with 1 increment by 50;
+create sequence if not exists password_reset_token_seq start with 1 increment by 50;
+create sequence if not exists revoked_token_seq start with 1 increment by 50;
+create sequence if not exists blacklisted_tokens_seq start with 1 increment by 50;
+
+-- Trigramy pro hledání v názvu projektu (LIKE '%...%'), od PG 13 trusted extension
+create extension if not exists pg_trgm;
@@ -0,0 +1,43 @@
+-- Indexy pro dotazy z repozitářů. CONCURRENTLY nezamyká tabulky pro zápis,
+-- Flyway proto tuto migraci spouští mimo transakci. Kontroluje je RepositoryQueryPlanTest.
+-- Indexy nad objekty, které starší databáze dostanou až ve V4, jsou ve V5.
+
+-- ProjectRepository.findTop10ByPublishedTrueOrderByCreatedAtDesc
+create index concurrently if not exists idx_projects_published_created_at
+    on projects (created_at desc) where published;
+
+-- ProjectRepository.findByTitleContainingIgnoreCaseAndPublishedTrue: upper(title) like upper(?)
+create index concurrently if not exists idx_projects_published_title_trgm
+    on projects using gin (upper(title) gin_trgm_ops) where published;
+
+-- Cizí klíč: mazání uživatele a projekty vlastníka
+create index concurrently if not exists idx_projects_owner_id
+    on projects (owner_id);
+
+-- ChatMessageRepository.findResponsesByChatId: zprávy chatu v pořadí bez řazení
+create index concurrently if not exists idx_chat_messages_chat_id_timestamp
+    on chat_messages (chat_id, timestamp, id);
+
+-- Cizí klíč: mazání uživatele
+create index concurrently if not exists idx_chat_messages_sender_id
+    on chat_messages (sender_id);
+
+-- ChatRepository.findChatParticipantsByUsername: chaty uživatele (PK začíná chat_id)
+create index concurrently if not exists idx_chat_participants_user_id
+    on chat_participants (user_id, chat_id);
+
+-- UserRepository.findProjectUpdateRecipientsAfter: kontrola role v EXISTS
+create index concurrently if not exists idx_user_roles_user_id_roles
+    on user_roles (user_id, roles);
+
+-- UserRepository.findByPasswordResetToken: token má jen malá část uživatelů
+create index concurrently if not exists idx_users_password_reset_token
+    on users (password_reset_token) where password_reset_token is not null;
+
+-- PasswordResetRepository.deleteByExpiryDateBefore (noční úklid)
+create index concurrently if not exists idx_password_reset_token_expiry_date
+    on password_reset_token (expiry_date);
+
+-- RevokedTokenRepository.existsByToken
+create index concurrently if not exists idx_revoked_token_token
+    on revoked_token (token);
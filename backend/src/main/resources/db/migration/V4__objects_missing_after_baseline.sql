@@ -0,0 +1,35 @@
+-- Databáze z doby ddl-auto=update dostanou baseline verze 1 a V1 přeskočí (viz FlywayConfig).
+-- Objekty, které do schématu přibyly až s V1, se tu doplní, pokud je Hibernate dřív nevytvořil sám.
+-- Na databázi založené přes V1 nic nezmění.
+
+-- NotificationPreferences uživatele
+alter table users add column if not exists notify_by_email boolean default true not null;
+alter table users add column if not exists notify_new_messages boolean default true not null;
+alter table users add column if not exists notify_project_updates boolean default true not null;
+
+-- Optimistický zámek projektu a čas poslední změny pro dohánění matching indexu
+alter table projects add column if not exists updated_at timestamp(6);
+alter table projects add column if not exists version bigint default 0;
+update projects set updated_at = created_at where updated_at is null;
+update projects set version = 0 where version is null;
+
+-- Verze katalogu pro ETag veřejných výpisů, jediný řádek (ProjectCatalogVersion.SINGLETON_ID)
+create table if not exists project_catalog_version (
+    id      bigint not null,
+    version bigint not null,
+    primary key (id)
+);
+insert into project_catalog_version (id, version) values (1, 0) on conflict (id) do nothing;
+
+create table if not exists notifications (
+    id           bigint                      not null,
+    recipient_id bigint                      not null,
+    project_id   bigint,
+    type         varchar(32)                 not null check (type in ('PROJECT_PUBLISHED', 'NEW_MESSAGE')),
+    title        varchar(255)                not null,
+    message      varchar(1000),
+    is_read      boolean                     not null,
+    created_at   timestamp(6) with time zone not null,
+    primary key (id),
+    constraint fk_notifications_recipient foreign key (recipient_id) references users
+);
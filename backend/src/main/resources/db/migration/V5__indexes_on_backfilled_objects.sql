@@ -0,0 +1,9 @@
+-- Indexy nad objekty, které starší databáze dostanou až ve V4. Stejně jako V3 běží mimo transakci.
+
+-- ProjectRepository.findByPublishedTrueAndUpdatedAtAfter (dohánění matching indexu)
+create index concurrently if not exists idx_projects_published_updated_at
+    on projects (updated_at) where published;
+
+-- Notifikace příjemce od nejnovějších, zároveň index cizího klíče
+create index concurrently if not exists idx_notifications_recipient_id_created_at
+    on notifications (recipient_id, created_at desc);
@@ -0,0 +1,106 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HikariPoolTuner Tests")
+class HikariPoolTunerTest {
+
+    @Test
+    @DisplayName("Velikost poolu z počtu jader, omezená kapacitou databáze")
+    void poolSize_CoresCappedByDatabase() {
+        assertThat(HikariPoolTuner.poolSize(4, 1, 100, 10, 1, 1.0)).isEqualTo(9);
+        // 3 instance si dělí 90 volných spojení
+        assertThat(HikariPoolTuner.poolSize(32, 1, 100, 10, 3, 1.0)).isEqualTo(30);
+        assertThat(HikariPoolTuner.poolSize(1, 0, 12, 10, 4, 1.0)).isEqualTo(2);
+        // Polovina rozpočtu podle jader pro pool repliky
+        assertThat(HikariPoolTuner.poolSize(8, 2, 100, 10, 1, 0.5)).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("S replikou si pooly dělí rozpočet podle jader, replika respektuje vlastní nastavení")
+    void tune_WithReplica_SplitsBudgetAndHonorsReplicaSettings() {
+        HikariDataSource primary = new HikariDataSource();
+        primary.setPoolName("primary");
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName(HikariPoolTuner.REPLICA_POOL_NAME);
+        replica.setConnectionTimeout(250);
+
+        MockEnvironment environment = environment()
+                .withProperty("app.datasource.replica.url", "jdbc:postgresql://replica:5432/kodprodobro")
+                .withProperty("app.datasource.pool.replica-share", "0.25")
+                .withProperty("app.datasource.pool.replica-db-max-connections", "14")
+                .withProperty("app.datasource.replica.hikari.connection-timeout", "250");
+        new HikariPoolTuner(environment).tune(primary);
+        new HikariPoolTuner(environment).tune(replica);
+
+        int budget = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        assertThat(primary.getMaximumPoolSize()).isEqualTo(Math.max(2, Math.min(90, Math.round(budget * 0.75f))));
+        assertThat(replica.getMaximumPoolSize()).isEqualTo(Math.max(2, Math.min(4, Math.round(budget * 0.25f))));
+        assertThat(primary.getConnectionTimeout()).isEqualTo(5_000);
+        assertThat(replica.getConnectionTimeout()).isEqualTo(250);
+    }
+
+    @Test
+    @DisplayName("Bez explicitního nastavení dostane pool pevnou velikost, timeouty a cache prepared statementů")
+    void tune_AppliesDefaults() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://localhost:5432/kodprodobro");
+
+        new HikariPoolTuner(environment()
+                .withProperty("app.datasource.pool.db-max-connections", "14")
+                .withProperty("app.datasource.pool.leak-detection-threshold", "30s"))
+                .tune(dataSource);
+
+        assertThat(dataSource.getMaximumPoolSize()).isLessThanOrEqualTo(4);
+        assertThat(dataSource.getMinimumIdle()).isEqualTo(dataSource.getMaximumPoolSize());
+        assertThat(dataSource.getConnectionTimeout()).isEqualTo(5_000);
+        assertThat(dataSource.getLeakDetectionThreshold()).isEqualTo(30_000);
+        assertThat(dataSource.getKeepaliveTime()).isEqualTo(120_000);
+        assertThat(dataSource.getDataSourceProperties())
+                .containsEntry("prepareThreshold", "5")
+                .containsEntry("preparedStatementCacheQueries", "512")
+                .containsEntry("preparedStatementCacheSizeMiB", "8");
+    }
+
+    @Test
+    @DisplayName("Hodnoty ze spring.datasource.hikari.* zůstanou beze změny")
+    void tune_KeepsExplicitHikariSettings() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://localhost:5432/kodprodobro");
+        dataSource.setMaximumPoolSize(40);
+        dataSource.setMinimumIdle(5);
+        dataSource.addDataSourceProperty("prepareThreshold", "0");
+
+        new HikariPoolTuner(environment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "40")
+                .withProperty("spring.datasource.hikari.minimum-idle", "5"))
+                .tune(dataSource);
+
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(40);
+        assertThat(dataSource.getMinimumIdle()).isEqualTo(5);
+        assertThat(dataSource.getDataSourceProperties()).containsEntry("prepareThreshold", "0");
+    }
+
+    @Test
+    @DisplayName("Vlastnosti PostgreSQL ovladače se jiné databázi nenastaví")
+    void tune_OtherDatabase_NoDriverProperties() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:test");
+
+        new HikariPoolTuner(environment()).tune(dataSource);
+
+        assertThat(dataSource.getDataSourceProperties()).isEmpty();
+    }
+
+    private static MockEnvironment environment() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        return environment;
+    }
+}
@@ -0,0 +1,109 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("MetricsConfig Tests")
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("HTTP požadavky dostanou SLO hranice podle route, ostatní výchozí")
+    void httpFilter_AppliesRouteSlo() {
+        meterRegistry.config().meterFilter(new MetricsConfig().httpServerRequestsHistogramFilter(new MockEnvironment()));
+
+        assertThat(sloBoundaries(httpTimer("/api/projects/latest"))).containsExactly(5.0, 10.0, 25.0, 50.0, 100.0);
+        assertThat(sloBoundaries(httpTimer("/api/chat/{chatId}"))).containsExactly(50.0, 100.0, 250.0, 500.0, 1000.0, 2000.0);
+    }
+
+    @Test
+    @DisplayName("SLO hranice lze přepsat vlastností, i pro jednotlivou route")
+    void httpFilter_PropertiesOverrideDefaults() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.metrics.http.slo", "20ms,200ms")
+                .withProperty("app.metrics.http.route-slo[/api/auth/login]", "300ms,3s");
+        meterRegistry.config().meterFilter(new MetricsConfig().httpServerRequestsHistogramFilter(environment));
+
+        assertThat(sloBoundaries(httpTimer("/api/auth/login"))).containsExactly(300.0, 3000.0);
+        assertThat(sloBoundaries(httpTimer("/api/users/me"))).containsExactly(20.0, 200.0);
+        assertThat(sloBoundaries(httpTimer("/api/projects/latest"))).containsExactly(5.0, 10.0, 25.0, 50.0, 100.0);
+    }
+
+    @Test
+    @DisplayName("Proxy služby změří volání podle metody a výsledku")
+    void serviceTimingPostProcessor_RecordsPerMethodAndOutcome() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        ServiceTimingPostProcessor postProcessor =
+                new ServiceTimingPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class), Greeter.class, "greeter.service");
+
+        Greeter greeter = (Greeter) postProcessor.postProcessAfterInitialization(new DefaultGreeter(), "greeter");
+        assertThat(greeter.greet("Eva")).isEqualTo("Ahoj Eva");
+        greeter.greet("Petr");
+        assertThatThrownBy(() -> greeter.greet(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(meterRegistry.get("greeter.service").tag("method", "greet").tag("outcome", "success")
+                .tag("exception", "none").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("greeter.service").tag("outcome", "error").tag("exception", "IllegalArgumentException")
+                .timer().count())
+                .isEqualTo(1);
+        // Jiné beany nechá být
+        Object other = new Object();
+        assertThat(postProcessor.postProcessAfterInitialization(other, "other")).isSameAs(other);
+    }
+
+    @Test
+    @DisplayName("Ověření hesla se měří zvlášť pro shodu a neshodu")
+    void timedPasswordEncoder_RecordsMatchAndMismatch() {
+        TimedPasswordEncoder encoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry);
+
+        String hash = encoder.encode("heslo123");
+        assertThat(encoder.matches("heslo123", hash)).isTrue();
+        assertThat(encoder.matches("spatne", hash)).isFalse();
+
+        assertThat(meterRegistry.get("security.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.password.hash").tag("outcome", "match").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.password.hash").tag("outcome", "mismatch").timer().count()).isEqualTo(1);
+    }
+
+    private Timer httpTimer(String uri) {
+        Timer timer = Timer.builder("http.server.requests").tag("uri", uri).register(meterRegistry);
+        timer.record(Duration.ofMillis(7));
+        return timer;
+    }
+
+    private static double[] sloBoundaries(Timer timer) {
+        return Arrays.stream(timer.takeSnapshot().histogramCounts())
+                .mapToDouble(bucket -> bucket.bucket(TimeUnit.MILLISECONDS))
+                .toArray();
+    }
+
+    interface Greeter {
+        String greet(String name);
+    }
+
+    static class DefaultGreeter implements Greeter {
+        @Override
+        public String greet(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("Chybí jméno");
+            }
+            return "Ahoj " + name;
+        }
+    }
+}
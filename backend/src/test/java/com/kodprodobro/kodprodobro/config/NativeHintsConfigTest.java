@@ -0,0 +1,62 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.kodprodobro.kodprodobro.controllers.ProjectController;
+import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
+import com.kodprodobro.kodprodobro.models.chat.ChatMessage;
+import com.kodprodobro.kodprodobro.models.user.User;
+import com.kodprodobro.kodprodobro.services.project.ProjectService;
+import com.kodprodobro.kodprodobro.services.project.ProjectServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("NativeHintsConfig Tests")
+class NativeHintsConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeHintsConfigTest() {
+        new NativeHintsConfig.ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Entity, DTO mapperů, jjwt a šablony mají hinty")
+    void registersApplicationHints() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(ChatMessage.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(User.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ProjectResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(
+                ClassUtils.resolveClassName("io.jsonwebtoken.impl.DefaultJwtParserBuilder", null))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Deserializer")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("templates/welcome-email.html")).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("Post-processory hlásí AOT typ proxy, kterou za běhu vytvoří")
+    void postProcessors_PredictProxyTypes() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        SmartInstantiationAwareBeanPostProcessor controllers = TracingConfig
+                .controllerObservationPostProcessor(beanFactory.getBeanProvider(ObservationRegistry.class));
+        SmartInstantiationAwareBeanPostProcessor services = MetricsConfig
+                .projectServiceTimingPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class));
+
+        Class<?> controllerType = controllers.determineBeanType(ProjectController.class, "projectController");
+        Class<?> serviceType = services.determineBeanType(ProjectServiceImpl.class, "projectServiceImpl");
+
+        assertThat(controllerType).isNotEqualTo(ProjectController.class);
+        assertThat(ClassUtils.getUserClass(controllerType)).isEqualTo(ProjectController.class);
+        assertThat(Proxy.isProxyClass(serviceType)).isTrue();
+        assertThat(ProjectService.class).isAssignableFrom(serviceType);
+        assertThat(controllers.determineBeanType(ProjectServiceImpl.class, "projectServiceImpl")).isEqualTo(ProjectServiceImpl.class);
+    }
+}
@@ -0,0 +1,177 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Směrování čtení na repliku nad embedded PostgreSQL. Repliku zastupuje druhá databáze
+ * ve stejném serveru, cíl dotazu se pozná podle {@code current_database()}.
+ */
+@DisplayName("Read Replica Routing Tests")
+class ReadReplicaRoutingTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReadYourWritesTracker readYourWrites;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeAll
+    static void startPostgres() {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException | RuntimeException e) {
+            assumeTrue(false, "Embedded PostgreSQL nelze spustit: " + e.getMessage());
+        }
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("create database replica");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        useReplicaMonitoredBy(postgres.getDatabase("postgres", "replica"));
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Read-only transakce jde na repliku, zápis a SQL mimo transakci na primární DB")
+    void readOnlyTransaction_GoesToReplica() {
+        assertThat(currentDatabase(true)).isEqualTo("replica");
+        assertThat(currentDatabase(false)).isEqualTo("postgres");
+        assertThat(jdbcTemplate.queryForObject("select current_database()", String.class)).isEqualTo("postgres");
+        assertThat(meterRegistry.get("datasource.routing").tag("target", "replica").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Pooly repliky jsou beany typu DataSource s nastavením z vlastností, i když je obalí SQL proxy")
+    void config_PoolsAreDataSourcesBoundFromProperties() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+                .withUserConfiguration(ReadReplicaConfig.class, SqlInstrumentationConfig.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withInitializer(context -> {
+                    context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+                    context.getBeanFactory().registerSingleton("dataSourceProperties", dataSourceProperties());
+                })
+                .withPropertyValues(
+                        "app.datasource.replica.url=" + postgres.getJdbcUrl("postgres", "replica"),
+                        "spring.datasource.hikari.maximum-pool-size=3",
+                        "app.datasource.replica.hikari.maximum-pool-size=2")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    DataSource primary = context.getBean("primaryDataSource", DataSource.class);
+                    DataSource replica = context.getBean("replicaDataSource", DataSource.class);
+                    assertThat(primary.unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(3);
+                    assertThat(replica.unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(2);
+                    assertThat(replica.unwrap(HikariDataSource.class).getPoolName()).isEqualTo(HikariPoolTuner.REPLICA_POOL_NAME);
+                });
+    }
+
+    private static DataSourceProperties dataSourceProperties() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        properties.setUsername("postgres");
+        properties.setPassword("postgres");
+        return properties;
+    }
+
+    @Test
+    @DisplayName("Po zápisu čte stejný uživatel z primární DB, ostatní dál z repliky")
+    void afterWrite_SameUserReadsFromPrimary() {
+        authenticate("alice");
+        currentDatabase(false);
+        assertThat(currentDatabase(true)).isEqualTo("postgres");
+
+        authenticate("bob");
+        assertThat(currentDatabase(true)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Připnuté čtení bez uživatele jde na primární DB, připnutí transakce končí s ní")
+    void pinnedReads_GoToPrimary() {
+        assertThat(PrimaryReads.call(() -> currentDatabase(true))).isEqualTo("postgres");
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        String pinned = transaction.execute(status -> {
+            PrimaryReads.pinCurrentTransaction();
+            return jdbcTemplate.queryForObject("select current_database()", String.class);
+        });
+        assertThat(pinned).isEqualTo("postgres");
+        assertThat(currentDatabase(true)).isEqualTo("replica");
+        assertThat(meterRegistry.get("datasource.routing").tag("reason", "pinned").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Nedostupná replika - čtení jdou na primární DB")
+    void unreachableReplica_ReadsFromPrimary() {
+        useReplicaMonitoredBy(new DriverManagerDataSource("jdbc:postgresql://localhost:1/replica", "postgres", "postgres"));
+
+        assertThat(currentDatabase(true)).isEqualTo("postgres");
+        assertThat(meterRegistry.get("datasource.routing").tag("reason", "replica-lag").counter().count()).isEqualTo(1);
+    }
+
+    private void useReplicaMonitoredBy(DataSource monitored) {
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(postgres.getPostgresDatabase(), monitored,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), meterRegistry);
+        lagMonitor.check();
+        readYourWrites = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(postgres.getPostgresDatabase(),
+                postgres.getDatabase("postgres", "replica"), lagMonitor, readYourWrites, meterRegistry);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(readYourWrites);
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("select current_database()", String.class));
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
@@ -0,0 +1,59 @@
+package com.kodprodobro.kodprodobro.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ResponseSizeMetricsFilter Tests")
+class ResponseSizeMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseSizeMetricsFilter filter = new ResponseSizeMetricsFilter(meterRegistry);
+
+    @Test
+    @DisplayName("Započítá bajty zapsané přes output stream i writer a propustí je beze změny")
+    void countsBytesWithoutBuffering() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/projects");
+            res.getOutputStream().write("[1,2,".getBytes(StandardCharsets.UTF_8));
+            res.getWriter().write("3]");
+        });
+
+        assertThat(response.getContentAsString()).isEqualTo("[1,2,3]");
+        DistributionSummary summary = meterRegistry.get("http.server.response.size")
+                .tag("uri", "/api/projects")
+                .tag("encoding", "identity")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Odpověď zkomprimovaná aplikací se označí tagem encoding")
+    void tagsContentEncoding() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects/latest");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            ((HttpServletResponse) res).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            res.getOutputStream().write(new byte[]{31, -117});
+        });
+
+        assertThat(meterRegistry.get("http.server.response.size").tag("encoding", "gzip").summary().totalAmount())
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,146 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SqlMetricsListener Tests")
+class SqlMetricsListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Tvar dotazu - literály a IN seznamy se sloučí, pozná se operace a tabulka")
+    void shapeOf_NormalizesLiteralsAndInLists() {
+        SqlMetricsListener.QueryShape first = SqlMetricsListener.shapeOf(
+                "select p1_0.id from projects p1_0 where p1_0.id in (?,?,?) and p1_0.title = 'Web'");
+        SqlMetricsListener.QueryShape second = SqlMetricsListener.shapeOf(
+                "select p1_0.id from projects p1_0\n where p1_0.id in (?, ?) and p1_0.title = 'Jiný'");
+
+        assertThat(first.id()).isEqualTo(second.id());
+        assertThat(first.sql()).isEqualTo("select p1_0.id from projects p1_0 where p1_0.id in (?) and p1_0.title = ?");
+        assertThat(first.operation()).isEqualTo("select");
+        assertThat(first.table()).isEqualTo("projects");
+        assertThat(SqlMetricsListener.shapeOf("insert into chat_messages (id, content) values (?, ?)").table())
+                .isEqualTo("chat_messages");
+    }
+
+    @Test
+    @DisplayName("Každé spuštění se změří do timeru podle tvaru a datasource")
+    void afterQuery_RecordsTimerPerShape() {
+        SqlMetricsListener listener = new SqlMetricsListener(meterRegistry, Duration.ofSeconds(1), 1.0, Duration.ofMinutes(1), 500);
+
+        execute(listener, "select u1_0.id from users u1_0 where u1_0.username=?", "tajne-jmeno");
+        execute(listener, "select u1_0.id from users u1_0 where u1_0.username=?", "jine-jmeno");
+
+        Timer timer = meterRegistry.get("db.query")
+                .tag("operation", "select")
+                .tag("table", "users")
+                .tag("datasource", "primary")
+                .tag("outcome", "success")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Nad limitem tvarů se nové tvary slučují do 'other'")
+    void afterQuery_TooManyShapes_UsesOther() {
+        SqlMetricsListener listener = new SqlMetricsListener(meterRegistry, Duration.ofSeconds(1), 1.0, Duration.ofMinutes(1), 1);
+
+        execute(listener, "select id from users where username=?", "a");
+        execute(listener, "select id from projects where title=?", "b");
+
+        assertThat(meterRegistry.get("db.query").tag("shape", SqlMetricsListener.OTHER_SHAPE).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.query").tag("table", "users").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Limit počítá různé tvary, ne timery - další datasource ani výsledek tvar nevytlačí do 'other'")
+    void afterQuery_SameShapeOnOtherDataSources_KeepsItsTags() {
+        SqlMetricsListener listener = new SqlMetricsListener(meterRegistry, Duration.ofSeconds(1), 1.0, Duration.ofMinutes(1), 1);
+
+        // Víc kombinací datasource a výsledku, než pojme cache timerů (2 * maxShapes + 1)
+        for (String dataSource : List.of("primary", "replica", "reporting")) {
+            execute(listener, "select id from users where username=?", "a", dataSource, true);
+            execute(listener, "select id from users where username=?", "a", dataSource, false);
+        }
+        execute(listener, "select id from users where username=?", "a", "primary", true);
+        execute(listener, "select id from projects where title=?", "b", "primary", true);
+
+        assertThat(meterRegistry.get("db.query").tag("table", "users").timers()).hasSize(6);
+        assertThat(meterRegistry.get("db.query").tag("shape", SqlMetricsListener.OTHER_SHAPE).timers())
+                .singleElement()
+                .satisfies(timer -> assertThat(timer.getId().getTag("operation")).isEqualTo("select"));
+    }
+
+    @Test
+    @DisplayName("Log pomalého dotazu obsahuje jen typy parametrů, ne hodnoty")
+    void parameterTypes_RedactsValues() {
+        QueryInfo queryInfo = query("select id from users where email=? and id=?", "alice@example.com", 42L);
+
+        assertThat(SqlMetricsListener.parameterTypes(queryInfo))
+                .isEqualTo("[String, Long]")
+                .doesNotContain("alice");
+    }
+
+    @Test
+    @DisplayName("Post-processor obalí Hikari pool, unwrap k němu dál vede")
+    void postProcessor_WrapsHikariDataSource() throws Exception {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        SqlInstrumentationConfig.InstrumentingPostProcessor postProcessor = new SqlInstrumentationConfig.InstrumentingPostProcessor(
+                beanFactory.getBeanProvider(MeterRegistry.class), new MockEnvironment());
+        HikariDataSource hikari = new HikariDataSource();
+
+        Object wrapped = postProcessor.postProcessAfterInitialization(hikari, "dataSource");
+
+        assertThat(wrapped).isNotSameAs(hikari).isInstanceOf(DataSource.class);
+        assertThat(((DataSource) wrapped).unwrap(HikariDataSource.class)).isSameAs(hikari);
+    }
+
+    private static void execute(SqlMetricsListener listener, String sql, Object parameter) {
+        execute(listener, sql, parameter, "primary", true);
+    }
+
+    private static void execute(SqlMetricsListener listener, String sql, Object parameter, String dataSource, boolean success) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setDataSourceName(dataSource);
+        executionInfo.setSuccess(success);
+        List<QueryInfo> queries = List.of(query(sql, parameter));
+        listener.beforeQuery(executionInfo, queries);
+        listener.afterQuery(executionInfo, queries);
+    }
+
+    private static QueryInfo query(String sql, Object... parameters) {
+        Method setObject;
+        try {
+            setObject = PreparedStatement.class.getMethod("setObject", int.class, Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        QueryInfo queryInfo = new QueryInfo(sql);
+        List<ParameterSetOperation> operations = new ArrayList<>();
+        for (int i = 0; i < parameters.length; i++) {
+            operations.add(new ParameterSetOperation(setObject, new Object[]{i + 1, parameters[i]}));
+        }
+        queryInfo.getParametersList().add(operations);
+        return queryInfo;
+    }
+}
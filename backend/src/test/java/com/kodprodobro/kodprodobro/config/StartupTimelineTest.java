@@ -0,0 +1,37 @@
+package com.kodprodobro.kodprodobro.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StartupTimeline Tests")
+class StartupTimelineTest {
+
+    private final SpringApplication application = new SpringApplication(StartupTimelineTest.class);
+
+    @Test
+    @DisplayName("Bez zapnutí zůstává výchozí ApplicationStartup bez bufferu")
+    void disabledByDefault() {
+        new StartupTimeline().postProcessEnvironment(new MockEnvironment()
+                .withProperty("management.endpoints.web.exposure.include", "health,jfr"), application);
+
+        assertThat(application.getApplicationStartup()).isNotInstanceOf(BufferingApplicationStartup.class);
+    }
+
+    @Test
+    @DisplayName("Vlastnost nebo vystavený endpoint startup zapne záznam kroků")
+    void enabledByPropertyOrExposedEndpoint() {
+        new StartupTimeline().postProcessEnvironment(new MockEnvironment()
+                .withProperty("app.startup.timeline.enabled", "true"), application);
+        assertThat(application.getApplicationStartup()).isInstanceOf(BufferingApplicationStartup.class);
+
+        SpringApplication exposed = new SpringApplication(StartupTimelineTest.class);
+        new StartupTimeline().postProcessEnvironment(new MockEnvironment()
+                .withProperty("management.endpoints.web.exposure.include", "health, startup"), exposed);
+        assertThat(exposed.getApplicationStartup()).isInstanceOf(BufferingApplicationStartup.class);
+    }
+}
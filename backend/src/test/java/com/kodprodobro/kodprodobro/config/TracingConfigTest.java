@@ -0,0 +1,135 @@
+package com.kodprodobro.kodprodobro.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TracingConfig Tests")
+class TracingConfigTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private ObservationRegistry previousRegistry;
+
+    @BeforeEach
+    void setUp() {
+        OtelCurrentTraceContext currentTraceContext = new OtelCurrentTraceContext();
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), currentTraceContext, event -> {
+        }, new OtelBaggageManager(currentTraceContext, List.of(), List.of()));
+        observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+        previousRegistry = ObservationThreadLocalAccessor.getInstance().getObservationRegistry();
+        ObservationThreadLocalAccessor.getInstance().setObservationRegistry(observationRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ObservationThreadLocalAccessor.getInstance().setObservationRegistry(previousRegistry);
+        tracerProvider.close();
+    }
+
+    @Test
+    @DisplayName("Repozitář dostane span podle vlastního rozhraní pod aktuálním požadavkem")
+    void repositoryCall_CreatesChildSpan() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("observationRegistry", observationRegistry));
+        SampleRepository repository = (SampleRepository) TracingConfig
+                .repositoryObservationPostProcessor(beanFactory.getBeanProvider(ObservationRegistry.class))
+                .postProcessAfterInitialization(repositoryProxy(), "sampleRepository");
+
+        Observation.createNotStarted("http.server.requests", observationRegistry)
+                .contextualName("http get /api/projects")
+                .observe(() -> assertThat(repository.countProjects()).isEqualTo(42L));
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans).extracting(SpanData::getName)
+                .containsExactly("sample-repository#count-projects", "http get /api/projects");
+        assertThat(spans.get(0).getParentSpanId()).isEqualTo(spans.get(1).getSpanId());
+    }
+
+    @Test
+    @DisplayName("Async úloha pokračuje v trace vlákna, které ji naplánovalo")
+    void asyncExecutor_PropagatesTraceContext() {
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) new AsyncConfig().taskExecutor();
+        try {
+            Observation.createNotStarted("parent", observationRegistry).observe(() ->
+                    CompletableFuture.runAsync(() -> Observation.createNotStarted("child", observationRegistry)
+                            .observe(() -> {
+                            }), executor).join());
+        } finally {
+            executor.shutdown();
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans).extracting(SpanData::getName).containsExactly("child", "parent");
+        assertThat(spans.get(0).getTraceId()).isEqualTo(spans.get(1).getTraceId());
+        assertThat(spans.get(0).getParentSpanId()).isEqualTo(spans.get(1).getSpanId());
+    }
+
+    @Test
+    @DisplayName("Souborový exportér zapíše spany jako Zipkin JSON, jeden na řádek")
+    void zipkinFileExporter_WritesJsonLines(@TempDir Path tempDir) throws Exception {
+        Observation.createNotStarted("parent", observationRegistry).observe(() ->
+                Observation.createNotStarted("child", observationRegistry)
+                        .lowCardinalityKeyValue("method", "save")
+                        .observe(() -> {
+                        }));
+        Path file = tempDir.resolve("traces/spans.jsonl");
+
+        new ZipkinFileSpanExporter(file).export(exporter.getFinishedSpanItems());
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode child = objectMapper.readTree(lines.get(0));
+        JsonNode parent = objectMapper.readTree(lines.get(1));
+        assertThat(child.get("name").asText()).isEqualTo("child");
+        assertThat(child.get("parentId").asText()).isEqualTo(parent.get("id").asText());
+        assertThat(child.get("tags").get("method").asText()).isEqualTo("save");
+        assertThat(parent.has("parentId")).isFalse();
+        assertThat(child.get("duration").asLong()).isPositive();
+    }
+
+    /**
+     * Napodobí proxy Spring Data - poslední interceptor vrátí výsledek a dál nevolá.
+     */
+    private static SampleRepository repositoryProxy() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addInterface(SampleRepository.class);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> 42L);
+        return (SampleRepository) proxyFactory.getProxy();
+    }
+
+    interface SampleRepository extends Repository<Object, Long> {
+        long countProjects();
+    }
+}
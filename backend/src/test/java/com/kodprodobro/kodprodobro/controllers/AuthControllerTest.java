@@ -29,6 +29,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.doThrow;
@@ -158,8 +160,11 @@ class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andDo(print())
                 .andExpect(status().isBadRequest()) // 400
-                // Ověří, že GlobalExceptionHandler vrátil mapu chyb
-                .andExpect(jsonPath("$.message").value("Neplatná vstupní data. {password=Heslo musí mít alespoň 8 znaků, email=Email musí být platný, username=Jméno musí mít 3-30 znaků}"));
+                // Ověří, že GlobalExceptionHandler vrátil mapu chyb. Neplatný email může porušit @Email
+                // i @Pattern, handler ponechá poslední hlášenou chybu - pořadí, ve kterém je validátor hlásí, není dané
+                .andExpect(jsonPath("$.message", anyOf(
+                        equalTo("Neplatná vstupní data. {password=Heslo musí mít alespoň 8 znaků, email=Email musí být platný, username=Jméno musí mít 3-30 znaků}"),
+                        equalTo("Neplatná vstupní data. {password=Heslo musí mít alespoň 8 znaků, email=Email musí obsahovat platnou doménu (např. .com, .cz), username=Jméno musí mít 3-30 znaků}"))));
         // Service se nesmí zavolat, validace to stopne dřív
         verify(userService, times(0)).registerNewUser(any(User.class));
     }
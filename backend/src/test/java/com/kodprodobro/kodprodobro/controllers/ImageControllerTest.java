@@ -0,0 +1,197 @@
+package com.kodprodobro.kodprodobro.controllers;
+
+import com.kodprodobro.kodprodobro.config.GlobalExceptionHandler;
+import com.kodprodobro.kodprodobro.services.storage.FileStorageService;
+import com.kodprodobro.kodprodobro.services.storage.ThumbnailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("ImageController Tests")
+class ImageControllerTest {
+
+    private static final String CACHE_CONTROL = "max-age=31536000, public, immutable";
+
+    @TempDir
+    Path directory;
+
+    private MockMvc mockMvc;
+    private FileStorageService storage;
+    private ThumbnailService thumbnailService;
+    private byte[] png;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        storage = new FileStorageService(directory, DataSize.ofMegabytes(1), meterRegistry);
+        thumbnailService = new ThumbnailService(storage, meterRegistry, 1, 4, 40_000_000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ImageController(storage, thumbnailService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        png = Arrays.copyOf(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, 1000);
+        Arrays.fill(png, 8, png.length, (byte) 7);
+    }
+
+    private static byte[] photo(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        thumbnailService.shutdown();
+    }
+
+    private String upload() throws Exception {
+        return upload(png);
+    }
+
+    private String upload(byte[] png) throws Exception {
+        return mockMvc.perform(multipart("/api/images").file(new MockMultipartFile("file", "logo.png", "image/png", png)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.contentType").value("image/png"))
+                .andExpect(jsonPath("$.size").value(png.length))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+    }
+
+    @Test
+    @DisplayName("Nahraný obrázek se vrací s dlouhodobou cache, rozsahem 206 a 304 podle ETagu")
+    void uploadAndServe() throws Exception {
+        String location = upload();
+        assertThat(location).matches(".*/api/images/[0-9a-f]{64}\\.png");
+
+        String etag = mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(png))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(location).header(HttpHeaders.RANGE, "bytes=0-7"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-7/" + png.length))
+                .andExpect(content().bytes(Arrays.copyOf(png, 8)));
+
+        mockMvc.perform(get(location).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Na Tomcatu se rozsah předá k zápisu přes sendfile")
+    void servesRangeViaSendfile() throws Exception {
+        String location = upload();
+
+        MvcResult result = mockMvc.perform(get(location)
+                        .header(HttpHeaders.RANGE, "bytes=100-")
+                        .requestAttr(ImageController.SENDFILE_SUPPORT, Boolean.TRUE))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-999/1000"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 900))
+                .andReturn();
+
+        assertThat(result.getRequest().getAttribute(ImageController.SENDFILE_FILENAME)).asString().endsWith(".png");
+        assertThat(result.getRequest().getAttribute(ImageController.SENDFILE_START)).isEqualTo(100L);
+        assertThat(result.getRequest().getAttribute(ImageController.SENDFILE_END)).isEqualTo(1000L);
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Přes sendfile se rozsah s neaktuálním If-Range ignoruje a posílá se celý soubor")
+    void sendfileHonoursIfRange() throws Exception {
+        String location = upload();
+        String etag = mockMvc.perform(get(location)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(location)
+                        .header(HttpHeaders.RANGE, "bytes=100-")
+                        .header(HttpHeaders.IF_RANGE, etag)
+                        .requestAttr(ImageController.SENDFILE_SUPPORT, Boolean.TRUE))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-999/1000"));
+
+        MvcResult result = mockMvc.perform(get(location)
+                        .header(HttpHeaders.RANGE, "bytes=100-")
+                        .header(HttpHeaders.IF_RANGE, "\"jiny-obsah\"")
+                        .requestAttr(ImageController.SENDFILE_SUPPORT, Boolean.TRUE))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 1000))
+                .andReturn();
+
+        assertThat(result.getRequest().getAttribute(ImageController.SENDFILE_START)).isEqualTo(0L);
+        assertThat(result.getRequest().getAttribute(ImageController.SENDFILE_END)).isEqualTo(1000L);
+    }
+
+    @Test
+    @DisplayName("Náhled se vrací jako JPEG s dlouhodobou cache, neznámá velikost vrací 404")
+    void servesThumbnail() throws Exception {
+        String location = upload(photo(1200, 800));
+        // Upload náhledy jen zařadí, požadavek na ně nečeká
+        String name = location.substring(location.lastIndexOf('/') + 1);
+        thumbnailService.generate(storage.load(name).orElseThrow()).get(10, TimeUnit.SECONDS);
+
+        byte[] thumbnail = mockMvc.perform(get(location + "/thumbnails/small"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(ImageIO.read(new ByteArrayInputStream(thumbnail)).getWidth()).isEqualTo(160);
+
+        mockMvc.perform(get(location + "/thumbnails/huge"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Dokud náhled nejde vytvořit, vrací se originál bez dlouhodobé cache")
+    void thumbnailFallsBackToOriginal() throws Exception {
+        String location = upload();
+
+        mockMvc.perform(get(location + "/thumbnails/medium"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(png))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    @DisplayName("Soubor, který není obrázek, vrací 400, neznámý obrázek 404")
+    void rejectsInvalidAndMissing() throws Exception {
+        mockMvc.perform(multipart("/api/images").file(new MockMultipartFile("file", "logo.png", "image/png",
+                        "<html></html>".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_FILE"));
+
+        mockMvc.perform(get("/api/images/" + "a".repeat(64) + ".png"))
+                .andExpect(status().isNotFound());
+    }
+}
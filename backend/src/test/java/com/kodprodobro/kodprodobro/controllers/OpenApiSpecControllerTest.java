@@ -0,0 +1,58 @@
+package com.kodprodobro.kodprodobro.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("OpenApiSpecController Tests")
+class OpenApiSpecControllerTest {
+
+    private static final String SPEC = "{\"openapi\":\"3.0.1\",\"paths\":{\"/api/auth/login\":{}}}";
+
+    private static MockMvc mockMvc(OpenApiSpecController controller) {
+        return MockMvcBuilders.standaloneSetup(controller)
+                .addPlaceholderValue("springdoc.api-docs.path", "/api-docs")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Specifikace z buildu se vrací s ETagem, opakovaný dotaz dostane 304")
+    void servesPrebuiltSpec() throws Exception {
+        MockMvc mockMvc = mockMvc(new OpenApiSpecController(new ByteArrayResource(SPEC.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public boolean exists() {
+                return true;
+            }
+        }));
+
+        String etag = mockMvc.perform(get("/api-docs"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(SPEC))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api-docs").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Bez specifikace z buildu vrací 404")
+    void missingSpec_ReturnsNotFound() throws Exception {
+        mockMvc(new OpenApiSpecController(new ClassPathResource("META-INF/openapi/neexistuje.json")))
+                .perform(get("/api-docs"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,277 @@
+package com.kodprodobro.kodprodobro.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.kodprodobro.kodprodobro.config.SecurityConfig;
+import com.kodprodobro.kodprodobro.config.WireFormatConfig;
+import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
+import com.kodprodobro.kodprodobro.repositories.project.ProjectRepository;
+import com.kodprodobro.kodprodobro.services.JwtService;
+import com.kodprodobro.kodprodobro.services.matching.ProjectMatchService;
+import com.kodprodobro.kodprodobro.services.project.LatestProjectsCache;
+import com.kodprodobro.kodprodobro.services.project.ProjectService;
+import com.kodprodobro.kodprodobro.services.project.ProjectVersionService;
+import com.kodprodobro.kodprodobro.services.user.UserDetailsServiceImpl;
+import com.kodprodobro.kodprodobro.services.user.UserService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testy HTTP cachování a vyjednávání formátu veřejných endpointů projektů (ETag, If-None-Match, Cache-Control, Accept).
+ */
+@WebMvcTest(ProjectController.class)
+@Import({SecurityConfig.class})
+@DisplayName("ProjectController Caching Tests")
+class ProjectControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProjectRepository projectRepository;
+
+    @MockBean
+    private ProjectService projectService;
+
+    @MockBean
+    private ProjectMatchService projectMatchService;
+
+    @MockBean
+    private ProjectVersionService projectVersionService;
+
+    @MockBean
+    private LatestProjectsCache latestProjectsCache;
+
+    @MockBean(name = "userService")
+    private UserService userService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    private static final ProjectResponse PROJECT = new ProjectResponse(
+            5L, "Web pro útulek", "Popis", 1L, true, "nonprofit", null, null);
+
+    private static final LatestProjectsCache.Rendered LATEST = new LatestProjectsCache.Rendered(
+            "[{\"id\":5,\"title\":\"Web pro útulek\"}]".getBytes(StandardCharsets.UTF_8),
+            new byte[]{31, -117, 8, 0},
+            "\"latest-abc\"");
+
+    @Test
+    @DisplayName("GET /api/projects - streamuje pole projektů s ETagem podle verze katalogu a cache hlavičkami pro CDN")
+    void getAllProjects_ReturnsEtagAndCacheControl() throws Exception {
+        when(projectVersionService.catalogVersion()).thenReturn(42L);
+        doAnswer(invocation -> {
+            Consumer<ProjectResponse> action = invocation.getArgument(0);
+            action.accept(PROJECT);
+            action.accept(PROJECT);
+            return null;
+        }).when(projectService).forEachPublishedProject(any());
+
+        mockMvc.perform(get("/api/projects"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-42\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("s-maxage=60")))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[1].ownerUsername").value("nonprofit"));
+    }
+
+    @Test
+    @DisplayName("GET /api/projects - prázdný katalog vrátí prázdné pole")
+    void getAllProjects_Empty_ReturnsEmptyArray() throws Exception {
+        when(projectVersionService.catalogVersion()).thenReturn(0L);
+
+        mockMvc.perform(get("/api/projects"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    @DisplayName("GET /api/projects - shodný If-None-Match vrátí 304 bez načítání projektů")
+    void getAllProjects_MatchingEtag_Returns304() throws Exception {
+        when(projectVersionService.catalogVersion()).thenReturn(42L);
+
+        mockMvc.perform(get("/api/projects").header(HttpHeaders.IF_NONE_MATCH, "\"catalog-42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-42\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")))
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/latest - zastaralý ETag vrátí předrenderovaná data bez volání služby")
+    void getLatestProjects_StaleEtag_ReturnsPrerenderedBody() throws Exception {
+        when(latestProjectsCache.get()).thenReturn(LATEST);
+
+        mockMvc.perform(get("/api/projects/latest").header(HttpHeaders.IF_NONE_MATCH, "\"latest-old\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"latest-abc\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id").value(5));
+
+        verifyNoInteractions(projectService, projectVersionService);
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/latest - klient s podporou gzip dostane zkomprimovanou verzi")
+    void getLatestProjects_AcceptsGzip_ReturnsGzipBytes() throws Exception {
+        when(latestProjectsCache.get()).thenReturn(LATEST);
+
+        mockMvc.perform(get("/api/projects/latest").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"latest-abc-gzip\""))
+                .andExpect(content().bytes(LATEST.gzip()));
+
+        // ETag identity varianty nesmí potvrdit gzip variantu a naopak
+        mockMvc.perform(get("/api/projects/latest")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"latest-abc\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(LATEST.gzip()));
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/latest - gzip;q=0 znamená odmítnutí gzip")
+    void getLatestProjects_GzipWithZeroQuality_ReturnsIdentity() throws Exception {
+        when(latestProjectsCache.get()).thenReturn(LATEST);
+
+        mockMvc.perform(get("/api/projects/latest").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"latest-abc\""))
+                .andExpect(content().bytes(LATEST.identity()));
+
+        assertThat(ProjectController.acceptsGzip("br;q=1.0, *;q=0.5")).isTrue();
+        assertThat(ProjectController.acceptsGzip("*;q=0.5, gzip;q=0")).isFalse();
+        assertThat(ProjectController.acceptsGzip("GZIP; Q=0.8")).isTrue();
+        assertThat(ProjectController.acceptsGzip("deflate")).isFalse();
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/latest - shodný ETag vrátí 304")
+    void getLatestProjects_MatchingEtag_Returns304() throws Exception {
+        when(latestProjectsCache.get()).thenReturn(LATEST);
+
+        mockMvc.perform(get("/api/projects/latest").header(HttpHeaders.IF_NONE_MATCH, "\"latest-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/{id} - ETag podle verze projektu, 304 při shodě")
+    void getProjectById_MatchingEtag_Returns304() throws Exception {
+        when(projectVersionService.publishedProjectVersion(5L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/projects/5").header(HttpHeaders.IF_NONE_MATCH, "\"project-5-3\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/{id} - nepublikovaný projekt nemá ETag a propadne do běžné cesty")
+    void getProjectById_Unpublished_SkipsConditionalCheck() throws Exception {
+        when(projectVersionService.publishedProjectVersion(9L)).thenReturn(Optional.empty());
+        when(projectService.getPublishedProjectById(9L)).thenThrow(new EntityNotFoundException("Projekt nebyl nalezen"));
+
+        mockMvc.perform(get("/api/projects/9").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        verify(projectService).getPublishedProjectById(9L);
+    }
+
+    @Test
+    @DisplayName("GET /api/projects - Accept: application/cbor streamuje CBOR s vlastním ETagem")
+    void getAllProjects_AcceptCbor_StreamsCbor() throws Exception {
+        when(projectVersionService.catalogVersion()).thenReturn(42L);
+        doAnswer(invocation -> {
+            Consumer<ProjectResponse> action = invocation.getArgument(0);
+            action.accept(PROJECT);
+            return null;
+        }).when(projectService).forEachPublishedProject(any());
+
+        byte[] body = mockMvc.perform(get("/api/projects").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-42-cbor\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ProjectResponse[] projects = new ObjectMapper(new CBORFactory()).readValue(body, ProjectResponse[].class);
+        assertThat(projects).containsExactly(PROJECT);
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/{id} - Smile přes message konvertory, JSON ETag neplatí pro Smile")
+    void getProjectById_AcceptSmile_ReturnsSmile() throws Exception {
+        when(projectVersionService.publishedProjectVersion(5L)).thenReturn(Optional.of(3L));
+        when(projectService.getPublishedProjectById(5L)).thenReturn(PROJECT);
+
+        byte[] body = mockMvc.perform(get("/api/projects/5")
+                        .accept(WireFormatConfig.APPLICATION_SMILE)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"project-5-3\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WireFormatConfig.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"project-5-3-smile\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(body, ProjectResponse.class)).isEqualTo(PROJECT);
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/latest - binární klient dostane seznam přes konvertory místo předrenderovaného JSON")
+    void getLatestProjects_AcceptCbor_UsesConverters() throws Exception {
+        when(latestProjectsCache.get()).thenReturn(LATEST);
+        when(projectService.getLatestPublishedProjects()).thenReturn(List.of(PROJECT));
+
+        mockMvc.perform(get("/api/projects/latest").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"latest-abc-cbor\""));
+    }
+
+    @Test
+    @DisplayName("GET /api/projects - prohlížečový Accept s */* dostane JSON, nepodporovaný formát 406")
+    void getAllProjects_Negotiation() throws Exception {
+        when(projectVersionService.catalogVersion()).thenReturn(1L);
+
+        mockMvc.perform(get("/api/projects").header(HttpHeaders.ACCEPT, "text/html,application/xml;q=0.9,*/*;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        mockMvc.perform(get("/api/projects").accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+}
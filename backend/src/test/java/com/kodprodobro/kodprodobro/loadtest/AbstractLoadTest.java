@@ -0,0 +1,65 @@
+package com.kodprodobro.kodprodobro.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Zátěžový test proti celé aplikaci (Tomcat, security, JPA) v rámci testu, nad databází z {@link LoadTestEnvironment}.
+ * Spouští se jen profilem {@code mvn test -Ploadtest}.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        LoadTestEnvironment.JWT_SECRET,
+        LoadTestEnvironment.FRONTEND_URL,
+        LoadTestEnvironment.MAIL_HOST,
+        "logging.level.com.kodprodobro=WARN"
+})
+// Každá třída má vlastní databázi, kontext z cache by mířil na databázi předchozí třídy
+@DirtiesContext
+abstract class AbstractLoadTest {
+
+    @RegisterExtension
+    static final LoadTestEnvironment environment = new LoadTestEnvironment();
+
+    @LocalServerPort
+    protected int port;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        environment.registerDatasource(registry);
+    }
+
+    /**
+     * Klient pro uzavřenou smyčku: HTTP/1.1, odpovědi se zpracují na virtuálních vláknech.
+     */
+    static HttpClient newHttpClient() {
+        return HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    protected HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Accept", "application/json").GET();
+    }
+
+    protected HttpRequest get(String path) {
+        return request(path).build();
+    }
+
+    protected URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,110 @@
+package com.kodprodobro.kodprodobro.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aplikace spuštěná jako samostatný proces (spustitelný jar nebo native image) nad databází z {@link LoadTestEnvironment}.
+ * <p>
+ * {@link #start} přidá volný port, databázi a povinné vlastnosti aplikace, výstup přesměruje do logu
+ * a vrátí se po první odpovědi 200 na {@code readyPath}. Doba do ní je {@link #startupMillis()}.
+ */
+final class AppProcess implements AutoCloseable {
+
+    static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+    private final int port;
+    private final long startupMillis;
+
+    private AppProcess(Process process, int port, long startupMillis) {
+        this.process = process;
+        this.port = port;
+        this.startupMillis = startupMillis;
+    }
+
+    /**
+     * @param workingDirectory adresář procesu, {@code null} pro aktuální
+     * @param arguments        další argumenty aplikace, např. {@code --app.startup.lazy-non-critical=true}
+     */
+    static AppProcess start(HttpClient client, LoadTestEnvironment environment, List<String> command,
+                            Path workingDirectory, Path logFile, String readyPath, String... arguments) throws Exception {
+        int port = freePort();
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.add("--server.port=" + port);
+        fullCommand.addAll(environment.applicationArguments());
+        fullCommand.addAll(List.of(arguments));
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(fullCommand)
+                .directory(workingDirectory != null ? workingDirectory.toFile() : null)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri(port, readyPath)).timeout(Duration.ofSeconds(5)).GET().build();
+            long deadline = started + READY_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                assertThat(process.isAlive()).as("Aplikace skončila, viz %s", logFile).isTrue();
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return new AppProcess(process, port, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                    }
+                } catch (ConnectException e) {
+                    // Tomcat ještě neposlouchá
+                }
+                Thread.sleep(10);
+            }
+            throw new AssertionError("Aplikace neodpověděla do " + READY_TIMEOUT + ", viz " + logFile);
+        } catch (Exception | AssertionError e) {
+            stop(process);
+            throw e;
+        }
+    }
+
+    long startupMillis() {
+        return startupMillis;
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    URI uri(String path) {
+        return uri(port, path);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        stop(process);
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.kodprodobro.kodprodobro.loadtest;
+
+import com.kodprodobro.kodprodobro.config.FlywayConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Hledání optimální velikosti poolu spojení pro mix veřejného katalogu projektů a přihlašování.
+ * <p>
+ * Aplikace běží celá (Tomcat, security, JPA) nad embedded PostgreSQL. Pro každou velikost poolu
+ * (vzestupně, Hikari ji umí změnit za běhu) pustí {@code loadtest.concurrency} klientů v uzavřené smyčce
+ * a změří propustnost, p50/p99 latence a průměrné čekání na spojení z metriky {@code hikaricp.connections.acquire}.
+ * Doporučená velikost je nejmenší, která bez chyb (nejvýš 1 %) dosáhne 95 % nejvyšší propustnosti - další spojení už jen
+ * přidávají režii databázi. Výsledek se zapíše do {@code target/loadtest/pool-sizing.csv}.
+ * <p>
+ * Spouští se jen profilem {@code mvn test -Ploadtest}. Parametry: {@code loadtest.pool-sizes},
+ * {@code loadtest.concurrency}, {@code loadtest.warmup}, {@code loadtest.duration}.
+ */
+@Slf4j
+@DisplayName("Connection Pool Sizing Load Test")
+class ConnectionPoolSizingLoadTest extends AbstractLoadTest {
+
+    private static final int USERS = 500;
+    private static final int PROJECTS = 2_000;
+    private static final String PASSWORD = "loadtest-heslo";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    private record StepResult(int poolSize, long requests, double throughput, double p50Millis, double p99Millis,
+                              double acquireMillis, long errors) {
+
+        double errorRate() {
+            return requests > 0 ? errors / (double) requests : 1;
+        }
+    }
+
+    @BeforeAll
+    static void seed() {
+        // Data se zakládají s pevnými ID, do sdílené databáze by je nešlo přidat
+        assumeTrue(environment.isEmbedded(), "Test poolu potřebuje embedded PostgreSQL, bez loadtest.jdbc.url");
+        FluentConfiguration flyway = Flyway.configure().dataSource(environment.dataSource());
+        new FlywayConfig().migrationCustomizer().customize(flyway);
+        flyway.load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(environment.dataSource());
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        jdbcTemplate.update("""
+                insert into users (id, username, email, password, notify_by_email, notify_new_messages,
+                                   notify_project_updates, created_at)
+                select g, 'load' || g, 'load' || g || '@example.com', ?, true, true, true, now()
+                from generate_series(1, ?) g
+                """, hash, USERS);
+        jdbcTemplate.update("insert into user_roles (user_id, roles) select g, 'STUDENT' from generate_series(1, ?) g", USERS);
+        jdbcTemplate.update("""
+                insert into projects (id, title, description, owner_id, category_id, published, created_at, updated_at, version)
+                select g, 'Projekt ' || g || ' web pro neziskovku', repeat('Popis projektu. ', 20), 1 + g % ?, g % 12, true,
+                       now() - g * interval '1 minute', now() - g * interval '1 minute', 0
+                from generate_series(1, ?) g
+                """, USERS, PROJECTS);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    @DisplayName("Propustnost a latence katalogu a přihlášení podle velikosti poolu")
+    void findOptimalPoolSize() throws Exception {
+        int[] poolSizes = Arrays.stream(System.getProperty("loadtest.pool-sizes", "2,4,8,12,16,24,32").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .sorted()
+                .toArray();
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT20S"));
+
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        List<StepResult> results = new ArrayList<>();
+        try (HttpClient client = newHttpClient()) {
+            for (int poolSize : poolSizes) {
+                hikari.getHikariConfigMXBean().setMaximumPoolSize(poolSize);
+                hikari.getHikariConfigMXBean().setMinimumIdle(poolSize);
+                runMix(client, concurrency, warmup, new ConcurrentHistogram(3), new LongAdder());
+
+                Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+                long acquireCount = acquire != null ? acquire.count() : 0;
+                double acquireNanos = acquire != null ? acquire.totalTime(TimeUnit.NANOSECONDS) : 0;
+
+                Histogram latencies = new ConcurrentHistogram(3);
+                LongAdder errors = new LongAdder();
+                long requests = runMix(client, concurrency, duration, latencies, errors);
+
+                long acquired = acquire != null ? acquire.count() - acquireCount : 0;
+                double acquireMillis = acquired > 0
+                        ? (acquire.totalTime(TimeUnit.NANOSECONDS) - acquireNanos) / acquired / 1_000_000 : 0;
+                StepResult result = new StepResult(poolSize, requests, requests / (double) duration.toSeconds(),
+                        latencies.getValueAtPercentile(50) / 1_000.0, latencies.getValueAtPercentile(99) / 1_000.0,
+                        acquireMillis, errors.sum());
+                results.add(result);
+                log.warn("Pool {}: {} req/s, p50 {} ms, p99 {} ms, čekání na spojení {} ms, chyb {}",
+                        poolSize, String.format("%.0f", result.throughput()), String.format("%.1f", result.p50Millis()),
+                        String.format("%.1f", result.p99Millis()), String.format("%.2f", result.acquireMillis()),
+                        result.errors());
+            }
+        }
+
+        // Malý pool pod zátěží vrací chyby (timeout čekání na spojení), jeho propustnost se nepočítá
+        List<StepResult> healthy = results.stream()
+                .filter(result -> result.errorRate() <= MAX_ERROR_RATE)
+                .toList();
+        assertThat(healthy)
+                .as("Všechny velikosti poolu mají přes %.0f %% chyb, snižte loadtest.concurrency", MAX_ERROR_RATE * 100)
+                .isNotEmpty();
+        double peak = healthy.stream().mapToDouble(StepResult::throughput).max().orElseThrow();
+        StepResult optimal = healthy.stream()
+                .filter(result -> result.throughput() >= peak * 0.95)
+                .findFirst()
+                .orElseThrow();
+        log.warn("Doporučená velikost poolu pro {} souběžných klientů: {} (spring.datasource.hikari.maximum-pool-size)",
+                concurrency, optimal.poolSize());
+        writeReport(results, optimal);
+    }
+
+    /**
+     * Uzavřená smyčka: každý klient pošle další požadavek hned po odpovědi na předchozí.
+     * Mix: 30 % celý katalog, 40 % detail projektu, 10 % vyhledávání, 20 % přihlášení.
+     */
+    private long runMix(HttpClient client, int concurrency, Duration duration,
+                        Histogram latencies, LongAdder errors) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        LongAdder requests = new LongAdder();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = nextRequest();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies.recordValue((System.nanoTime() - start) / 1_000);
+                        requests.increment();
+                    }
+                });
+            }
+        }
+        return requests.sum();
+    }
+
+    private HttpRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < 30) {
+            return get("/api/projects");
+        }
+        if (roll < 70) {
+            return get("/api/projects/" + (1 + random.nextInt(PROJECTS)));
+        }
+        if (roll < 80) {
+            return get("/api/projects/search?title=" + random.nextInt(PROJECTS));
+        }
+        String body = "{\"username\":\"load" + (1 + random.nextInt(USERS)) + "\",\"password\":\"" + PASSWORD + "\"}";
+        return HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void writeReport(List<StepResult> results, StepResult optimal) throws IOException {
+        Path report = LoadTestEnvironment.writeCsv("pool-sizing.csv",
+                "pool_size,requests,throughput_rps,p50_ms,p99_ms,acquire_ms,errors,optimal",
+                results.stream()
+                        .map(result -> String.format(Locale.ROOT, "%d,%d,%.1f,%.2f,%.2f,%.3f,%d,%b", result.poolSize(),
+                                result.requests(), result.throughput(), result.p50Millis(), result.p99Millis(),
+                                result.acquireMillis(), result.errors(), result == optimal))
+                        .toList());
+        log.warn("Výsledek zapsán do {}", report.toAbsolutePath());
+    }
+}
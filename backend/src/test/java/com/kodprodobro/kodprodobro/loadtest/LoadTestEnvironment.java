@@ -0,0 +1,129 @@
+package com.kodprodobro.kodprodobro.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Společné prostředí zátěžových testů: databáze, povinné vlastnosti aplikace a výstup do {@code target/loadtest}.
+ * <p>
+ * Bez {@code loadtest.jdbc.url} se pro třídu spustí embedded PostgreSQL ({@code max_connections=200}, víc než
+ * největší zkoušený pool), jinak se použije zadaná (lokální) databáze s {@code loadtest.jdbc.username}
+ * a {@code loadtest.jdbc.password}. Když embedded PostgreSQL nejde spustit, testy třídy se přeskočí.
+ * Registruje se přes {@code @RegisterExtension} do statického pole.
+ */
+class LoadTestEnvironment implements BeforeAllCallback, AfterAllCallback {
+
+    // Dekodér tokenů v SecurityConfig ověřuje HS512, jjwt ho zvolí až pro klíč od 64 bajtů
+    static final String JWT_SECRET = "jwt.secret=loadtest-secret-key-that-is-long-enough-for-hs512-signing-of-access-tokens";
+    static final String FRONTEND_URL = "app.frontend.url=http://localhost:3000";
+    static final String MAIL_HOST = "spring.mail.host=localhost";
+
+    /**
+     * Vlastnosti, bez kterých aplikace nenastartuje.
+     */
+    static final List<String> APPLICATION_PROPERTIES = List.of(JWT_SECRET, FRONTEND_URL, MAIL_HOST);
+
+    static final Path REPORT_DIRECTORY = Path.of("target", "loadtest");
+
+    private static final String MAX_CONNECTIONS = "200";
+
+    private final String externalUrl = System.getProperty("loadtest.jdbc.url");
+    private EmbeddedPostgres postgres;
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (externalUrl != null) {
+            return;
+        }
+        try {
+            postgres = EmbeddedPostgres.builder().setServerConfig("max_connections", MAX_CONNECTIONS).start();
+        } catch (IOException | RuntimeException e) {
+            assumeTrue(false, "Embedded PostgreSQL nelze spustit: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) throws IOException {
+        if (postgres != null) {
+            postgres.close();
+            postgres = null;
+        }
+    }
+
+    boolean isEmbedded() {
+        return externalUrl == null;
+    }
+
+    String jdbcUrl() {
+        return externalUrl != null ? externalUrl : postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    String username() {
+        return System.getProperty("loadtest.jdbc.username", "postgres");
+    }
+
+    String password() {
+        return System.getProperty("loadtest.jdbc.password", "postgres");
+    }
+
+    /**
+     * Datasource pro přípravu dat mimo aplikaci.
+     */
+    DataSource dataSource() {
+        return externalUrl != null
+                ? new DriverManagerDataSource(externalUrl, username(), password())
+                : postgres.getPostgresDatabase();
+    }
+
+    /**
+     * Hodnoty se čtou až při startu kontextu, tedy po {@link #beforeAll}.
+     */
+    void registerDatasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", this::jdbcUrl);
+        registry.add("spring.datasource.username", this::username);
+        registry.add("spring.datasource.password", this::password);
+    }
+
+    /**
+     * Argumenty příkazové řádky pro aplikaci spuštěnou jako samostatný proces ({@link AppProcess}).
+     */
+    List<String> applicationArguments() {
+        return Stream.concat(APPLICATION_PROPERTIES.stream(), Stream.of(
+                        "spring.datasource.url=" + jdbcUrl(),
+                        "spring.datasource.username=" + username(),
+                        "spring.datasource.password=" + password()))
+                .map(property -> "--" + property)
+                .toList();
+    }
+
+    static Path reportFile(String name) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        return REPORT_DIRECTORY.resolve(name);
+    }
+
+    /**
+     * Zapíše CSV výsledku do {@code target/loadtest/<name>}.
+     */
+    static Path writeCsv(String name, String header, List<String> rows) throws IOException {
+        Path report = reportFile(name);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report))) {
+            writer.println(header);
+            rows.forEach(writer::println);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,149 @@
+package com.kodprodobro.kodprodobro.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Ověření native image proti databázi z {@link LoadTestEnvironment} a srovnání s JVM buildem.
+ * <p>
+ * Native spustitelný soubor i spustitelný jar projdou stejným scénářem: registrace (BCrypt, Hibernate),
+ * přihlášení (jjwt), {@code /api/chats} s tokenem (dekodér JWT), poslední projekty a {@code /api-docs} (springdoc).
+ * Změří se doba do první odpovědi a RSS procesu po startu a po scénáři, výsledek je v {@code target/loadtest/native.csv}.
+ * Spouští se přes failsafe v profilu {@code native}: {@code mvn -Pnative verify}.
+ */
+@Slf4j
+@DisplayName("Native Image IT")
+class NativeImageIT {
+
+    private static final Path TARGET = Path.of("target");
+    private static final String PASSWORD = "native-heslo-123";
+
+    @RegisterExtension
+    static final LoadTestEnvironment environment = new LoadTestEnvironment();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private record Result(String variant, long startupMillis, long rssAfterStartKb, long rssAfterScenarioKb) {
+    }
+
+    @Test
+    @DisplayName("Native image obslouží scénář a startuje rychleji než JVM build")
+    void nativeImageServesScenario() throws Exception {
+        Path executable = Path.of(System.getProperty("native.executable", "target/kodprodoprom"));
+        assumeTrue(Files.isExecutable(executable), "Chybí native image, sestavte ho přes mvn -Pnative package");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<Result> results = new ArrayList<>();
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            results.add(run(client, "native", List.of(executable.toAbsolutePath().toString())));
+            Path jar = findExecJar();
+            if (jar != null) {
+                results.add(run(client, "jvm", List.of(java, "-jar", jar.toAbsolutePath().toString())));
+            }
+        }
+
+        writeReport(results);
+        if (results.size() == 2) {
+            assertThat(results.get(0).startupMillis()).as("Native start").isLessThan(results.get(1).startupMillis());
+        }
+    }
+
+    private Result run(HttpClient client, String variant, List<String> command) throws Exception {
+        Path logFile = LoadTestEnvironment.reportFile("native-" + variant + ".log");
+        try (AppProcess app = AppProcess.start(client, environment, command, null, logFile, "/api/projects/latest",
+                "--springdoc.api-docs.path=/api-docs")) {
+            long rssAfterStart = rssKb(app.pid());
+            scenario(client, app, variant);
+            long rssAfterScenario = rssKb(app.pid());
+            log.info("{}: start {} ms, RSS po startu {} kB, po scénáři {} kB", variant, app.startupMillis(), rssAfterStart, rssAfterScenario);
+            return new Result(variant, app.startupMillis(), rssAfterStart, rssAfterScenario);
+        }
+    }
+
+    private void scenario(HttpClient client, AppProcess app, String variant) throws Exception {
+        String username = "native-" + variant;
+        HttpResponse<String> register = client.send(post(app, "/api/auth/register",
+                Map.of("username", username, "email", username + "@kodprodobro.cz", "password", PASSWORD)),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(register.statusCode()).as("Registrace: %s", register.body()).isEqualTo(200);
+
+        HttpResponse<String> login = client.send(post(app, "/api/auth/login",
+                Map.of("username", username, "password", PASSWORD)), HttpResponse.BodyHandlers.ofString());
+        assertThat(login.statusCode()).as("Přihlášení: %s", login.body()).isEqualTo(200);
+        String token = login.headers().allValues(HttpHeaders.SET_COOKIE).stream()
+                .map(cookie -> cookie.substring(0, cookie.indexOf(';') > 0 ? cookie.indexOf(';') : cookie.length()))
+                .filter(cookie -> cookie.startsWith("accessToken="))
+                .map(cookie -> cookie.substring("accessToken=".length()))
+                .findFirst()
+                .orElseThrow();
+
+        HttpResponse<String> chats = client.send(HttpRequest.newBuilder(app.uri("/api/chats"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(chats.statusCode()).as("Chaty: %s", chats.body()).isEqualTo(200);
+
+        HttpResponse<String> apiDocs = client.send(HttpRequest.newBuilder(app.uri("/api-docs")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(apiDocs.statusCode()).as("OpenAPI").isEqualTo(200);
+        assertThat(apiDocs.body()).contains("/api/auth/login");
+    }
+
+    private HttpRequest post(AppProcess app, String path, Map<String, String> body) throws IOException {
+        return HttpRequest.newBuilder(app.uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    /**
+     * Resident set size z {@code /proc}, mimo Linux -1.
+     */
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.replaceAll("\\D", ""))
+                    .mapToLong(Long::parseLong)
+                    .findFirst()
+                    .orElse(-1);
+        }
+    }
+
+    private static void writeReport(List<Result> results) throws IOException {
+        Path report = LoadTestEnvironment.writeCsv("native.csv", "variant,startup_ms,rss_after_start_kb,rss_after_scenario_kb",
+                results.stream()
+                        .map(result -> "%s,%d,%d,%d".formatted(result.variant(), result.startupMillis(),
+                                result.rssAfterStartKb(), result.rssAfterScenarioKb()))
+                        .toList());
+        log.info("Srovnání native a JVM zapsáno do {}", report.toAbsolutePath());
+    }
+
+    private static Path findExecJar() throws IOException {
+        try (Stream<Path> files = Files.list(TARGET)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-exec.jar")).findFirst().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.kodprodobro.kodprodobro.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Doba od spuštění JVM do první obsloužené odpovědi {@code GET /api/projects/latest} pro varianty startu:
+ * <ul>
+ *     <li>{@code baseline} - spustitelný jar z {@code mvn package}</li>
+ *     <li>{@code lazy} - totéž s {@code app.startup.lazy-non-critical=true}</li>
+ *     <li>{@code aot-cds} - rozbalený jar s AOT a CDS archivem z profilu {@code startup}</li>
+ * </ul>
+ * Každá varianta se spustí {@code loadtest.startup.runs}krát (výchozí 3) nad databází z {@link LoadTestEnvironment},
+ * výsledek je v {@code target/loadtest/startup.csv}, výstup aplikací v {@code target/loadtest/startup-*.log}.
+ * Jary je potřeba sestavit předem: {@code mvn package -Pstartup -DskipTests}, pak
+ * {@code mvn test -Ploadtest -Dtest=StartupTimeLoadTest}. Chybějící varianta se přeskočí.
+ */
+@Slf4j
+@Tag("loadtest")
+@DisplayName("Startup Time Load Test")
+class StartupTimeLoadTest {
+
+    private static final Path TARGET = Path.of("target");
+
+    @RegisterExtension
+    static final LoadTestEnvironment environment = new LoadTestEnvironment();
+
+    private record Variant(String name, Path workingDirectory, List<String> command) {
+    }
+
+    @Test
+    @DisplayName("Doba startu do první odpovědi pro jednotlivé varianty")
+    void measureStartupTime() throws Exception {
+        int runs = Integer.getInteger("loadtest.startup.runs", 3);
+        List<Variant> variants = variants();
+        assumeTrue(!variants.isEmpty(), "Chybí spustitelný jar, nejdřív mvn package -Pstartup -DskipTests");
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            // První start zmigruje databázi, do měření se nepočítá
+            start(client, variants.get(0), "warmup");
+            for (int run = 1; run <= runs; run++) {
+                for (Variant variant : variants) {
+                    long millis = start(client, variant, Integer.toString(run));
+                    log.info("Start {} #{}: {} ms", variant.name(), run, millis);
+                    results.computeIfAbsent(variant.name(), name -> new ArrayList<>()).add(millis);
+                }
+            }
+        }
+
+        writeReport(results);
+        assertThat(results).hasSize(variants.size());
+    }
+
+    private List<Variant> variants() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Variant> variants = new ArrayList<>();
+        Path jar = findExecJar(TARGET);
+        if (jar == null) {
+            return variants;
+        }
+        variants.add(new Variant("baseline", TARGET, List.of(java, "-jar", jar.getFileName().toString())));
+        variants.add(new Variant("lazy", TARGET, List.of(java, "-jar", jar.getFileName().toString(),
+                "--app.startup.lazy-non-critical=true")));
+
+        Path startup = TARGET.resolve("startup");
+        Path extracted = findExecJar(startup);
+        if (extracted != null && Files.exists(startup.resolve("application.jsa"))) {
+            variants.add(new Variant("aot-cds", startup, List.of(java, "-XX:SharedArchiveFile=application.jsa",
+                    "-Dspring.aot.enabled=true", "-jar", extracted.getFileName().toString())));
+        }
+        return variants;
+    }
+
+    /**
+     * Spustí aplikaci a vrátí dobu do první odpovědi 200, proces pak ukončí.
+     */
+    private long start(HttpClient client, Variant variant, String run) throws Exception {
+        Path logFile = LoadTestEnvironment.reportFile("startup-" + variant.name() + "-" + run + ".log");
+        try (AppProcess app = AppProcess.start(client, environment, variant.command(), variant.workingDirectory(),
+                logFile, "/api/projects/latest")) {
+            return app.startupMillis();
+        }
+    }
+
+    private void writeReport(Map<String, List<Long>> results) throws IOException {
+        List<String> rows = results.entrySet().stream()
+                .map(entry -> {
+                    List<Long> sorted = entry.getValue().stream().sorted().toList();
+                    return "%s,%d,%d,%d,%d".formatted(entry.getKey(), sorted.size(), sorted.get(0),
+                            sorted.get(sorted.size() / 2), sorted.get(sorted.size() - 1));
+                })
+                .toList();
+        Path report = LoadTestEnvironment.writeCsv("startup.csv", "variant,runs,min_ms,median_ms,max_ms", rows);
+        log.info("Výsledek startu zapsán do {}", report.toAbsolutePath());
+    }
+
+    private static Path findExecJar(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-exec.jar")).findFirst().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.kodprodobro.kodprodobro.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodprodobro.kodprodobro.models.chat.Chat;
+import com.kodprodobro.kodprodobro.models.chat.ChatMessage;
+import com.kodprodobro.kodprodobro.models.enums.Role;
+import com.kodprodobro.kodprodobro.models.project.Project;
+import com.kodprodobro.kodprodobro.models.user.User;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageRepository;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatRepository;
+import com.kodprodobro.kodprodobro.repositories.project.ProjectRepository;
+import com.kodprodobro.kodprodobro.repositories.user.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Přehrání produkčního mixu provozu proti celé aplikaci (Tomcat, security, JPA) nad PostgreSQL.
+ * <p>
+ * Data se založí přes repozitáře: {@code loadtest.users} uživatelů, {@code loadtest.projects} projektů
+ * a chat pro každou dvojici uživatelů s {@code loadtest.messages-per-chat} zprávami. Každý klient
+ * je přihlášený uživatel, který v uzavřené smyčce vybírá akce podle vah {@code loadtest.mix}
+ * (výchozí {@code browse=40,search=15,login=10,open-chat=20,send-message=15}).
+ * Pro každý endpoint se změří propustnost a p50/p95/p99, výsledek se zapíše do {@code target/loadtest/traffic-mix.csv}.
+ * <p>
+ * Bez {@code loadtest.jdbc.url} běží nad embedded PostgreSQL, jinak nad zadanou (lokální) databází -
+ * ta se zmigruje Flywayem a data se do ní přidají pod novými jmény. Spouští se jen profilem
+ * {@code mvn test -Ploadtest -Dtest=TrafficMixLoadTest}. Další parametry: {@code loadtest.concurrency},
+ * {@code loadtest.warmup}, {@code loadtest.duration}.
+ */
+@Slf4j
+@DisplayName("Traffic Mix Load Test")
+class TrafficMixLoadTest extends AbstractLoadTest {
+
+    private static final String PASSWORD = "loadtest-heslo";
+    private static final String DEFAULT_MIX = "browse=40,search=15,login=10,open-chat=20,send-message=15";
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final String[] SEARCH_TERMS = {"web", "neziskovku", "aplikace", "projekt 1", "mapa"};
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Seedovaný uživatel, ID jeho chatu a aktuální access token.
+     */
+    private static final class VirtualUser {
+        private final String username;
+        private final long chatId;
+        private volatile String token;
+
+        private VirtualUser(String username, long chatId) {
+            this.username = username;
+            this.chatId = chatId;
+        }
+    }
+
+    private record EndpointStats(Histogram latencies, LongAdder requests, LongAdder errors) {
+
+        EndpointStats() {
+            this(new ConcurrentHistogram(3), new LongAdder(), new LongAdder());
+        }
+    }
+
+    private record Action(String name, int weight) {
+    }
+
+    @Test
+    @DisplayName("Propustnost a latence jednotlivých endpointů při produkčním mixu")
+    void replayTrafficMix() throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+        List<Action> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+        List<VirtualUser> users = seed(Integer.getInteger("loadtest.users", 200),
+                Integer.getInteger("loadtest.projects", 2_000), Integer.getInteger("loadtest.messages-per-chat", 20));
+
+        try (HttpClient client = newHttpClient()) {
+            for (VirtualUser user : users.subList(0, Math.min(concurrency, users.size()))) {
+                send(client, loginRequest(user), user);
+            }
+            run(client, users, mix, concurrency, warmup);
+            stats.clear();
+            run(client, users, mix, concurrency, duration);
+        }
+
+        writeReport(duration);
+        long requests = stats.values().stream().mapToLong(endpoint -> endpoint.requests().sum()).sum();
+        long errors = stats.values().stream().mapToLong(endpoint -> endpoint.errors().sum()).sum();
+        assertThat(requests).as("Žádný dokončený požadavek").isPositive();
+        assertThat(errors / (double) requests)
+                .as("Podíl chyb nad %.0f %%, snižte loadtest.concurrency", MAX_ERROR_RATE * 100)
+                .isLessThanOrEqualTo(MAX_ERROR_RATE);
+    }
+
+    /**
+     * Založí data přes repozitáře. Jména mají předponu běhu, opakovaný běh nad stejnou databází nekoliduje.
+     */
+    private List<VirtualUser> seed(int userCount, int projectCount, int messagesPerChat) {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(User.builder()
+                    .username("mix" + run + "-" + i)
+                    .email("mix" + run + "-" + i + "@example.com")
+                    .password(hash)
+                    .roles(new HashSet<>(Set.of(Role.USER)))
+                    .build());
+        }
+        users = userRepository.saveAll(users);
+
+        List<Project> projects = new ArrayList<>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            Project project = new Project();
+            project.setTitle("Projekt " + i + " web pro neziskovku");
+            project.setDescription("Popis projektu. ".repeat(20));
+            project.setOwner(users.get(i % userCount));
+            project.setCategoryId((long) (i % 12));
+            project.setPublished(true);
+            projects.add(project);
+        }
+        projectRepository.saveAll(projects);
+
+        // Chat pro každou dvojici uživatelů (0-1, 2-3, ...)
+        List<VirtualUser> virtualUsers = new ArrayList<>(userCount);
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i + 1 < userCount; i += 2) {
+            User first = users.get(i);
+            User second = users.get(i + 1);
+            Chat chat = chatRepository.save(Chat.builder().participants(new HashSet<>(Set.of(first, second))).build());
+            for (int m = 0; m < messagesPerChat; m++) {
+                messages.add(ChatMessage.builder()
+                        .chat(chat)
+                        .sender(m % 2 == 0 ? first : second)
+                        .content("Zpráva " + m + " k projektu, kdy se můžeme spojit?")
+                        .timestamp(LocalDateTime.now().minusMinutes(messagesPerChat - m))
+                        .build());
+            }
+            virtualUsers.add(new VirtualUser(first.getUsername(), chat.getId()));
+            virtualUsers.add(new VirtualUser(second.getUsername(), chat.getId()));
+        }
+        chatMessageRepository.saveAll(messages);
+        log.warn("Seed {}: {} uživatelů, {} projektů, {} chatů, {} zpráv",
+                run, userCount, projectCount, virtualUsers.size() / 2, messages.size());
+        return virtualUsers;
+    }
+
+    /**
+     * Uzavřená smyčka: klient {@code i} hraje uživatele {@code i} a po odpovědi hned posílá další akci.
+     */
+    private void run(HttpClient client, List<VirtualUser> users, List<Action> mix, int concurrency, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        int totalWeight = mix.stream().mapToInt(Action::weight).sum();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                VirtualUser user = users.get(i % users.size());
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        send(client, nextRequest(user, pick(mix, totalWeight)), user);
+                    }
+                });
+            }
+        }
+    }
+
+    private void send(HttpClient client, HttpRequest request, VirtualUser user) {
+        EndpointStats endpoint = stats.computeIfAbsent(endpointOf(request), ignored -> new EndpointStats());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                endpoint.errors().increment();
+            } else if (request.uri().getPath().equals("/api/auth/login")) {
+                response.headers().allValues(HttpHeaders.SET_COOKIE).stream()
+                        .map(cookie -> cookie.substring(0, cookie.indexOf(';') > 0 ? cookie.indexOf(';') : cookie.length()))
+                        .filter(cookie -> cookie.startsWith("accessToken="))
+                        .findFirst()
+                        .ifPresent(cookie -> user.token = cookie.substring("accessToken=".length()));
+            }
+        } catch (IOException e) {
+            endpoint.errors().increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        endpoint.latencies().recordValue((System.nanoTime() - start) / 1_000);
+        endpoint.requests().increment();
+    }
+
+    private HttpRequest nextRequest(VirtualUser user, Action action) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (action.name()) {
+            case "browse" -> get("/api/projects/latest", null);
+            case "search" -> get("/api/projects/search?title="
+                    + URLEncoder.encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], StandardCharsets.UTF_8), null);
+            case "login" -> loginRequest(user);
+            case "open-chat" -> get("/api/chats/" + user.chatId + "/messages", user);
+            case "send-message" -> HttpRequest.newBuilder(uri("/api/chats/" + user.chatId + "/messages"))
+                    .header("Content-Type", "application/json")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.token)
+                    .POST(HttpRequest.BodyPublishers.ofString(json(Map.of("content", "Zpráva ze zátěžového testu"))))
+                    .build();
+            default -> throw new IllegalArgumentException("Neznámá akce " + action.name());
+        };
+    }
+
+    private HttpRequest loginRequest(VirtualUser user) {
+        return HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(Map.of("username", user.username, "password", PASSWORD))))
+                .build();
+    }
+
+    private HttpRequest get(String path, VirtualUser user) {
+        HttpRequest.Builder request = request(path);
+        if (user != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + user.token);
+        }
+        return request.build();
+    }
+
+    /**
+     * Endpoint bez konkrétních ID, aby se požadavky na různé chaty sčítaly dohromady.
+     */
+    private static String endpointOf(HttpRequest request) {
+        return request.method() + " " + request.uri().getPath().replaceAll("/\\d+", "/{id}");
+    }
+
+    private String json(Map<String, String> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Action pick(List<Action> mix, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Action action : mix) {
+            roll -= action.weight();
+            if (roll < 0) {
+                return action;
+            }
+        }
+        return mix.getLast();
+    }
+
+    private static List<Action> parseMix(String mix) {
+        return Arrays.stream(mix.split(","))
+                .map(entry -> entry.trim().split("="))
+                .map(entry -> new Action(entry[0].trim(), Integer.parseInt(entry[1].trim())))
+                .filter(action -> action.weight() > 0)
+                .toList();
+    }
+
+    private void writeReport(Duration duration) throws IOException {
+        List<String> rows = stats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> {
+                    Histogram latencies = entry.getValue().latencies();
+                    long requests = entry.getValue().requests().sum();
+                    return String.format(Locale.ROOT, "%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%d", entry.getKey(), requests,
+                            requests / (double) duration.toSeconds(),
+                            latencies.getValueAtPercentile(50) / 1_000.0, latencies.getValueAtPercentile(95) / 1_000.0,
+                            latencies.getValueAtPercentile(99) / 1_000.0, latencies.getMaxValue() / 1_000.0,
+                            entry.getValue().errors().sum());
+                })
+                .toList();
+        rows.forEach(row -> log.warn("{}", row));
+        Path report = LoadTestEnvironment.writeCsv("traffic-mix.csv",
+                "endpoint,requests,throughput_rps,p50_ms,p95_ms,p99_ms,max_ms,errors", rows);
+        log.warn("Výsledek zapsán do {}", report.toAbsolutePath());
+    }
+}
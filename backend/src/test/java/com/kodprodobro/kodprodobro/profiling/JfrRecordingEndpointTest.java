@@ -0,0 +1,106 @@
+package com.kodprodobro.kodprodobro.profiling;
+
+import com.kodprodobro.kodprodobro.config.TimedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JfrRecordingEndpoint Tests")
+class JfrRecordingEndpointTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    private JfrRecordingEndpoint endpoint;
+
+    @AfterEach
+    void tearDown() {
+        if (endpoint != null) {
+            endpoint.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Nahrávání zachytí vlastní události aplikace a stáhne se jako .jfr")
+    void startStopDownload_ContainsApplicationEvents() throws Exception {
+        endpoint = new JfrRecordingEndpoint(Duration.ofMinutes(1), Duration.ofMinutes(5), DataSize.ofMegabytes(50), dumpDirectory);
+
+        WebEndpointResponse<JfrRecordingEndpoint.RecordingInfo> started = endpoint.start("default", null);
+        assertThat(started.getStatus()).isEqualTo(200);
+        long id = started.getBody().id();
+
+        TimedPasswordEncoder encoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(4), new SimpleMeterRegistry());
+        encoder.matches("heslo123", encoder.encode("heslo123"));
+
+        assertThat(endpoint.stop(id).getBody().state()).isEqualTo("STOPPED");
+        WebEndpointResponse<Resource> download = endpoint.download(id);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(download.getBody().getFile().toPath());
+
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("kodprodobro.PasswordHash"))
+                .extracting(event -> event.getString("operation") + ":" + event.getString("outcome"))
+                .containsExactly("encode:success", "matches:match");
+        assertThat(endpoint.download(id).getBody().getFile()).isNotEqualTo(download.getBody().getFile());
+    }
+
+    @Test
+    @DisplayName("Drží se tři poslední zastavená nahrávání, starší se zavřou i se soubory")
+    void start_KeepsThreeStoppedRecordings() throws Exception {
+        endpoint = new JfrRecordingEndpoint(Duration.ofMinutes(1), Duration.ofMinutes(5), DataSize.ofMegabytes(50), dumpDirectory);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            long id = endpoint.start("default", null).getBody().id();
+            endpoint.stop(id);
+            endpoint.download(id);
+            ids.add(id);
+        }
+        long running = endpoint.start("default", null).getBody().id();
+
+        assertThat(endpoint.recordings())
+                .extracting(JfrRecordingEndpoint.RecordingInfo::id)
+                .containsExactly(ids.get(1), ids.get(2), ids.get(3), running);
+        try (Stream<Path> dumps = Files.list(dumpDirectory)) {
+            assertThat(dumps).hasSize(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Druhé nahrávání během běžícího je odmítnuto, délka se omezí")
+    void start_RejectsConcurrentRecordingAndCapsDuration() {
+        endpoint = new JfrRecordingEndpoint(Duration.ofMinutes(1), Duration.ofMinutes(5), DataSize.ofMegabytes(50), dumpDirectory);
+
+        WebEndpointResponse<JfrRecordingEndpoint.RecordingInfo> started = endpoint.start("default", Duration.ofHours(2));
+        assertThat(started.getBody().duration()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(endpoint.start("default", null).getStatus()).isEqualTo(409);
+        assertThat(endpoint.recordings()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Neznámé nastavení a neexistující nahrávání vrátí chybový status")
+    void invalidRequests_ReturnErrorStatus() {
+        endpoint = new JfrRecordingEndpoint(Duration.ofMinutes(1), Duration.ofMinutes(5), DataSize.ofMegabytes(50), dumpDirectory);
+
+        assertThat(endpoint.start("neexistuje", null).getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.stop(999_999).getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+        assertThat(endpoint.download(999_999).getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+        assertThat(endpoint.close(999_999).getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
@@ -0,0 +1,298 @@
+package com.kodprodobro.kodprodobro.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodprodobro.kodprodobro.config.FlywayConfig;
+import com.kodprodobro.kodprodobro.config.JpaConfig;
+import com.kodprodobro.kodprodobro.models.enums.Role;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageRepository;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatRepository;
+import com.kodprodobro.kodprodobro.repositories.password.PasswordResetRepository;
+import com.kodprodobro.kodprodobro.repositories.project.ProjectRepository;
+import com.kodprodobro.kodprodobro.repositories.token.BlacklistedTokenRepository;
+import com.kodprodobro.kodprodobro.repositories.token.RevokedTokenRepository;
+import com.kodprodobro.kodprodobro.repositories.user.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Kontrola plánů dotazů z repozitářů nad embedded PostgreSQL s migracemi Flyway a daty realistické velikosti.
+ * <p>
+ * Každý dotaz se zavolá přes repozitář, SQL vygenerované Hibernatem se zachytí a pustí přes
+ * {@code EXPLAIN (GENERIC_PLAN)} - tedy plán pro libovolné parametry. Test selže, pokud plán obsahuje
+ * sekvenční scan velké tabulky. Zároveň ověřuje, že migrace odpovídají entitám ({@code ddl-auto=validate}).
+ * Bez možnosti spustit embedded PostgreSQL se přeskočí.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.kodprodobro.kodprodobro.repository.RepositoryQueryPlanTest$RecordingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, FlywayConfig.class})
+@DisplayName("Repository Query Plan Tests")
+class RepositoryQueryPlanTest {
+
+    private static final Set<String> LARGE_TABLES = Set.of("users", "user_roles", "projects", "chats",
+            "chat_participants", "chat_messages", "notifications", "password_reset_token", "revoked_token",
+            "blacklisted_tokens");
+
+    private static final String SEED_SQL = """
+            insert into users (id, username, email, password, password_reset_token, notify_by_email,
+                               notify_new_messages, notify_project_updates, created_at)
+            select g, 'user' || g, 'user' || g || '@example.com', 'hash',
+                   case when g % 100 = 0 then 'reset-' || g end, true, true, g % 3 <> 0, now()
+            from generate_series(1, 20000) g;
+            insert into user_roles (user_id, roles)
+            select g, (array['USER', 'STUDENT', 'TEACHER', 'NONPROFIT'])[1 + g % 4] from generate_series(1, 20000) g;
+            insert into projects (id, title, description, owner_id, category_id, published, created_at, updated_at, version)
+            select g, 'Projekt ' || g || ' web pro neziskovku', 'Popis projektu', 1 + g % 20000, g % 12, g % 10 <> 0,
+                   now() - g * interval '1 minute', now() - g * interval '1 minute', 0
+            from generate_series(1, 50000) g;
+            insert into chats (id) select g from generate_series(1, 20000) g;
+            insert into chat_participants (chat_id, user_id)
+            select g, 1 + g % 20000 from generate_series(1, 20000) g
+            union all
+            select g, 1 + (g + 1) % 20000 from generate_series(1, 20000) g;
+            insert into chat_messages (id, chat_id, sender_id, content, timestamp)
+            select g, 1 + g % 20000, 1 + g % 20000, 'Zpráva ' || g, now() - g * interval '1 second'
+            from generate_series(1, 200000) g;
+            insert into notifications (id, recipient_id, project_id, type, title, is_read, created_at)
+            select g, 1 + g % 20000, 1 + g % 50000, 'PROJECT_PUBLISHED', 'Nový projekt', false, now()
+            from generate_series(1, 100000) g;
+            insert into password_reset_token (id, token, user_id, expiry_date)
+            select g, 'token-' || g, g, now() + (g % 48 - 24) * interval '1 hour' from generate_series(1, 5000) g;
+            insert into revoked_token (id, token, expiration_date)
+            select g, 'jwt-' || g, now() from generate_series(1, 20000) g;
+            insert into blacklisted_tokens (id, token, expiration_date)
+            select g, 'jwt-' || g, now() from generate_series(1, 20000) g;
+            analyze;
+            """;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordResetRepository passwordResetRepository;
+
+    @Autowired
+    private BlacklistedTokenRepository blacklistedTokenRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> violations = new ArrayList<>();
+
+    /**
+     * Zachytí každé SQL, které Hibernate pošle do DB.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeAll
+    static void startPostgres() {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException | RuntimeException e) {
+            assumeTrue(false, "Embedded PostgreSQL nelze spustit: " + e.getMessage());
+        }
+        // Migrace a data jednou pro celou třídu, testy samotné běží v transakci s rollbackem
+        FluentConfiguration flyway = Flyway.configure().dataSource(postgres.getPostgresDatabase());
+        new FlywayConfig().migrationCustomizer().customize(flyway);
+        flyway.load().migrate();
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute(SEED_SQL);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @Test
+    @DisplayName("ProjectRepository - veřejné výpisy a dohánění změn používají indexy")
+    void projectQueries_UseIndexes() {
+        assertNoSequentialScan("findTop10ByPublishedTrueOrderByCreatedAtDesc",
+                () -> projectRepository.findTop10ByPublishedTrueOrderByCreatedAtDesc());
+        assertNoSequentialScan("findByPublishedTrueAndUpdatedAtAfter",
+                () -> projectRepository.findByPublishedTrueAndUpdatedAtAfter(LocalDateTime.now().minusMinutes(5)));
+        // Trigramový index neumí PostgreSQL ocenit pro neznámý vzor, plán se proto počítá pro konkrétní hodnotu
+        assertNoSequentialScan("findByTitleContainingIgnoreCaseAndPublishedTrue",
+                () -> projectRepository.findByTitleContainingIgnoreCaseAndPublishedTrue("neziskovku 4711"),
+                "%neziskovku 4711%");
+        assertNoSequentialScan("findPublishedVersionById", () -> projectRepository.findPublishedVersionById(42L));
+        assertNoSequentialScan("findAllById", () -> projectRepository.findAllById(List.of(1L, 2L, 3L)));
+        // findByPublishedTrue, findPublishedIds a streamPublishedWithOwner čtou celý katalog - sekvenční scan je tam správně
+
+        assertThat(violations).isEmpty();
+    }
+
+    @Test
+    @DisplayName("ChatRepository a ChatMessageRepository - členství a zprávy chatu používají indexy")
+    void chatQueries_UseIndexes() {
+        assertNoSequentialScan("isParticipant", () -> chatRepository.isParticipant(10L, "user11"));
+        assertNoSequentialScan("findParticipantId", () -> chatRepository.findParticipantId(10L, "user11"));
+        assertNoSequentialScan("findChatParticipantsByUsername", () -> chatRepository.findChatParticipantsByUsername("user11"));
+        assertNoSequentialScan("findResponsesByChatId", () -> chatMessageRepository.findResponsesByChatId(10L));
+
+        assertThat(violations).isEmpty();
+    }
+
+    @Test
+    @DisplayName("UserRepository - přihlášení, registrace, reset hesla a rozesílání notifikací používají indexy")
+    void userQueries_UseIndexes() {
+        assertNoSequentialScan("findByUsername", () -> userRepository.findByUsername("user5"));
+        assertNoSequentialScan("findByEmail", () -> userRepository.findByEmail("user5@example.com"));
+        assertNoSequentialScan("existsByUsername", () -> userRepository.existsByUsername("user5"));
+        assertNoSequentialScan("existsByEmail", () -> userRepository.existsByEmail("user5@example.com"));
+        assertNoSequentialScan("existsByUsernameAndIdNot", () -> userRepository.existsByUsernameAndIdNot("user5", 6L));
+        assertNoSequentialScan("existsByEmailAndIdNot", () -> userRepository.existsByEmailAndIdNot("user5@example.com", 6L));
+        assertNoSequentialScan("findByPasswordResetToken", () -> userRepository.findByPasswordResetToken("reset-100"));
+        assertNoSequentialScan("findProjectUpdateRecipientsAfter",
+                () -> userRepository.findProjectUpdateRecipientsAfter(Set.of(Role.STUDENT), 1000L, Limit.of(500)));
+
+        assertThat(violations).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Tokeny - ověření a úklid používají indexy")
+    void tokenQueries_UseIndexes() {
+        assertNoSequentialScan("PasswordResetRepository.findByToken", () -> passwordResetRepository.findByToken("token-5"));
+        assertNoSequentialScan("PasswordResetRepository.deleteByExpiryDateBefore",
+                () -> passwordResetRepository.deleteByExpiryDateBefore(Instant.now().minus(23, ChronoUnit.HOURS)));
+        assertNoSequentialScan("PasswordResetRepository.deleteByUser",
+                () -> passwordResetRepository.deleteByUser(userRepository.getReferenceById(7L)));
+        assertNoSequentialScan("BlacklistedTokenRepository.existsByToken", () -> blacklistedTokenRepository.existsByToken("jwt-5"));
+        assertNoSequentialScan("RevokedTokenRepository.existsByToken", () -> revokedTokenRepository.existsByToken("jwt-5"));
+
+        assertThat(violations).isEmpty();
+    }
+
+    /**
+     * Zavolá dotaz, vezme všechna SQL, která vyvolal, a zapíše porušení pro každý sekvenční scan velké tabulky.
+     * Bez vzorových parametrů se kontroluje generický plán, jinak plán pro zadané hodnoty.
+     */
+    private void assertNoSequentialScan(String query, Runnable call, Object... sampleParameters) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        call.run();
+        // Odložené DELETE/UPDATE se do DB dostanou až při flush
+        entityManager.flush();
+
+        List<String> statements = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> !sql.stripLeading().toLowerCase().startsWith("insert"))
+                .distinct()
+                .toList();
+        assertThat(statements).as("%s nevyvolal žádný dotaz", query).isNotEmpty();
+
+        // Samostatné spojení v simple query módu - v extended protokolu by ovladač $1 bral jako chybějící parametr
+        JdbcTemplate genericPlans = new JdbcTemplate(
+                postgres.getDatabase("postgres", "postgres", Map.of("preferQueryMode", "simple")));
+        JdbcTemplate customPlans = new JdbcTemplate(postgres.getPostgresDatabase());
+        for (String sql : statements) {
+            String plan = sampleParameters.length == 0
+                    ? genericPlans.queryForObject("explain (generic_plan, format json) " + toPositional(sql), String.class)
+                    : customPlans.queryForObject("explain (format json) " + sql, String.class, sampleParameters);
+            sequentialScans(plan).forEach(table ->
+                    violations.add(query + ": sekvenční scan tabulky " + table + "\n  " + sql));
+        }
+    }
+
+    private List<String> sequentialScans(String planJson) {
+        try {
+            JsonNode root = objectMapper.readTree(planJson);
+            return collectSequentialScans(root.get(0).get("Plan")).toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Neplatný JSON plánu: " + planJson, e);
+        }
+    }
+
+    private Stream<String> collectSequentialScans(JsonNode node) {
+        Stream<String> own = "Seq Scan".equals(node.path("Node Type").asText())
+                && LARGE_TABLES.contains(node.path("Relation Name").asText())
+                ? Stream.of(node.path("Relation Name").asText())
+                : Stream.empty();
+        Stream<String> children = node.has("Plans")
+                ? java.util.stream.StreamSupport.stream(node.get("Plans").spliterator(), false).flatMap(this::collectSequentialScans)
+                : Stream.empty();
+        return Stream.concat(own, children);
+    }
+
+    /**
+     * JDBC parametry {@code ?} na PostgreSQL {@code $1, $2, ...}, jak je očekává EXPLAIN (GENERIC_PLAN).
+     */
+    private static String toPositional(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        int index = 0;
+        boolean inLiteral = false;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                result.append('$').append(++index);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
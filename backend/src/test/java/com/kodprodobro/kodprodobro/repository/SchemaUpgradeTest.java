@@ -0,0 +1,174 @@
+package com.kodprodobro.kodprodobro.repository;
+
+import com.kodprodobro.kodprodobro.config.FlywayConfig;
+import com.kodprodobro.kodprodobro.config.JpaConfig;
+import com.kodprodobro.kodprodobro.models.project.ProjectCatalogVersion;
+import com.kodprodobro.kodprodobro.repositories.project.ProjectCatalogVersionRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Přechod databáze z doby {@code ddl-auto=update} na Flyway: baseline verze 1, pak V2 a novější.
+ * Po migraci musí schéma projít {@code ddl-auto=validate} a stará data dostat výchozí hodnoty nových sloupců.
+ * Bez možnosti spustit embedded PostgreSQL se přeskočí.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, FlywayConfig.class})
+@DisplayName("Schema Upgrade Tests")
+class SchemaUpgradeTest {
+
+    // Schéma, které Hibernate vytvořil z entit před zavedením Flyway (IDENTITY, bez notifikací a verzí projektů)
+    private static final String LEGACY_SCHEMA_SQL = """
+            create table users (
+                id bigint generated by default as identity primary key,
+                username varchar(30) not null unique,
+                email varchar(50) not null unique,
+                password varchar(100) not null,
+                password_reset_token varchar(255),
+                password_reset_token_expiry timestamp(6) with time zone,
+                created_at timestamp(6) with time zone not null,
+                updated_at timestamp(6) with time zone
+            );
+            create table user_roles (
+                user_id bigint not null references users,
+                roles varchar(255)
+            );
+            create table projects (
+                id bigint generated by default as identity primary key,
+                title varchar(255) not null,
+                description varchar(2000),
+                owner_id bigint not null references users,
+                category_id bigint,
+                published boolean not null,
+                repository_url varchar(255),
+                created_at timestamp(6)
+            );
+            create table chats (id bigint generated by default as identity primary key);
+            create table chat_participants (
+                chat_id bigint not null references chats,
+                user_id bigint not null references users,
+                primary key (chat_id, user_id)
+            );
+            create table chat_messages (
+                id bigint generated by default as identity primary key,
+                chat_id bigint not null references chats,
+                sender_id bigint not null references users,
+                content varchar(4000),
+                timestamp timestamp(6)
+            );
+            create table password_reset_token (
+                id bigint generated by default as identity primary key,
+                token varchar(255) not null unique,
+                user_id bigint not null unique references users,
+                expiry_date timestamp(6) with time zone not null
+            );
+            create table revoked_token (
+                id bigint generated by default as identity primary key,
+                token varchar(255),
+                expiration_date timestamp(6) with time zone
+            );
+            create table blacklisted_tokens (
+                id bigint generated by default as identity primary key,
+                token varchar(512) not null unique,
+                expiration_date timestamp(6) with time zone not null
+            );
+            insert into users (username, email, password, created_at) values ('alice', 'alice@example.com', 'hash', now());
+            insert into projects (title, description, owner_id, category_id, published, created_at)
+            values ('Web pro útulek', 'Popis', 1, 3, true, timestamp '2024-05-01 10:00:00');
+            """;
+
+    private static EmbeddedPostgres postgres;
+    private static MigrationInfo[] applied;
+
+    @Autowired
+    private ProjectCatalogVersionRepository catalogVersionRepository;
+
+    @BeforeAll
+    static void startPostgres() {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException | RuntimeException e) {
+            assumeTrue(false, "Embedded PostgreSQL nelze spustit: " + e.getMessage());
+        }
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute(LEGACY_SCHEMA_SQL);
+        FluentConfiguration configuration = Flyway.configure().dataSource(postgres.getPostgresDatabase());
+        new FlywayConfig().migrationCustomizer().customize(configuration);
+        Flyway flyway = configuration.load();
+        flyway.migrate();
+        applied = flyway.info().applied();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @Test
+    @DisplayName("Stará databáze dostane baseline a chybějící objekty, stávající řádky výchozí hodnoty")
+    void migrate_LegacyDatabase_AddsMissingObjects() {
+        assertThat(Arrays.stream(applied).map(info -> info.getVersion().getVersion()))
+                .containsExactly("1", "2", "3", "4", "5");
+        assertThat(Arrays.stream(applied).allMatch(info -> info.getState().isApplied() && !info.getState().isFailed())).isTrue();
+
+        JdbcTemplate jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        Map<String, Object> user = jdbc.queryForMap("select notify_by_email, notify_new_messages, notify_project_updates from users");
+        assertThat(user.values()).containsOnly(true);
+        Map<String, Object> project = jdbc.queryForMap("select version, updated_at = created_at as touched from projects");
+        assertThat(project).containsEntry("version", 0L).containsEntry("touched", true);
+        assertThat(jdbc.queryForObject("select count(*) from notifications", Long.class)).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from pg_indexes where indexname in "
+                + "('idx_projects_published_updated_at', 'idx_notifications_recipient_id_created_at')", Long.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Verze katalogu je po migraci založená, inkrement ji zvedá jedním příkazem")
+    void catalogVersion_SeededAndIncremented() {
+        assertThat(catalogVersionRepository.findVersionById(ProjectCatalogVersion.SINGLETON_ID)).contains(0L);
+
+        catalogVersionRepository.increment(ProjectCatalogVersion.SINGLETON_ID);
+        catalogVersionRepository.increment(ProjectCatalogVersion.SINGLETON_ID);
+
+        assertThat(catalogVersionRepository.findVersionById(ProjectCatalogVersion.SINGLETON_ID)).contains(2L);
+    }
+
+    @Test
+    @DisplayName("Inkrement založí chybějící řádek verze katalogu")
+    void catalogVersion_MissingRow_IsInserted() {
+        catalogVersionRepository.deleteAllInBatch();
+
+        catalogVersionRepository.increment(ProjectCatalogVersion.SINGLETON_ID);
+
+        assertThat(catalogVersionRepository.findVersionById(ProjectCatalogVersion.SINGLETON_ID)).contains(1L);
+    }
+}
@@ -0,0 +1,205 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageBatchRepository;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageBatchRepository.PendingRow;
+import com.kodprodobro.kodprodobro.services.chat.ChatMessageWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy write-behind zápisu zpráv chatu (bloky ID, dávky, potvrzení po zápisu, izolace chyb).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChatMessageWriteBuffer Tests")
+class ChatMessageWriteBufferTest {
+
+    @Mock
+    private ChatMessageBatchRepository batchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChatMessageWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        lenient().when(batchRepository.nextIdBlock()).thenReturn(100L, 150L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("ID se berou z bloku sekvence - jeden dotaz na 50 zpráv")
+    void append_AllocatesIdsFromBlocks() {
+        buffer = newBuffer(true);
+
+        List<Long> ids = new java.util.ArrayList<>();
+        for (int i = 0; i < 51; i++) {
+            ids.add(buffer.append(1L, 2L, "alice", "Zpráva " + i, null).message().id());
+        }
+
+        assertThat(ids.get(0)).isEqualTo(100L);
+        assertThat(ids.get(49)).isEqualTo(149L);
+        assertThat(ids.get(50)).isEqualTo(150L);
+        verify(batchRepository, times(2)).nextIdBlock();
+    }
+
+    @Test
+    @DisplayName("Potvrzení až po zápisu, souběžné zprávy se uloží ve společných dávkách v pořadí fronty")
+    void append_FlushBeforeAck_WaitsForBatch() throws Exception {
+        List<List<PendingRow>> batches = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.getArgument(0)));
+            return null;
+        }).when(batchRepository).insertBatch(anyList());
+        buffer = newBuffer(true);
+
+        int senders = 20;
+        CountDownLatch done = new CountDownLatch(senders);
+        List<ChatMessageWriteBuffer.Appended> acked = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < senders; i++) {
+            int n = i;
+            Thread.ofVirtual().start(() -> {
+                acked.add(buffer.append(1L, 2L, "alice", "Zpráva " + n, null));
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Long> written = batches.stream().flatMap(List::stream).map(row -> row.message().id()).toList();
+        // Každá potvrzená zpráva už je zapsaná, v bufferu nic nečeká
+        assertThat(written).containsExactlyInAnyOrderElementsOf(acked.stream().map(appended -> appended.message().id()).toList());
+        assertThat(acked).allMatch(ChatMessageWriteBuffer.Appended::stored);
+        assertThat(buffer.pendingMessages(1L)).isEmpty();
+        // Uložené zprávy už nejsou mezi čekajícími, čtení chatu je musí hledat na primární DB
+        assertThat(buffer.recentlyWritten(1L)).isTrue();
+        assertThat(buffer.recentlyWritten(2L)).isFalse();
+        assertThat(meterRegistry.get("chat.messages.flush.batch.size").summary().totalAmount()).isEqualTo(senders);
+    }
+
+    @Test
+    @DisplayName("Vadná zpráva neshodí dávku - ostatní se uloží jednotlivě, odesílatel vadné dostane chybu")
+    void flush_FailingRow_IsIsolated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<PendingRow> rows = invocation.getArgument(0);
+            if (rows.size() == 1 && rows.get(0).message().chatId() == 1L && rows.get(0).message().content().equals("blok")) {
+                // První zprávu pozdržíme, aby se ostatní nahromadily do jedné dávky
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            }
+            if (rows.stream().anyMatch(row -> row.message().chatId() == 99L)) {
+                throw new DataIntegrityViolationException("chat 99 neexistuje");
+            }
+            return null;
+        }).when(batchRepository).insertBatch(anyList());
+        buffer = newBuffer(false);
+
+        buffer.append(1L, 2L, "alice", "blok", null);
+        ChatMessageResponse ok = buffer.append(1L, 2L, "alice", "ok", null).message();
+        ChatMessageResponse bad = buffer.append(99L, 2L, "alice", "špatně", null).message();
+        assertThat(buffer.pendingMessages(1L)).extracting(ChatMessageResponse::id).contains(ok.id());
+        release.countDown();
+
+        // Vypnutí počká, až zapisovací vlákno frontu dokončí
+        buffer.shutdown();
+        verify(batchRepository).insertBatch(argThat(rows -> rows.size() == 1 && rows.get(0).message().id().equals(ok.id())));
+        verify(batchRepository).insertBatch(argThat(rows -> rows.size() == 1 && rows.get(0).message().id().equals(bad.id())));
+        assertThat(buffer.pendingMessages(1L)).isEmpty();
+        assertThat(meterRegistry.get("chat.messages.flush.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Se zapnutým potvrzením po zápisu dostane odesílatel chybu DB")
+    void append_FlushBeforeAck_PropagatesFailure() {
+        doThrow(new DataIntegrityViolationException("chat neexistuje")).when(batchRepository).insertBatch(anyList());
+        buffer = newBuffer(true);
+
+        assertThatThrownBy(() -> buffer.append(99L, 2L, "alice", "Ahoj", null))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(buffer.pendingMessages(99L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Nepotvrzený zápis do ack-timeout vrací přijatou zprávu, opakování se stejným klíčem ji nezduplikuje")
+    void append_AckTimeout_RetryWithIdempotencyKeyReturnsOriginal() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(batchRepository).insertBatch(anyList());
+        buffer = newBuffer(true, Duration.ofMillis(200));
+
+        ChatMessageWriteBuffer.Appended first = buffer.append(1L, 2L, "alice", "Ahoj", "klic-1");
+        assertThat(first.stored()).isFalse();
+        assertThat(buffer.pendingMessages(1L)).extracting(ChatMessageResponse::id).containsExactly(first.message().id());
+
+        release.countDown();
+        for (int i = 0; i < 100 && !buffer.pendingMessages(1L).isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        ChatMessageWriteBuffer.Appended retry = buffer.append(1L, 2L, "alice", "Ahoj", "klic-1");
+        assertThat(retry.message()).isEqualTo(first.message());
+        assertThat(retry.stored()).isTrue();
+        verify(batchRepository, times(1)).insertBatch(anyList());
+
+        // Jiný odesílatel se stejným klíčem je jiná zpráva
+        ChatMessageWriteBuffer.Appended other = buffer.append(1L, 3L, "bob", "Ahoj", "klic-1");
+        assertThat(other.message().id()).isNotEqualTo(first.message().id());
+    }
+
+    @Test
+    @DisplayName("Zprávu, jejíž zápis selhal, lze se stejným klíčem odeslat znovu")
+    void append_FailedWrite_RetryWithSameKeyIsStored() {
+        doThrow(new DataIntegrityViolationException("výpadek")).doNothing().when(batchRepository).insertBatch(anyList());
+        buffer = newBuffer(true);
+
+        assertThatThrownBy(() -> buffer.append(1L, 2L, "alice", "Ahoj", "klic-1"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        ChatMessageWriteBuffer.Appended retry = buffer.append(1L, 2L, "alice", "Ahoj", "klic-1");
+
+        assertThat(retry.stored()).isTrue();
+        verify(batchRepository, times(2)).insertBatch(anyList());
+    }
+
+    private ChatMessageWriteBuffer newBuffer(boolean flushBeforeAck) {
+        return newBuffer(flushBeforeAck, Duration.ofSeconds(5));
+    }
+
+    private ChatMessageWriteBuffer newBuffer(boolean flushBeforeAck, Duration ackTimeout) {
+        ChatMessageWriteBuffer created = new ChatMessageWriteBuffer(batchRepository, transactionManager, meterRegistry,
+                true, flushBeforeAck, 500, ackTimeout, Duration.ofMinutes(10), Duration.ofSeconds(5));
+        created.start();
+        return created;
+    }
+}
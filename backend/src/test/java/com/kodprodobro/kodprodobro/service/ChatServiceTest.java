@@ -0,0 +1,110 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.kodprodobro.kodprodobro.dto.chat.ChatMessageResponse;
+import com.kodprodobro.kodprodobro.dto.chat.ChatResponse;
+import com.kodprodobro.kodprodobro.exception.chat.ChatNotFoundException;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatMessageRepository;
+import com.kodprodobro.kodprodobro.repositories.chat.ChatRepository;
+import com.kodprodobro.kodprodobro.services.chat.ChatMessageWriteBuffer;
+import com.kodprodobro.kodprodobro.services.chat.ChatService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy pro ChatService (kontrola členství, zápis a čtení přes write-behind buffer).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChatService Tests")
+class ChatServiceTest {
+
+    @Mock
+    private ChatRepository chatRepository;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private ChatMessageWriteBuffer writeBuffer;
+
+    @InjectMocks
+    private ChatService chatService;
+
+    @Test
+    @DisplayName("Odeslání zprávy účastníkem - jedno ověření členství, zápis přes write-behind buffer")
+    void sendMessage_Participant_AppendsToBuffer() {
+        ChatMessageResponse appended = new ChatMessageResponse(11L, 3L, "alice", "Ahoj", LocalDateTime.of(2025, 1, 1, 12, 0));
+        when(chatRepository.findParticipantId(3L, "alice")).thenReturn(Optional.of(7L));
+        ChatMessageWriteBuffer.Appended accepted = new ChatMessageWriteBuffer.Appended(appended, true);
+        when(writeBuffer.append(3L, 7L, "alice", "Ahoj", "klic")).thenReturn(accepted);
+
+        assertThat(chatService.sendMessage(3L, "alice", "Ahoj", "klic")).isEqualTo(accepted);
+        verify(chatRepository, never()).findById(any());
+        verify(chatRepository, never()).existsById(any());
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    @DisplayName("Zprávy chatu obsahují i neuložené zprávy z bufferu, bez duplicit a ve správném pořadí")
+    void getMessages_MergesPendingMessages() {
+        ChatMessageResponse stored = message(1L, 0);
+        ChatMessageResponse flushedMeanwhile = message(2L, 1);
+        ChatMessageResponse pending = message(3L, 2);
+        when(chatRepository.isParticipant(3L, "alice")).thenReturn(true);
+        when(writeBuffer.pendingMessages(3L)).thenReturn(List.of(flushedMeanwhile, pending));
+        when(chatMessageRepository.findResponsesByChatId(3L)).thenReturn(List.of(stored, flushedMeanwhile));
+
+        assertThat(chatService.getMessages(3L, "alice")).containsExactly(stored, flushedMeanwhile, pending);
+    }
+
+    @Test
+    @DisplayName("Odeslání do cizího chatu - 403, nic se neuloží")
+    void sendMessage_NotParticipant_ThrowsAccessDenied() {
+        when(chatRepository.findParticipantId(3L, "mallory")).thenReturn(Optional.empty());
+        when(chatRepository.existsById(3L)).thenReturn(true);
+
+        assertThatThrownBy(() -> chatService.sendMessage(3L, "mallory", "Ahoj", null))
+                .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(writeBuffer);
+    }
+
+    @Test
+    @DisplayName("Zprávy neexistujícího chatu - 404")
+    void getMessages_MissingChat_ThrowsNotFound() {
+        when(chatRepository.isParticipant(99L, "alice")).thenReturn(false);
+        when(chatRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> chatService.getMessages(99L, "alice"))
+                .isInstanceOf(ChatNotFoundException.class);
+        // Buffer se čte už před ověřením členství (výběr databáze), zprávy z něj se ale nevrátí
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    @DisplayName("Seznam chatů seskupí účastníky podle chatu")
+    void getUserChats_GroupsParticipants() {
+        when(chatRepository.findChatParticipantsByUsername("alice")).thenReturn(List.of(
+                new Object[]{1L, "alice"}, new Object[]{1L, "bob"}, new Object[]{4L, "alice"}));
+
+        assertThat(chatService.getUserChats("alice")).containsExactly(
+                new ChatResponse(1L, List.of("alice", "bob")),
+                new ChatResponse(4L, List.of("alice")));
+    }
+
+    private static ChatMessageResponse message(long id, int minute) {
+        return new ChatMessageResponse(id, 3L, "alice", "Zpráva " + id, LocalDateTime.of(2025, 1, 1, 12, minute));
+    }
+}
@@ -0,0 +1,109 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.kodprodobro.kodprodobro.exception.file.ImageFileIsTooBig;
+import com.kodprodobro.kodprodobro.exception.file.InvalidFileException;
+import com.kodprodobro.kodprodobro.services.storage.FileStorageService;
+import com.kodprodobro.kodprodobro.services.storage.ImageType;
+import com.kodprodobro.kodprodobro.services.storage.StoredFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("FileStorageService Tests")
+class FileStorageServiceTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FileStorageService service(DataSize maxFileSize) {
+        return new FileStorageService(directory, maxFileSize, meterRegistry);
+    }
+
+    static byte[] png(int size) {
+        byte[] content = Arrays.copyOf(PNG_HEADER, size);
+        for (int i = PNG_HEADER.length; i < size; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    @Test
+    @DisplayName("Obrázek se uloží pod hashem obsahu, stejný obsah se uloží jen jednou")
+    void store_DeduplicatesByContentHash() throws IOException {
+        FileStorageService service = service(DataSize.ofMegabytes(1));
+        byte[] content = png(20_000);
+
+        StoredFile first = service.store(new ByteArrayInputStream(content));
+        StoredFile second = service.store(new ByteArrayInputStream(content));
+
+        assertThat(first.name()).matches("[0-9a-f]{64}\\.png");
+        assertThat(first.type()).isEqualTo(ImageType.PNG);
+        assertThat(second.path()).isEqualTo(first.path());
+        assertThat(first.path()).startsWith(directory.resolve(first.name().substring(0, 2)));
+        assertThat(Files.readAllBytes(first.path())).isEqualTo(content);
+        assertThat(service.load(first.name())).contains(first);
+        assertThat(meterRegistry.get("storage.uploads").tag("result", "stored").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("storage.uploads").tag("result", "deduplicated").counter().count()).isEqualTo(1);
+        assertThat(service.getTempDirectory()).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Soubor, který podle magic bytes není obrázek, se odmítne bez zápisu na disk")
+    void store_RejectsUnknownMagicBytes() {
+        FileStorageService service = service(DataSize.ofMegabytes(1));
+        byte[] content = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> service.store(new ByteArrayInputStream(content)))
+                .isInstanceOf(InvalidFileException.class);
+        assertThat(service.getTempDirectory()).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Překročení limitu během čtení upload přeruší a smaže rozpracovaný soubor")
+    void store_RejectsTooLargeFile() {
+        FileStorageService service = service(DataSize.ofKilobytes(16));
+
+        assertThatThrownBy(() -> service.store(new ByteArrayInputStream(png(16 * 1024 + 1))))
+                .isInstanceOf(ImageFileIsTooBig.class);
+        assertThat(service.getTempDirectory()).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Rozpozná JPEG, GIF i WebP")
+    void detectsSupportedFormats() {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0, 0, 0, 0, 0, 0, 0};
+        byte[] gif = "GIF89a......".getBytes(StandardCharsets.US_ASCII);
+        byte[] webp = "RIFF\0\0\0\0WEBP".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(ImageType.detect(jpeg, jpeg.length)).contains(ImageType.JPEG);
+        assertThat(ImageType.detect(gif, gif.length)).contains(ImageType.GIF);
+        assertThat(ImageType.detect(webp, webp.length)).contains(ImageType.WEBP);
+        assertThat(ImageType.detect(webp, 4)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Načtení odmítne názvy mimo formát úložiště")
+    void load_RejectsForeignNames() {
+        FileStorageService service = service(DataSize.ofMegabytes(1));
+
+        assertThat(service.load("../../etc/passwd")).isEmpty();
+        assertThat(service.load("a".repeat(64) + ".exe")).isEmpty();
+        assertThat(service.load("a".repeat(64) + ".png")).isEmpty();
+    }
+}
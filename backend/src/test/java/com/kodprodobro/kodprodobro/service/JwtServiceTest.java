@@ -10,6 +10,8 @@ import com.kodprodobro.kodprodobro.models.enums.Role;
 import com.kodprodobro.kodprodobro.models.user.User;
 import com.kodprodobro.kodprodobro.services.JwtService;
 import com.kodprodobro.kodprodobro.services.user.UserDetailsServiceImpl;
+import com.kodprodobro.kodprodobro.services.user.UserExportFormat;
+import com.kodprodobro.kodprodobro.services.user.UserExportService;
 import com.kodprodobro.kodprodobro.services.user.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +20,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -35,6 +41,7 @@ import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -58,6 +65,9 @@ class JwtServiceTest {
     @MockBean
     private UserMapper userMapper;
 
+    @MockBean
+    private UserExportService userExportService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -108,12 +118,12 @@ class JwtServiceTest {
     // ==================== GET /api/user - getAllUsers ====================
 
     @Test
-    @DisplayName("GET /api/user - Admin úspěšně získá seznam všech uživatelů")
+    @DisplayName("GET /api/user - Admin úspěšně získá stránku seznamu uživatelů")
     @WithMockUser(roles = "ADMIN")
-    void getAllUsers_AsAdmin_ReturnsUserList() throws Exception {
+    void getAllUsers_AsAdmin_ReturnsUserPage() throws Exception {
         // Given
         List<User> users = Arrays.asList(testUser, adminUser);
-        when(userService.findAllUsers()).thenReturn(users);
+        when(userService.findUsers(any(Pageable.class))).thenReturn(new PageImpl<>(users, PageRequest.of(0, 50), 2));
         when(userMapper.toDto(testUser)).thenReturn(testUserResponse);
         when(userMapper.toDto(adminUser)).thenReturn(adminUserResponse);
 
@@ -121,13 +131,52 @@ class JwtServiceTest {
         mockMvc.perform(get("/api/user"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].username").value("testuser"))
-                .andExpect(jsonPath("$[1].username").value("admin"));
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].username").value("testuser"))
+                .andExpect(jsonPath("$.content[1].username").value("admin"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        verify(userService, times(1)).findUsers(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/user - Velikost stránky je omezena na 200")
+    @WithMockUser(roles = "ADMIN")
+    void getAllUsers_TooLargePageSize_IsClamped() throws Exception {
+        // Given
+        when(userService.findUsers(any(Pageable.class))).thenReturn(Page.empty());
+
+        // When
+        mockMvc.perform(get("/api/user").param("page", "3").param("size", "100000"))
+                .andExpect(status().isOk());
+
+        // Then
+        verify(userService).findUsers(argThat(pageable -> pageable.getPageSize() == 200 && pageable.getPageNumber() == 3));
+    }
+
+    @Test
+    @DisplayName("GET /api/user/export - Admin dostane CSV export jako přílohu")
+    @WithMockUser(roles = "ADMIN")
+    void exportUsers_AsAdmin_StreamsCsv() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/user/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""));
+
+        verify(userExportService).export(eq(UserExportFormat.CSV), any());
+    }
+
+    @Test
+    @DisplayName("GET /api/user/export - Běžný uživatel nemá přístup (403 Forbidden)")
+    @WithMockUser(roles = "USER")
+    void exportUsers_AsUser_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/user/export"))
+                .andExpect(status().isForbidden());
 
-        verify(userService, times(1)).findAllUsers();
+        verifyNoInteractions(userExportService);
     }
+
     /**
      * GET /api/user - Běžný uživatel nemá přístup (403 Forbidden)
      * @throws Exception
@@ -141,7 +190,7 @@ class JwtServiceTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
 
-        verify(userService, never()).findAllUsers();
+        verify(userService, never()).findUsers(any(Pageable.class));
     }
     /**
      * GET /api/user - Nepřihlášený uživatel nemá přístup (401 Unauthorized)
@@ -155,7 +204,7 @@ class JwtServiceTest {
                 .andDo(print())
                 .andExpect(status().isUnauthorized());
 
-        verify(userService, never()).findAllUsers();
+        verify(userService, never()).findUsers(any(Pageable.class));
     }
 
     // ==================== GET /api/user/me - getCurrentUser ====================
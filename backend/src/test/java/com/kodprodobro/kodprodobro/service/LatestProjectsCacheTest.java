@@ -0,0 +1,82 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodprodobro.kodprodobro.dto.project.ProjectResponse;
+import com.kodprodobro.kodprodobro.services.project.LatestProjectsCache;
+import com.kodprodobro.kodprodobro.services.project.ProjectService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy pro předrenderovanou cache nejnovějších projektů.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LatestProjectsCache Tests")
+class LatestProjectsCacheTest {
+
+    @Mock
+    private ProjectService projectService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Gzip i identity verze obsahují stejný JSON, ETag se mění s obsahem")
+    void render_ProducesMatchingEncodingsAndContentEtag() throws Exception {
+        when(projectService.getLatestPublishedProjects())
+                .thenReturn(List.of(project(1L)))
+                .thenReturn(List.of(project(2L), project(1L)));
+        LatestProjectsCache cache = new LatestProjectsCache(projectService, objectMapper, Runnable::run, meterRegistry);
+
+        LatestProjectsCache.Rendered first = cache.get();
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(first.identity());
+        }
+        assertThat(objectMapper.readTree(first.identity()).get(0).get("id").asLong()).isEqualTo(1L);
+
+        cache.invalidate();
+        LatestProjectsCache.Rendered second = cache.get();
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+        assertThat(objectMapper.readTree(second.identity())).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Změny během běžící přestavby se sloučí do jedné další přestavby")
+    void invalidate_CoalescesConcurrentChanges() {
+        when(projectService.getLatestPublishedProjects()).thenReturn(List.of(project(1L)));
+        List<Runnable> scheduled = new ArrayList<>();
+        LatestProjectsCache cache = new LatestProjectsCache(projectService, objectMapper, scheduled::add, meterRegistry);
+
+        cache.invalidate();
+        cache.invalidate();
+        cache.invalidate();
+        assertThat(scheduled).hasSize(1);
+
+        scheduled.get(0).run();
+        verify(projectService, times(1)).getLatestPublishedProjects();
+
+        // Hot path už DB nevolá
+        cache.get();
+        cache.get();
+        verifyNoMoreInteractions(projectService);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.render").timer().count()).isEqualTo(1);
+    }
+
+    private static ProjectResponse project(Long id) {
+        return new ProjectResponse(id, "Projekt " + id, "Popis", 1L, true, "nonprofit", null, null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.kodprodobro.kodprodobro.dto.notification.NotificationRecipient;
+import com.kodprodobro.kodprodobro.event.ProjectPublishedEvent;
+import com.kodprodobro.kodprodobro.models.enums.Role;
+import com.kodprodobro.kodprodobro.repositories.notification.NotificationRepository;
+import com.kodprodobro.kodprodobro.repositories.user.UserRepository;
+import com.kodprodobro.kodprodobro.services.email.EmailService;
+import com.kodprodobro.kodprodobro.services.notification.ProjectAnnouncementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy pro rozesílání oznámení o projektech (keyset stránkování, preference, metriky).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProjectAnnouncementService Tests")
+class ProjectAnnouncementServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectAnnouncementService service;
+
+    private static final ProjectPublishedEvent EVENT = new ProjectPublishedEvent(7L, "Web pro útulek", "nonprofit");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        service = new ProjectAnnouncementService(userRepository, notificationRepository, emailService,
+                transactionManager, meterRegistry, 2, Set.of(Role.STUDENT));
+    }
+
+    @Test
+    @DisplayName("Prochází uživatele keyset kurzorem, dokud nepřijde neúplná stránka")
+    void announce_PagesWithKeysetCursor() throws Exception {
+        when(userRepository.findProjectUpdateRecipientsAfter(anyCollection(), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(recipient(1L, true), recipient(5L, false)));
+        when(userRepository.findProjectUpdateRecipientsAfter(anyCollection(), eq(5L), any(Limit.class)))
+                .thenReturn(List.of(recipient(9L, true)));
+
+        long sent = service.announce(EVENT);
+
+        assertThat(sent).isEqualTo(3);
+        verify(userRepository, times(2)).findProjectUpdateRecipientsAfter(anyCollection(), anyLong(), any(Limit.class));
+        verify(notificationRepository, times(2)).saveAll(anyList());
+        // E-mail jen uživatelům, kteří ho mají povolený
+        verify(emailService).sendProjectAnnouncement(List.of("user1@example.com"), 7L, "Web pro útulek");
+        verify(emailService).sendProjectAnnouncement(List.of("user9@example.com"), 7L, "Web pro útulek");
+        assertThat(meterRegistry.get("notifications.fanout.sent").tag("channel", "in_app").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("notifications.fanout.sent").tag("channel", "email").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Plná poslední stránka vede k dalšímu dotazu, který vrátí prázdný výsledek")
+    void announce_FullLastPage_StopsOnEmptyPage() {
+        when(userRepository.findProjectUpdateRecipientsAfter(anyCollection(), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(recipient(1L, false), recipient(2L, false)));
+        when(userRepository.findProjectUpdateRecipientsAfter(anyCollection(), eq(2L), any(Limit.class)))
+                .thenReturn(List.of());
+
+        long sent = service.announce(EVENT);
+
+        assertThat(sent).isEqualTo(2);
+        verify(notificationRepository, times(1)).saveAll(anyList());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    @DisplayName("Chyba e-mailu nezastaví rozesílání dalších dávek")
+    void announce_EmailFailure_ContinuesWithNextBatch() throws Exception {
+        when(userRepository.findProjectUpdateRecipientsAfter(anyCollection(), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(recipient(1L, true), recipient(2L, true)));
+        when(userRepository.findProjectUpdateRecipientsAfter(anyCollection(), eq(2L), any(Limit.class)))
+                .thenReturn(List.of(recipient(3L, true)));
+        doThrow(new MailSendException("SMTP nedostupné"))
+                .doNothing()
+                .when(emailService).sendProjectAnnouncement(anyList(), anyLong(), anyString());
+
+        long sent = service.announce(EVENT);
+
+        assertThat(sent).isEqualTo(3);
+        assertThat(meterRegistry.get("notifications.fanout.failed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("notifications.fanout.sent").tag("channel", "email").counter().count()).isEqualTo(1);
+    }
+
+    private static NotificationRecipient recipient(long id, boolean emailEnabled) {
+        return new NotificationRecipient(id, "user" + id + "@example.com", emailEnabled);
+    }
+}
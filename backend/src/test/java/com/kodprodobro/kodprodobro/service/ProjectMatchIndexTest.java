@@ -0,0 +1,142 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.kodprodobro.kodprodobro.services.matching.LayeredProjectIndex;
+import com.kodprodobro.kodprodobro.services.matching.ProjectDocument;
+import com.kodprodobro.kodprodobro.services.matching.ProjectIndexSnapshotStore;
+import com.kodprodobro.kodprodobro.services.matching.ProjectMatch;
+import com.kodprodobro.kodprodobro.services.matching.ProjectMatchIndex;
+import com.kodprodobro.kodprodobro.services.matching.TextTokenizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy pro BM25 matching index, jeho vrstvy, snapshot a tokenizaci.
+ */
+@DisplayName("ProjectMatchIndex Tests")
+class ProjectMatchIndexTest {
+
+    private final ProjectMatchIndex index = ProjectMatchIndex.build(List.of(
+            ProjectDocument.of(1L, "Web pro útulek", "React aplikace pro adopci zvířat z útulku"),
+            ProjectDocument.of(2L, "Rezervační systém", "Backend v Javě a Spring Boot, databáze PostgreSQL"),
+            ProjectDocument.of(3L, "Mobilní aplikace pro seniory", "Android aplikace v Kotlinu"),
+            ProjectDocument.of(4L, "Evidence dobrovolníků", "Spring Boot API a React frontend")
+    ));
+
+    @Test
+    @DisplayName("Tokenizer odstraní diakritiku, stop slova a zachová C# a C++")
+    void tokenize_NormalizesText() {
+        assertThat(TextTokenizer.tokenize("Zvířata a útulek, C# i C++ pro #React"))
+                .containsExactly("zvirata", "utulek", "c#", "c++", "react");
+    }
+
+    @Test
+    @DisplayName("Nejlépe odpovídající projekt je první a má nejvyšší skóre")
+    void topMatches_RanksByRelevance() {
+        List<ProjectMatch> matches = index.topMatches(TextTokenizer.tokenize("Spring PostgreSQL"), 10);
+
+        assertThat(matches).extracting(ProjectMatch::projectId).containsExactly(2L, 4L);
+        assertThat(matches.get(0).matchedTerms()).containsExactly("spring", "postgresql");
+        assertThat(matches.get(0).matchScore()).isGreaterThan(matches.get(1).matchScore());
+        assertThat(matches.get(0).matchScore()).isBetween(0, 100);
+    }
+
+    @Test
+    @DisplayName("Limit ořízne výsledky, shoda skóre se řadí podle ID")
+    void topMatches_RespectsLimitAndTieBreak() {
+        ProjectMatchIndex same = ProjectMatchIndex.build(List.of(
+                ProjectDocument.of(30L, "Java projekt", "java"),
+                ProjectDocument.of(10L, "Java projekt", "java"),
+                ProjectDocument.of(20L, "Java projekt", "java")
+        ));
+
+        assertThat(same.topMatches(List.of("java"), 2))
+                .extracting(ProjectMatch::projectId)
+                .containsExactly(10L, 20L);
+    }
+
+    @Test
+    @DisplayName("Neznámé termy nebo prázdný index vrátí prázdný výsledek")
+    void topMatches_NoMatches() {
+        assertThat(index.topMatches(List.of("cobol"), 5)).isEmpty();
+        assertThat(index.topMatches(List.of(), 5)).isEmpty();
+        assertThat(ProjectMatchIndex.empty().topMatches(List.of("java"), 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Top-K výběr odpovídá úplnému seřazení všech výsledků")
+    void topMatches_HeapMatchesFullSort() {
+        List<ProjectDocument> documents = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            documents.add(ProjectDocument.of(i, "Projekt " + i, "java ".repeat(i % 7) + "react ".repeat(i % 5)));
+        }
+        ProjectMatchIndex large = ProjectMatchIndex.build(documents);
+        List<String> query = List.of("java", "react");
+
+        List<ProjectMatch> all = large.topMatches(query, 1000);
+        List<ProjectMatch> top = large.topMatches(query, 15);
+
+        assertThat(top).isEqualTo(all.subList(0, 15));
+        for (int i = 1; i < all.size(); i++) {
+            assertThat(all.get(i - 1).score()).isGreaterThanOrEqualTo(all.get(i).score());
+        }
+    }
+
+    @Test
+    @DisplayName("Delta vrstva přebije starou verzi projektu a tombstone skryje smazaný projekt")
+    void layered_DeltaOverridesBaseAndTombstonesHide() {
+        ProjectMatchIndex delta = ProjectMatchIndex.build(List.of(
+                ProjectDocument.of(3L, "Mobilní aplikace pro seniory", "Spring Boot backend pro Android aplikaci")
+        ), index.averageLength());
+        LayeredProjectIndex layered = new LayeredProjectIndex(index, delta, Set.of(3L, 4L));
+
+        List<ProjectMatch> matches = layered.topMatches(TextTokenizer.tokenize("Spring"), 10);
+
+        // Projekt 4 je smazaný, projekt 3 má novou verzi s "spring" v popisu
+        assertThat(matches).extracting(ProjectMatch::projectId).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(layered.liveSize()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Kompaktovaný index dává stejné výsledky jako vrstvy, ze kterých vznikl")
+    void documents_RoundTripThroughCompaction() {
+        ProjectMatchIndex rebuilt = ProjectMatchIndex.build(index.documents());
+        List<String> query = TextTokenizer.tokenize("React Spring aplikace");
+
+        assertThat(rebuilt.topMatches(query, 10)).isEqualTo(index.topMatches(query, 10));
+    }
+
+    @Test
+    @DisplayName("Snapshot uložený na disk se načte se stejným obsahem a watermarkem")
+    void snapshot_SaveAndLoad(@TempDir Path directory) throws Exception {
+        ProjectIndexSnapshotStore store = new ProjectIndexSnapshotStore(directory.resolve("index.bin"));
+        Instant watermark = Instant.parse("2026-01-15T10:00:00Z");
+        assertThat(store.load()).isEmpty();
+
+        store.save(index, watermark);
+        ProjectIndexSnapshotStore.Snapshot snapshot = store.load().orElseThrow();
+
+        List<String> query = TextTokenizer.tokenize("React útulek");
+        assertThat(snapshot.watermark()).isEqualTo(watermark);
+        assertThat(snapshot.index().size()).isEqualTo(index.size());
+        assertThat(snapshot.index().topMatches(query, 10)).isEqualTo(index.topMatches(query, 10));
+    }
+
+    @Test
+    @DisplayName("Poškozený snapshot se ignoruje")
+    void snapshot_CorruptedFileIsIgnored(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("index.bin");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        assertThat(new ProjectIndexSnapshotStore(file).load()).isEmpty();
+    }
+}
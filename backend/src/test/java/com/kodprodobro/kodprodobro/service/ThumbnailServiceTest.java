@@ -0,0 +1,162 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.kodprodobro.kodprodobro.services.storage.FileStorageService;
+import com.kodprodobro.kodprodobro.services.storage.ImageType;
+import com.kodprodobro.kodprodobro.services.storage.StoredFile;
+import com.kodprodobro.kodprodobro.services.storage.ThumbnailService;
+import com.kodprodobro.kodprodobro.services.storage.ThumbnailSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ThumbnailService Tests")
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FileStorageService storage;
+    private ThumbnailService thumbnails;
+
+    private void createServices(int workers, int queueCapacity) {
+        storage = new FileStorageService(directory, DataSize.ofMegabytes(20), meterRegistry);
+        thumbnails = new ThumbnailService(storage, meterRegistry, workers, queueCapacity, 40_000_000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        thumbnails.shutdown();
+    }
+
+    static byte[] image(int width, int height, boolean alpha, int seed) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(seed * 40 % 256, 120, 200, alpha ? 128 : 255));
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private StoredFile store(byte[] content) {
+        return storage.store(new ByteArrayInputStream(content));
+    }
+
+    private static int width(StoredFile file) throws IOException {
+        return ImageIO.read(file.path().toFile()).getWidth();
+    }
+
+    @Test
+    @DisplayName("Z originálu vzniknou všechny velikosti jako JPEG, poměr stran zůstane")
+    void generate_WritesAllSizes() throws Exception {
+        createServices(1, 4);
+        StoredFile original = store(image(2400, 1200, false, 1));
+
+        thumbnails.generate(original).get(10, TimeUnit.SECONDS);
+
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            StoredFile thumbnail = thumbnails.find(original, size).orElseThrow();
+            assertThat(thumbnail.type()).isEqualTo(ImageType.JPEG);
+            BufferedImage decoded = ImageIO.read(thumbnail.path().toFile());
+            assertThat(decoded.getWidth()).isEqualTo(size.getWidth());
+            assertThat(decoded.getHeight()).isEqualTo(size.getWidth() / 2);
+        }
+        assertThat(meterRegistry.get("images.thumbnails.jobs").tag("result", "generated").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("images.thumbnails.render").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Průhledný obrázek dá PNG náhledy, malý obrázek se nezvětší")
+    void generate_KeepsAlphaAndDoesNotUpscale() throws Exception {
+        createServices(1, 4);
+        StoredFile original = store(image(300, 200, true, 2));
+
+        thumbnails.generate(original).get(10, TimeUnit.SECONDS);
+        StoredFile small = thumbnails.find(original, ThumbnailSize.SMALL).orElseThrow();
+        StoredFile large = thumbnails.find(original, ThumbnailSize.LARGE).orElseThrow();
+
+        assertThat(small.type()).isEqualTo(ImageType.PNG);
+        assertThat(width(small)).isEqualTo(160);
+        assertThat(width(large)).isEqualTo(300);
+        assertThat(ImageIO.read(small.path().toFile()).getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Poškozený obrázek náhled nemá a znovu se nedekóduje")
+    void thumbnail_UndecodableImage() throws Exception {
+        createServices(1, 4);
+        byte[] broken = image(400, 400, false, 3);
+        StoredFile original = store(Arrays.copyOf(broken, 64));
+
+        assertThatThrownBy(() -> thumbnails.generate(original).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+        assertThat(thumbnails.thumbnail(original, ThumbnailSize.SMALL)).isEmpty();
+        assertThat(thumbnails.generate(original)).isCompletedExceptionally();
+        assertThat(meterRegistry.get("images.thumbnails.jobs").tag("result", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Chybějící náhled se zařadí ke generování bez čekání")
+    void thumbnail_DoesNotWaitForGeneration() throws Exception {
+        createServices(1, 4);
+        StoredFile original = store(image(2400, 1200, false, 4));
+
+        assertThat(thumbnails.thumbnail(original, ThumbnailSize.MEDIUM)).isEmpty();
+
+        // Úloha už běží, další volání se k ní připojí
+        thumbnails.generate(original).get(10, TimeUnit.SECONDS);
+        assertThat(thumbnails.thumbnail(original, ThumbnailSize.MEDIUM)).isPresent();
+        assertThat(meterRegistry.get("images.thumbnails.jobs").tag("result", "generated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Plná fronta úlohu odmítne místo hromadění práce")
+    void generate_RejectsWhenQueueIsFull() throws Exception {
+        createServices(1, 1);
+        List<StoredFile> originals = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            originals.add(store(image(3000, 2000, false, 10 + i)));
+        }
+
+        // Jedno vlákno a fronta na jednu úlohu: ze čtyř naráz zařazených obrázků se aspoň jeden nevejde
+        List<CompletableFuture<Void>> jobs = originals.stream().map(thumbnails::generate).toList();
+
+        assertThat(jobs).anySatisfy(job -> assertThatThrownBy(() -> job.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class));
+        assertThat(meterRegistry.get("images.thumbnails.jobs").tag("result", "rejected").counter().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("WebP náhledy nemá")
+    void webpIsNotSupported() {
+        createServices(1, 1);
+
+        assertThat(thumbnails.supports(ImageType.WEBP)).isFalse();
+        assertThat(thumbnails.supports(ImageType.GIF)).isTrue();
+    }
+}
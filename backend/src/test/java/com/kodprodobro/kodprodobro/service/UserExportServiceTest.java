@@ -0,0 +1,83 @@
+package com.kodprodobro.kodprodobro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodprodobro.kodprodobro.dto.user.UserResponse;
+import com.kodprodobro.kodprodobro.repositories.user.UserExportRepository;
+import com.kodprodobro.kodprodobro.services.user.UserExportFormat;
+import com.kodprodobro.kodprodobro.services.user.UserExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit testy pro streamovaný export uživatelů.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserExportService Tests")
+class UserExportServiceTest {
+
+    @Mock
+    private UserExportRepository userExportRepository;
+
+    private UserExportService userExportService;
+
+    @BeforeEach
+    void setUp() {
+        userExportService = new UserExportService(userExportRepository, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("NDJSON export zapíše jeden objekt na řádek a zavře DB stream")
+    void export_Ndjson_WritesOneObjectPerLine() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean(false);
+        when(userExportRepository.streamAll()).thenReturn(Stream.of(
+                new UserResponse(1L, "anna", "anna@example.com", null, "USER"),
+                new UserResponse(2L, "admin", "admin@example.com", null, "ADMIN,USER")
+        ).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = userExportService.export(UserExportFormat.NDJSON, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,\"username\":\"anna\"");
+        assertThat(lines[1]).contains("\"role\":\"ADMIN,USER\"");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("CSV export escapuje čárky, uvozovky a nebezpečné vzorce")
+    void export_Csv_EscapesFields() throws Exception {
+        // Given
+        when(userExportRepository.streamAll()).thenReturn(Stream.of(
+                new UserResponse(1L, "=cmd|calc", "a@example.com", null, "ADMIN,USER"),
+                new UserResponse(2L, "jan \"honza\"", "b@example.com", null, null)
+        ));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        userExportService.export(UserExportFormat.CSV, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                id,username,email,roles
+                1,'=cmd|calc,a@example.com,"ADMIN,USER"
+                2,"jan ""honza\"\"",b@example.com,
+                """);
+    }
+}
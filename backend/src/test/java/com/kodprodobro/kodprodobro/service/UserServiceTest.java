@@ -17,6 +17,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -458,36 +461,40 @@ class UserServiceTest {
     }
 
     @Nested
-    @DisplayName("findAllUsers Tests")
-    class FindAllUsersTests {
+    @DisplayName("findUsers Tests")
+    class FindUsersTests {
 
         @Test
-        @DisplayName("Měl by vrátit všechny uživatele")
-        void shouldReturnAllUsers() {
+        @DisplayName("Měl by vrátit požadovanou stránku uživatelů")
+        void shouldReturnRequestedPage() {
             // Given
+            PageRequest pageRequest = PageRequest.of(0, 2);
             List<User> users = Arrays.asList(createTestUser(), createTestUser());
-            when(userRepository.findAll()).thenReturn(users);
+            when(userRepository.findAll(pageRequest)).thenReturn(new PageImpl<>(users, pageRequest, 5));
 
             // When
-            List<User> result = userService.findAllUsers();
+            Page<User> result = userService.findUsers(pageRequest);
 
             // Then
-            assertThat(result).hasSize(2);
-            verify(userRepository).findAll();
+            assertThat(result.getContent()).hasSize(2);
+            assertThat(result.getTotalElements()).isEqualTo(5);
+            verify(userRepository).findAll(pageRequest);
+            verify(userRepository, never()).findAll();
         }
 
         @Test
-        @DisplayName("Měl by vrátit prázdný seznam, když neexistují žádní uživatelé")
-        void shouldReturnEmptyList_WhenNoUsersExist() {
+        @DisplayName("Měl by vrátit prázdnou stránku, když neexistují žádní uživatelé")
+        void shouldReturnEmptyPage_WhenNoUsersExist() {
             // Given
-            when(userRepository.findAll()).thenReturn(Collections.emptyList());
+            PageRequest pageRequest = PageRequest.of(0, 50);
+            when(userRepository.findAll(pageRequest)).thenReturn(Page.empty(pageRequest));
 
             // When
-            List<User> result = userService.findAllUsers();
+            Page<User> result = userService.findUsers(pageRequest);
 
             // Then
             assertThat(result).isEmpty();
-            verify(userRepository).findAll();
+            verify(userRepository).findAll(pageRequest);
         }
     }
 